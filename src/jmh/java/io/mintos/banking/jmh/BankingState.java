@@ -0,0 +1,153 @@
+package io.mintos.banking.jmh;
+
+import com.sun.net.httpserver.HttpServer;
+import io.mintos.banking.BankingApplication;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.services.BankingService;
+import io.mintos.banking.utils.CrossRateMatrix;
+import io.mintos.banking.utils.CurrencyConverter;
+import io.mintos.banking.utils.ExchangeRateCache;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application against a private in-memory H2 database and seeds it with {@code accounts} EUR and USD
+ * accounts each, plus {@code transactionsPerAccount} ledger rows per EUR account. The exchange API is replaced
+ * by a local stub so that no benchmark touches the network.
+ */
+@State(Scope.Benchmark)
+public class BankingState {
+
+    static final String EUR_PREFIX = "BEUR";
+    static final String USD_PREFIX = "BUSD";
+    static final BigDecimal STUB_RATE = new BigDecimal("1.085184");
+    private static final int INSERT_CHUNK = 5_000;
+
+    @Param("100")
+    public int accounts;
+
+    @Param("1000")
+    public int transactionsPerAccount;
+
+    ConfigurableApplicationContext context;
+    BankingService bankingService;
+    CurrencyConverter currencyConverter;
+
+    private HttpServer rateServer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        rateServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        rateServer.createContext("/convert", exchange -> {
+            byte[] body = ("{\"success\":true,\"result\":" + STUB_RATE + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        rateServer.start();
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        context = new SpringApplicationBuilder(BankingApplication.class, StubConverterConfig.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--exchange.api.url=http://127.0.0.1:" + rateServer.getAddress().getPort() + "/convert",
+                        "--exchange.cache.initial-delay=PT1H");
+        bankingService = context.getBean(BankingService.class);
+        currencyConverter = context.getBean("currencyConverter", CurrencyConverter.class);
+        context.getBean(ExchangeRateCache.class).refreshAll();
+        seed(context.getBean(JdbcTemplate.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        rateServer.stop(0);
+    }
+
+    static String eurAccount(int index) {
+        return EUR_PREFIX + index;
+    }
+
+    static String usdAccount(int index) {
+        return USD_PREFIX + index;
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("INSERT INTO client (id, name, surname, personal_code) "
+                + "VALUES (NEXT VALUE FOR client_sequence, 'Bench', 'Mark', 'BENCH')");
+        Long clientId = jdbcTemplate.queryForObject("SELECT id FROM client WHERE personal_code = 'BENCH'", Long.class);
+
+        List<Object[]> accountRows = new ArrayList<>();
+        for (int i = 0; i < accounts; i++) {
+            accountRows.add(new Object[]{eurAccount(i), "EUR", clientId});
+            accountRows.add(new Object[]{usdAccount(i), "USD", clientId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO account (id, account_number, balance, currency, client_id, version) "
+                + "VALUES (NEXT VALUE FOR account_sequence, ?, 1000000.00, ?, ?, 0)", accountRows);
+
+        OffsetDateTime start = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        List<Object[]> ledgerRows = new ArrayList<>(INSERT_CHUNK);
+        for (int i = 0; i < accounts; i++) {
+            for (int t = 0; t < transactionsPerAccount; t++) {
+                ledgerRows.add(new Object[]{eurAccount(i), new BigDecimal("1.00"), new BigDecimal("1000000.00"),
+                        start.plusSeconds(t), t % 2 == 0 ? "INCOMING" : "OUTGOING"});
+                if (ledgerRows.size() == INSERT_CHUNK) {
+                    insertLedger(jdbcTemplate, ledgerRows);
+                    ledgerRows.clear();
+                }
+            }
+        }
+        insertLedger(jdbcTemplate, ledgerRows);
+    }
+
+    private static void insertLedger(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        if (rows.isEmpty())
+            return;
+        jdbcTemplate.batchUpdate("INSERT INTO transactions "
+                + "(id, account_number, amount, balance, currency, timestamp, transaction_flow) "
+                + "VALUES (NEXT VALUE FOR transaction_sequence, ?, ?, ?, 'EUR', ?, ?)", rows);
+    }
+
+    /**
+     * Passed to the application builder explicitly rather than annotated, so component scanning in the
+     * functional tests never picks it up.
+     */
+    static class StubConverterConfig {
+
+        @Bean
+        @Primary
+        CurrencyConverter fixedRateCurrencyConverter(ExchangeRateCache exchangeRateCache,
+                                                     CrossRateMatrix crossRateMatrix) {
+            return new CurrencyConverter(exchangeRateCache, crossRateMatrix) {
+                @Override
+                public BigDecimal convert(Currency currencyFrom, Currency currencyTo, BigDecimal amount) {
+                    return amount.multiply(STUB_RATE).setScale(2, RoundingMode.HALF_UP);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package io.mintos.banking.jmh;
+
+import io.mintos.banking.enums.Currency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code CurrencyConverter.convert} with a warm rate cache, i.e. the path every cross-currency transfer takes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConverterBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("123.45");
+
+    @Benchmark
+    public BigDecimal convert(BankingState state) {
+        return state.currencyConverter.convert(Currency.EUR, Currency.USD, AMOUNT);
+    }
+}
@@ -0,0 +1,37 @@
+package io.mintos.banking.jmh;
+
+import io.mintos.banking.enums.Currency;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CurrencyBenchmark {
+
+    // Non-final fields so the JIT cannot constant-fold the argument
+    private String supported = "GBP";
+    private String unsupported = "JPY";
+
+    @Benchmark
+    public boolean isValidSupported() {
+        return Currency.isValid(supported);
+    }
+
+    @Benchmark
+    public boolean isValidUnsupported() {
+        return Currency.isValid(unsupported);
+    }
+}
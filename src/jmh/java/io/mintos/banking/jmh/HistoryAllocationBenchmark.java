@@ -0,0 +1,69 @@
+package io.mintos.banking.jmh;
+
+import io.mintos.banking.domain.Transactions;
+import io.mintos.banking.records.TransactionsPageRecord;
+import io.mintos.banking.records.TransactionsRecord;
+import io.mintos.banking.repos.TransactionsRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Allocation per history request. {@code hydratedPage} is the former read path, which loaded managed
+ * {@link Transactions} entities and mapped them to records; the other two are the projected reads the service
+ * uses now. Compare {@code gc.alloc.rate.norm} (bytes per operation), reported by the {@code gc} profiler that
+ * both builds enable.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryAllocationBenchmark {
+
+    @Param({"50", "500"})
+    public int pageSize;
+
+    private String account;
+    private TransactionsRepository transactionsRepository;
+
+    @Setup(Level.Trial)
+    public void setUp(BankingState state) {
+        account = BankingState.eurAccount(0);
+        transactionsRepository = state.context.getBean(TransactionsRepository.class);
+    }
+
+    @Benchmark
+    public List<TransactionsRecord> hydratedPage() {
+        return transactionsRepository.findAllByAccountNumber(account,
+                        PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "timestamp"))).stream()
+                .map(t -> new TransactionsRecord(t.getAccountNumber(), t.getBalance(), t.getAmount(),
+                        t.getCurrency(), t.getTimestamp(), t.getTransactionFlow()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<TransactionsRecord> projectedOffsetPage(BankingState state) {
+        return state.bankingService.getTransactionHistory(account, 0, pageSize);
+    }
+
+    @Benchmark
+    public TransactionsPageRecord projectedCursorPage(BankingState state) {
+        return state.bankingService.getTransactionHistoryPage(account, "", pageSize);
+    }
+}
@@ -0,0 +1,61 @@
+package io.mintos.banking.jmh;
+
+import io.mintos.banking.records.TransactionsPageRecord;
+import io.mintos.banking.records.TransactionsRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads one page of an account's history at a given depth, by offset and by keyset cursor. The cursor for the
+ * requested depth is resolved once during setup, the way a client paging forward would already hold it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HistoryBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"0", "10"})
+    public int page;
+
+    private String account;
+    private String cursor;
+
+    @Setup(Level.Trial)
+    public void setUp(BankingState state) {
+        account = BankingState.eurAccount(0);
+        cursor = "";
+        for (int i = 0; i < page && cursor != null; i++) {
+            cursor = state.bankingService.getTransactionHistoryPage(account, cursor, PAGE_SIZE).nextCursor();
+        }
+        if (cursor == null)
+            throw new IllegalStateException("Seeded history is shorter than page " + page);
+    }
+
+    @Benchmark
+    public List<TransactionsRecord> offsetPage(BankingState state) {
+        return state.bankingService.getTransactionHistory(account, page, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public TransactionsPageRecord cursorPage(BankingState state) {
+        return state.bankingService.getTransactionHistoryPage(account, cursor, PAGE_SIZE);
+    }
+}
@@ -0,0 +1,45 @@
+package io.mintos.banking.jmh;
+
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.records.TransfareRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code BankingService.transferFunds} end to end through JPA and H2. Conversion is stubbed with a fixed rate,
+ * so the cross-currency case measures the extra work in the service, not the exchange API.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransferBenchmark {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Benchmark
+    public void sameCurrency(BankingState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sender = random.nextInt(state.accounts);
+        int receiver = (sender + 1 + random.nextInt(state.accounts - 1)) % state.accounts;
+        state.bankingService.transferFunds(new TransfareRecord(BankingState.eurAccount(sender),
+                BankingState.eurAccount(receiver), AMOUNT, Currency.EUR));
+    }
+
+    @Benchmark
+    public void crossCurrency(BankingState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        state.bankingService.transferFunds(new TransfareRecord(BankingState.eurAccount(random.nextInt(state.accounts)),
+                BankingState.usdAccount(random.nextInt(state.accounts)), AMOUNT, Currency.USD));
+    }
+}
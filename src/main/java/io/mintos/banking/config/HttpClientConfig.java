@@ -0,0 +1,45 @@
+package io.mintos.banking.config;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * Single client shared by all outbound exchange API calls, so connections and TLS sessions are reused.
+     * With {@code spring.threads.virtual.enabled} every call runs on its own virtual thread; the dispatcher limits
+     * still bound how many run at once.
+     */
+    @Bean
+    public OkHttpClient exchangeHttpClient(@Value("${exchange.http.max-requests:64}") int maxRequests,
+                                           @Value("${exchange.http.max-requests-per-host:16}") int maxRequestsPerHost,
+                                           @Value("${exchange.http.max-idle-connections:8}") int maxIdleConnections,
+                                           @Value("${exchange.http.keep-alive:PT5M}") Duration keepAlive,
+                                           @Value("${exchange.http.connect-timeout:PT2S}") Duration connectTimeout,
+                                           @Value("${exchange.http.read-timeout:PT3S}") Duration readTimeout,
+                                           @Value("${exchange.http.call-timeout:PT5S}") Duration callTimeout,
+                                           @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        Dispatcher dispatcher = virtualThreads
+                ? new Dispatcher(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("exchange-http-", 0).factory()))
+                : new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(connectTimeout)
+                .readTimeout(readTimeout)
+                .callTimeout(callTimeout)
+                .build();
+    }
+}
@@ -1,43 +1,210 @@
 package io.mintos.banking.controller;
 
+import io.mintos.banking.enums.ExportFormat;
+import io.mintos.banking.enums.StatementPeriod;
+import io.mintos.banking.enums.TransferStatus;
+import io.mintos.banking.exception.InvalidTransferException;
+import io.mintos.banking.records.IdempotentOutcomeRecord;
 import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.StatementPeriodRecord;
+import io.mintos.banking.records.TransactionsPageRecord;
 import io.mintos.banking.records.TransactionsRecord;
 import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.records.TransferResultRecord;
+import io.mintos.banking.records.TransferStatusRecord;
+import io.mintos.banking.services.AsyncTransferService;
 import io.mintos.banking.services.BankingService;
+import io.mintos.banking.services.IdempotencyService;
+import io.mintos.banking.utils.TransactionHistoryExporter;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/bank")
 public class BankingController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String PREFER_HEADER = "Prefer";
+    static final String PREFERENCE_APPLIED_HEADER = "Preference-Applied";
+    static final String RESPOND_ASYNC = "respond-async";
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final BankingService service;
+    private final TransactionHistoryExporter historyExporter;
+    private final AsyncTransferService asyncTransferService;
+    private final IdempotencyService idempotencyService;
 
-    public BankingController(final BankingService service) { this.service = Objects.requireNonNull(service); }
+    public BankingController(final BankingService service, final TransactionHistoryExporter historyExporter,
+                             final AsyncTransferService asyncTransferService,
+                             final IdempotencyService idempotencyService) {
+        this.service = Objects.requireNonNull(service);
+        this.historyExporter = Objects.requireNonNull(historyExporter);
+        this.asyncTransferService = Objects.requireNonNull(asyncTransferService);
+        this.idempotencyService = Objects.requireNonNull(idempotencyService);
+    }
 
     @GetMapping("/clients/{personalCode}/accounts")
     public ResponseEntity<List<AccountRecord>> getAccountsByClientId(@PathVariable @NotBlank String personalCode) {
-        if (service.clientExists(personalCode)) {
-            return ResponseEntity.ok(service.getAccountsByClient(personalCode));
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+        return service.findAccountsByClient(personalCode)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Accounts of many clients at once, keyed by personal code. Unknown clients are left out.
+     */
+    @PostMapping("/clients/accounts:batchGet")
+    public ResponseEntity<Map<String, List<AccountRecord>>> getAccountsByClients(@RequestBody List<String> personalCodes) {
+        return ResponseEntity.ok(service.getAccountsByClients(personalCodes));
     }
 
     @GetMapping("/accounts/{accountNumber}/transactions")
     public ResponseEntity<List<TransactionsRecord>> getTransactionHistory(@PathVariable String accountNumber,
                                                                           @RequestParam(required = false) Integer offset,
-                                                                          @RequestParam(required = false) Integer limit) {
+                                                                          @RequestParam(required = false) Integer limit,
+                                                                          @RequestParam(required = false) String cursor) {
+        if (Objects.nonNull(cursor)) {
+            TransactionsPageRecord page = service.getTransactionHistoryPage(accountNumber, cursor, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (Objects.nonNull(page.nextCursor()))
+                response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+            return response.body(page.transactions());
+        }
         List<TransactionsRecord> transactionHistory = service.getTransactionHistory(accountNumber, offset, limit);
         return  ResponseEntity.ok(transactionHistory);
     }
 
+    /**
+     * Incoming and outgoing totals and the closing balance per day or month, from the rollups maintained by
+     * transfers. Periods without postings are left out.
+     */
+    @GetMapping("/accounts/{accountNumber}/summary")
+    public ResponseEntity<List<StatementPeriodRecord>> getStatementSummary(@PathVariable String accountNumber,
+                                                                           @RequestParam(defaultValue = "DAY") StatementPeriod period,
+                                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(service.getStatementSummary(accountNumber, period, from, to));
+    }
+
+    @GetMapping("/accounts/{accountNumber}/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactionHistory(@PathVariable String accountNumber,
+                                                                          @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        StreamingResponseBody body = out -> historyExporter.export(accountNumber, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(accountNumber + "-transactions." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    /**
+     * With {@code Prefer: respond-async} and the async pipeline enabled, the transfer is queued and answered with
+     * 202 and its status; otherwise it is applied before responding.
+     * <p>
+     * With an {@code Idempotency-Key}, repeating the request returns the first outcome instead of transferring
+     * again; a queued transfer is answered with its current or final status, or without a status if neither is
+     * known any more.
+     */
     @PostMapping("/accounts/transfer")
-    public ResponseEntity<Void> transferFunds(@RequestBody TransfareRecord transfareRecord) {
-        service.transferFunds(transfareRecord);
-        return ResponseEntity.ok().build();
+    public ResponseEntity<TransferStatusRecord> transferFunds(@RequestBody TransfareRecord transfareRecord,
+                                                              @RequestHeader(name = PREFER_HEADER, required = false) String prefer,
+                                                              @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        boolean async = Objects.nonNull(prefer) && prefer.toLowerCase(Locale.ROOT).contains(RESPOND_ASYNC)
+                && asyncTransferService.isEnabled();
+        IdempotentOutcomeRecord outcome;
+        if (Objects.isNull(idempotencyKey)) {
+            outcome = transfer(transfareRecord, async, completed -> { });
+        } else {
+            if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)
+                throw new InvalidTransferException("Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters!");
+            outcome = idempotencyService.execute(idempotencyKey, fingerprint(transfareRecord, async),
+                    async || service.runsBeforeCommit(), recordOutcome -> transfer(transfareRecord, async, recordOutcome));
+        }
+        if (outcome.status() != HttpStatus.ACCEPTED.value())
+            return ResponseEntity.ok().build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.accepted()
+                .location(URI.create("/bank/accounts/transfers/" + outcome.transferId()))
+                .header(PREFERENCE_APPLIED_HEADER, RESPOND_ASYNC);
+        return asyncTransferService.getStatus(outcome.transferId())
+                .or(() -> finished(outcome))
+                .map(response::body)
+                .orElseGet(() -> response.build());
+    }
+
+    /**
+     * A synchronous transfer records its outcome in its own transaction. A queued one records its pending status
+     * before it is queued, and its final status once it has been applied.
+     */
+    private IdempotentOutcomeRecord transfer(TransfareRecord transfareRecord, boolean async,
+                                             Consumer<IdempotentOutcomeRecord> recordOutcome) {
+        if (async) {
+            TransferStatusRecord pending = asyncTransferService.submit(transfareRecord,
+                    accepted -> recordOutcome.accept(queued(accepted)),
+                    finished -> recordOutcome.accept(queued(finished)));
+            return queued(pending);
+        }
+        IdempotentOutcomeRecord completed = new IdempotentOutcomeRecord(HttpStatus.OK.value(), null, null, null);
+        service.transferFunds(transfareRecord, () -> recordOutcome.accept(completed));
+        return completed;
+    }
+
+    private static IdempotentOutcomeRecord queued(TransferStatusRecord status) {
+        return new IdempotentOutcomeRecord(HttpStatus.ACCEPTED.value(), status.id(), status.status(), status.message());
+    }
+
+    /**
+     * The final status stored with a replayed outcome, once the transfer's status has expired from memory.
+     */
+    private static Optional<TransferStatusRecord> finished(IdempotentOutcomeRecord outcome) {
+        if (Objects.isNull(outcome.transferStatus()) || outcome.transferStatus() == TransferStatus.PENDING)
+            return Optional.empty();
+        return Optional.of(new TransferStatusRecord(outcome.transferId(), outcome.transferStatus(), outcome.message()));
+    }
+
+    /**
+     * What makes two requests under the same key the same request.
+     */
+    static String fingerprint(TransfareRecord transfareRecord, boolean async) {
+        if (Objects.isNull(transfareRecord))
+            return "null";
+        return String.join("|", String.valueOf(transfareRecord.senderAccount()),
+                String.valueOf(transfareRecord.receiverAccount()),
+                Objects.isNull(transfareRecord.amount()) ? "null" : transfareRecord.amount().stripTrailingZeros().toPlainString(),
+                String.valueOf(transfareRecord.currency()),
+                async ? RESPOND_ASYNC : "sync");
+    }
+
+    /**
+     * Answers 404 for unknown transfers, including ones whose status has expired or was evicted, see
+     * {@code banking.transfer.async.status-ttl} and {@code status-max-size}.
+     */
+    @GetMapping("/accounts/transfers/{transferId}")
+    public ResponseEntity<TransferStatusRecord> getTransferStatus(@PathVariable String transferId) {
+        return asyncTransferService.getStatus(transferId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/accounts/transfers/batch")
+    public ResponseEntity<List<TransferResultRecord>> transferFundsBatch(@RequestBody List<TransfareRecord> transfareRecords) {
+        return ResponseEntity.ok(service.transferFundsBatch(transfareRecords));
     }
 }
@@ -1,7 +1,10 @@
 package io.mintos.banking.domain;
 
+import io.mintos.banking.enums.Currency;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -9,6 +12,9 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 
 import jakarta.validation.constraints.Min;
@@ -18,6 +24,7 @@ import lombok.experimental.Accessors;
 
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_account_account_number", columnNames = "account_number"))
 @Getter
 @Setter
 @Accessors(chain = true)
@@ -28,7 +35,7 @@ public class Account {
     @SequenceGenerator(
             name = "account_sequence",
             sequenceName = "account_sequence",
-            allocationSize = 1,
+            allocationSize = 50,
             initialValue = 10
     )
     @GeneratedValue(
@@ -44,11 +51,23 @@ public class Account {
     @Column(precision = 10, scale = 2, nullable = false)
     private BigDecimal balance;
 
+    @Enumerated(EnumType.STRING)
     @Column(length = 3)
-    private String currency;
+    private Currency currency;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id", nullable = false)
     private Client client;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * In ledger mode, the id of the last posting included in {@link #balance}; later postings are yet to be
+     * checkpointed. {@code null} until the account is first used in ledger mode.
+     */
+    @Column
+    private Long ledgerPosition;
+
 }
@@ -0,0 +1,52 @@
+package io.mintos.banking.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.validation.constraints.Min;
+import java.math.BigDecimal;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+
+/**
+ * Part of a hot account's balance that takes credits independently of the {@link Account} row, see
+ * {@link io.mintos.banking.utils.HotAccounts}. Slots are numbered from 1; slot 0 stands for the account row itself.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_balance_slot_account_slot",
+        columnNames = {"account_number", "slot"}))
+@Getter
+@Setter
+@Accessors(chain = true)
+public class BalanceSlot {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    @SequenceGenerator(
+            name = "balance_slot_sequence",
+            sequenceName = "balance_slot_sequence",
+            allocationSize = 50
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "balance_slot_sequence"
+    )
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String accountNumber;
+
+    @Column(nullable = false, updatable = false)
+    private int slot;
+
+    @Min(0)
+    @Column(precision = 10, scale = 2, nullable = false)
+    private BigDecimal balance;
+}
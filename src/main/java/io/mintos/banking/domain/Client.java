@@ -7,6 +7,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
@@ -14,6 +16,7 @@ import lombok.experimental.Accessors;
 
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_client_personal_code", columnNames = "personal_code"))
 @Getter
 @Setter
 @Accessors(chain = true)
@@ -24,7 +27,7 @@ public class Client {
     @SequenceGenerator(
             name = "client_sequence",
             sequenceName = "client_sequence",
-            allocationSize = 1,
+            allocationSize = 50,
             initialValue = 10
     )
     @GeneratedValue(
@@ -6,8 +6,10 @@ import lombok.Setter;
 import lombok.experimental.Accessors;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_exchange_rate_source_effective_from", columnList = "source, effective_from DESC"))
 @Getter
 @Setter
 @Accessors(chain = true)
@@ -17,7 +19,8 @@ public class ExchangeRate {
     @SequenceGenerator(
             name = "exchange_rate_sequence",
             sequenceName = "exchange_rate_sequence",
-            allocationSize = 1
+            allocationSize = 50,
+            initialValue = 10
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -30,4 +33,10 @@ public class ExchangeRate {
 
     @Column(precision = 10, scale = 6)
     private BigDecimal rate;
+
+    /**
+     * The instant from which this rate applies; it is superseded by the next version of the same source.
+     */
+    @Column
+    private OffsetDateTime effectiveFrom;
 }
@@ -0,0 +1,77 @@
+package io.mintos.banking.domain;
+
+import io.mintos.banking.enums.TransferStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.OffsetDateTime;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+
+/**
+ * A request made with an {@code Idempotency-Key}. The row is written before the request is executed and
+ * completed with its outcome, if possible in the same transaction as the request itself; a row without a
+ * response status is still in progress, or was abandoned if it is older than a request can take. Only a
+ * {@code recoverable} request is known to have had no effect when abandoned. A stored client error keeps the code
+ * of its error, so replaying it renders the same error response. A queued transfer's outcome is updated with its
+ * final status once it has been applied.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_idempotent_request_key", columnNames = "idempotency_key"),
+        indexes = @Index(name = "idx_idempotent_request_created_at", columnList = "created_at"))
+@Getter
+@Setter
+@Accessors(chain = true)
+public class IdempotentRequest {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    @SequenceGenerator(
+            name = "idempotent_request_sequence",
+            sequenceName = "idempotent_request_sequence",
+            allocationSize = 50
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "idempotent_request_sequence"
+    )
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String idempotencyKey;
+
+    @Column(nullable = false, updatable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(nullable = false, updatable = false)
+    private boolean recoverable;
+
+    @Column
+    private Integer responseStatus;
+
+    @Column
+    private String transferId;
+
+    @Enumerated(EnumType.STRING)
+    @Column
+    private TransferStatus transferStatus;
+
+    @Column
+    private String message;
+
+    @Column
+    private String errorCode;
+}
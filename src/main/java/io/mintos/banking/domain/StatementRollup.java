@@ -0,0 +1,71 @@
+package io.mintos.banking.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+
+/**
+ * An account's postings on one (UTC) day, summed up: the incoming and outgoing amounts and the balance left by
+ * the day's last posting. Maintained by transfers in the same transaction as the postings.
+ * <p>
+ * Postings that change the account row are summed up in slot 0. Credits to a hot account's balance slot are
+ * summed up per slot, so they do not contend on one row either (see {@link io.mintos.banking.utils.HotAccounts}).
+ * The day's totals are then those of all its slots, and its closing balance is that of the slot closed last.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_statement_rollup_account_date_slot",
+        columnNames = {"account_number", "booking_date", "slot"}))
+@Getter
+@Setter
+@Accessors(chain = true)
+public class StatementRollup {
+
+    @Id
+    @Column(nullable = false, updatable = false)
+    @SequenceGenerator(
+            name = "statement_rollup_sequence",
+            sequenceName = "statement_rollup_sequence",
+            allocationSize = 50
+    )
+    @GeneratedValue(
+            strategy = GenerationType.SEQUENCE,
+            generator = "statement_rollup_sequence"
+    )
+    private Long id;
+
+    @Column(nullable = false, updatable = false)
+    private String accountNumber;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDate bookingDate;
+
+    @Column(nullable = false, updatable = false)
+    private int slot;
+
+    @Column(nullable = false)
+    private BigDecimal incoming;
+
+    @Column(nullable = false)
+    private BigDecimal outgoing;
+
+    @Column(nullable = false)
+    private BigDecimal closingBalance;
+
+    /**
+     * Time of the last posting summed up.
+     */
+    @Column(nullable = false)
+    private OffsetDateTime closedAt;
+}
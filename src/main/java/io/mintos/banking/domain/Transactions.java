@@ -1,5 +1,6 @@
 package io.mintos.banking.domain;
 
+import io.mintos.banking.enums.Currency;
 import io.mintos.banking.enums.TransactionFlow;
 import jakarta.persistence.*;
 
@@ -11,6 +12,9 @@ import lombok.experimental.Accessors;
 
 
 @Entity
+@Table(indexes = @Index(name = "idx_transactions_account_timestamp",
+        columnList = "account_number, timestamp DESC, id DESC"),
+        uniqueConstraints = @UniqueConstraint(name = "uk_transactions_journal_sequence", columnNames = "journal_sequence"))
 @Getter
 @Setter
 @Accessors(chain = true)
@@ -21,7 +25,7 @@ public class Transactions {
     @SequenceGenerator(
             name = "transaction_sequence",
             sequenceName = "transaction_sequence",
-            allocationSize = 1
+            allocationSize = 50
     )
     @GeneratedValue(
             strategy = GenerationType.SEQUENCE,
@@ -38,8 +42,9 @@ public class Transactions {
     @Column
     private BigDecimal amount;
 
-    @Column
-    private String currency;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 3)
+    private Currency currency;
 
     @Column
     private OffsetDateTime timestamp;
@@ -48,4 +53,17 @@ public class Transactions {
     @Column
     private TransactionFlow transactionFlow;
 
+    /**
+     * The exchange rate the transfer was converted at, on both of its postings, or null if it was not converted.
+     */
+    @Column(precision = 38, scale = 18)
+    private BigDecimal exchangeRate;
+
+    /**
+     * Sequence number of the posting in the {@link io.mintos.banking.utils.TransactionJournal}, if it was written
+     * through it.
+     */
+    @Column(updatable = false)
+    private Long journalSequence;
+
 }
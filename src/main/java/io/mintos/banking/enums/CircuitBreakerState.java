@@ -0,0 +1,13 @@
+package io.mintos.banking.enums;
+
+public enum CircuitBreakerState {
+    CLOSED,
+    /**
+     * Calls are rejected without being made until the open duration has passed.
+     */
+    OPEN,
+    /**
+     * A single probe call is in flight; its outcome closes or reopens the breaker.
+     */
+    HALF_OPEN
+}
@@ -0,0 +1,11 @@
+package io.mintos.banking.enums;
+
+public enum ConcurrencyMode {
+    OPTIMISTIC,
+    LOCKING,
+    /**
+     * Transfers only append postings; account balances are derived and checkpointed periodically. Shut down
+     * cleanly (which writes a final checkpoint) before switching an existing database to another mode.
+     */
+    LEDGER
+}
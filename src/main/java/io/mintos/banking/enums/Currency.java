@@ -1,17 +1,56 @@
 package io.mintos.banking.enums;
 
-import java.util.Arrays;
-import java.util.stream.Collectors;
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.HashMap;
+import java.util.Map;
 
 public enum Currency {
     EUR,
     USD,
     GBP;
 
+    private static final Currency[] VALUES = values();
+    private static final Map<String, Currency> BY_CODE = new HashMap<>();
+    private static final String[] PAIR_CODES = new String[VALUES.length * VALUES.length];
+
+    static {
+        for (Currency from : VALUES) {
+            BY_CODE.put(from.name(), from);
+            for (Currency to : VALUES) {
+                PAIR_CODES[pairIndex(from, to)] = from.name().concat(to.name());
+            }
+        }
+    }
+
     public static boolean isValid(String currency) {
-        return Arrays.stream(Currency.values())
-                .map(Currency::name)
-                .collect(Collectors.toSet())
-                .contains(currency);
+        return BY_CODE.containsKey(currency);
+    }
+
+    /**
+     * Parses an ISO code, returning {@code null} for codes that are not supported so that the service can reject
+     * them with a domain error instead of a deserialization failure.
+     */
+    @JsonCreator
+    public static Currency fromCode(String code) {
+        return BY_CODE.get(code);
+    }
+
+    /**
+     * Dense index of the ordered pair, for lookup tables of size {@link #pairCount()}.
+     */
+    public static int pairIndex(Currency from, Currency to) {
+        return from.ordinal() * VALUES.length + to.ordinal();
+    }
+
+    public static int pairCount() {
+        return PAIR_CODES.length;
+    }
+
+    /**
+     * The pair's code as used by the exchange rate source, e.g. {@code EURUSD}.
+     */
+    public String pairCode(Currency to) {
+        return PAIR_CODES[pairIndex(this, to)];
     }
 }
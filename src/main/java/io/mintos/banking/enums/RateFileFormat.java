@@ -0,0 +1,25 @@
+package io.mintos.banking.enums;
+
+import java.util.Locale;
+
+public enum RateFileFormat {
+    CSV("csv"),
+    JSON("json");
+
+    private final String extension;
+
+    RateFileFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Picks the format from the file extension; anything that is not {@code .csv} is read as JSON.
+     */
+    public static RateFileFormat fromFileName(String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith("." + CSV.extension) ? CSV : JSON;
+    }
+}
@@ -0,0 +1,6 @@
+package io.mintos.banking.enums;
+
+public enum StatementPeriod {
+    DAY,
+    MONTH
+}
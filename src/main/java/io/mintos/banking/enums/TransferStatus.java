@@ -0,0 +1,8 @@
+package io.mintos.banking.enums;
+
+public enum TransferStatus {
+    PENDING,
+    COMPLETED,
+    REJECTED,
+    FAILED
+}
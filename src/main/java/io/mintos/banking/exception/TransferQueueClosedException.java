@@ -0,0 +1,11 @@
+package io.mintos.banking.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class TransferQueueClosedException extends RuntimeException {
+    public TransferQueueClosedException(String message) {
+        super(message);
+    }
+}
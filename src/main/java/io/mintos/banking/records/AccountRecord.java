@@ -1,6 +1,8 @@
 package io.mintos.banking.records;
 
+import io.mintos.banking.enums.Currency;
+
 import java.math.BigDecimal;
 
-public record AccountRecord(String accountNumber, BigDecimal balance, String currency) {
+public record AccountRecord(String accountNumber, BigDecimal balance, Currency currency) {
 }
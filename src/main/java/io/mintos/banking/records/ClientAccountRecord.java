@@ -0,0 +1,8 @@
+package io.mintos.banking.records;
+
+import io.mintos.banking.enums.Currency;
+
+import java.math.BigDecimal;
+
+public record ClientAccountRecord(String personalCode, String accountNumber, BigDecimal balance, Currency currency) {
+}
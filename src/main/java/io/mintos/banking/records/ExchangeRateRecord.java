@@ -0,0 +1,7 @@
+package io.mintos.banking.records;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+public record ExchangeRateRecord(String source, BigDecimal rate, OffsetDateTime effectiveFrom) {
+}
@@ -0,0 +1,6 @@
+package io.mintos.banking.records;
+
+import io.mintos.banking.enums.TransferStatus;
+
+public record IdempotentOutcomeRecord(int status, String transferId, TransferStatus transferStatus, String message) {
+}
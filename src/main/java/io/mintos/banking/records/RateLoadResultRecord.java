@@ -0,0 +1,4 @@
+package io.mintos.banking.records;
+
+public record RateLoadResultRecord(long loaded, long skipped) {
+}
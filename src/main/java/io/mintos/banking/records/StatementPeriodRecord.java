@@ -0,0 +1,8 @@
+package io.mintos.banking.records;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record StatementPeriodRecord(LocalDate periodStart, BigDecimal incoming, BigDecimal outgoing,
+                                    BigDecimal closingBalance) {
+}
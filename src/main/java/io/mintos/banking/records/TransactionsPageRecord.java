@@ -0,0 +1,6 @@
+package io.mintos.banking.records;
+
+import java.util.List;
+
+public record TransactionsPageRecord(List<TransactionsRecord> transactions, String nextCursor) {
+}
@@ -1,10 +1,12 @@
 package io.mintos.banking.records;
 
+import io.mintos.banking.enums.Currency;
+
 import io.mintos.banking.enums.TransactionFlow;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 
-public record TransactionsRecord(String accountNumber, BigDecimal balance, BigDecimal amount, String currency,
+public record TransactionsRecord(String accountNumber, BigDecimal balance, BigDecimal amount, Currency currency,
                                  OffsetDateTime timestamp, TransactionFlow transactionFlow) {
 }
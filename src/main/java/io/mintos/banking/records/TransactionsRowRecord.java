@@ -0,0 +1,18 @@
+package io.mintos.banking.records;
+
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.TransactionFlow;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * A history row together with its id, which keyset pagination needs for the next cursor.
+ */
+public record TransactionsRowRecord(Long id, String accountNumber, BigDecimal balance, BigDecimal amount,
+                                    Currency currency, OffsetDateTime timestamp, TransactionFlow transactionFlow) {
+
+    public TransactionsRecord toRecord() {
+        return new TransactionsRecord(accountNumber, balance, amount, currency, timestamp, transactionFlow);
+    }
+}
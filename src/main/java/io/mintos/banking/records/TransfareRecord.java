@@ -1,6 +1,8 @@
 package io.mintos.banking.records;
 
+import io.mintos.banking.enums.Currency;
+
 import java.math.BigDecimal;
 
-public record TransfareRecord(String senderAccount, String receiverAccount, BigDecimal amount, String currency) {
+public record TransfareRecord(String senderAccount, String receiverAccount, BigDecimal amount, Currency currency) {
 }
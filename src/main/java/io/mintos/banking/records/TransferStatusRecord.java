@@ -0,0 +1,6 @@
+package io.mintos.banking.records;
+
+import io.mintos.banking.enums.TransferStatus;
+
+public record TransferStatusRecord(String id, TransferStatus status, String message) {
+}
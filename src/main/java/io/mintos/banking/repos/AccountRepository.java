@@ -1,10 +1,31 @@
 package io.mintos.banking.repos;
 
 import io.mintos.banking.domain.Account;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 
 
 public interface AccountRepository extends JpaRepository<Account, Long> {
     boolean existsByAccountNumber(String accountNumber);
+    @EntityGraph(attributePaths = "client")
     Account getAccountByAccountNumber(String accountNumber);
+    @EntityGraph(attributePaths = "client")
+    List<Account> findAllByAccountNumberIn(Collection<String> accountNumbers);
+
+    @Modifying
+    @Query("UPDATE Account A SET A.ledgerPosition = :position WHERE A.accountNumber = :accountNumber AND A.ledgerPosition IS NULL")
+    int initLedgerPosition(@Param("accountNumber") String accountNumber, @Param("position") Long position);
+
+    @Modifying
+    @Query("UPDATE Account A SET A.balance = :balance, A.ledgerPosition = :position, A.version = A.version + 1 WHERE A.accountNumber = :accountNumber")
+    int checkpointBalance(@Param("accountNumber") String accountNumber,
+                          @Param("balance") BigDecimal balance,
+                          @Param("position") Long position);
 }
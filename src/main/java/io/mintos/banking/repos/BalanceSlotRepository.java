@@ -0,0 +1,33 @@
+package io.mintos.banking.repos;
+
+import io.mintos.banking.domain.BalanceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+
+public interface BalanceSlotRepository extends JpaRepository<BalanceSlot, Long> {
+    List<BalanceSlot> findAllByAccountNumber(String accountNumber);
+
+    @Modifying
+    @Query("UPDATE BalanceSlot S SET S.balance = S.balance + :amount WHERE S.accountNumber = :accountNumber AND S.slot = :slot")
+    int credit(@Param("accountNumber") String accountNumber, @Param("slot") int slot, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT COALESCE(SUM(S.balance), 0) FROM BalanceSlot S WHERE S.accountNumber = :accountNumber")
+    BigDecimal sumByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Locks and returns the account's slots that hold money, leaving out the ones another transaction has
+     * locked instead of waiting for them. Native because Hibernate's H2 dialect does not render SKIP LOCKED.
+     */
+    @Query(value = "SELECT * FROM balance_slot WHERE account_number = :accountNumber AND balance > 0 ORDER BY slot FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<BalanceSlot> lockFundedSkippingLocked(@Param("accountNumber") String accountNumber);
+
+    @Query("SELECT DISTINCT S.accountNumber FROM BalanceSlot S WHERE S.balance > 0")
+    List<String> findFundedAccountNumbers();
+}
@@ -2,16 +2,30 @@ package io.mintos.banking.repos;
 
 import io.mintos.banking.domain.Client;
 import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.ClientAccountRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
-
+/**
+ * Account balances are read as the account row plus its balance slots, which only hot accounts have, see
+ * {@link io.mintos.banking.utils.HotAccounts}.
+ */
 public interface ClientRepository extends JpaRepository<Client, Long> {
-    @Query("SELECT new io.mintos.banking.records.AccountRecord(A.accountNumber, A.balance, A.currency) FROM Client C INNER JOIN Account A ON C.id = A.client.id WHERE C.personalCode = :personalCode")
-    List<AccountRecord> findClientByPersonalCode(@Param("personalCode") String personalCode);
+    /**
+     * The client's accounts with their balances. Tells a client without accounts apart from a missing client in
+     * one round trip: no rows means no client, a single row of nulls means a client without accounts.
+     */
+    @Query("SELECT new io.mintos.banking.records.AccountRecord(A.accountNumber, A.balance + COALESCE((SELECT SUM(S.balance) FROM BalanceSlot S WHERE S.accountNumber = A.accountNumber), 0), A.currency) FROM Client C LEFT JOIN Account A ON C.id = A.client.id WHERE C.personalCode = :personalCode")
+    List<AccountRecord> findClientAccountsByPersonalCode(@Param("personalCode") String personalCode);
 
-    boolean existsByPersonalCode(String personalCode);
+    /**
+     * Same as {@link #findClientAccountsByPersonalCode(String)} for many clients at once, each row tagged with its
+     * client's personal code. Clients missing from the result do not exist.
+     */
+    @Query("SELECT new io.mintos.banking.records.ClientAccountRecord(C.personalCode, A.accountNumber, A.balance + COALESCE((SELECT SUM(S.balance) FROM BalanceSlot S WHERE S.accountNumber = A.accountNumber), 0), A.currency) FROM Client C LEFT JOIN Account A ON C.id = A.client.id WHERE C.personalCode IN :personalCodes")
+    List<ClientAccountRecord> findClientAccountsByPersonalCodeIn(@Param("personalCodes") Collection<String> personalCodes);
 }
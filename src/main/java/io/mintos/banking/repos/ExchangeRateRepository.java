@@ -2,7 +2,24 @@ package io.mintos.banking.repos;
 
 import io.mintos.banking.domain.ExchangeRate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
 
 public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
-    ExchangeRate getExchangeRateBySource(String source);
+
+    /**
+     * The version of every source that is in effect at the given instant, in a single query: exactly one row per
+     * source, the latest by effective-from and, among versions taking effect at the same instant, by id.
+     */
+    @Query("SELECT R FROM ExchangeRate R WHERE R.effectiveFrom <= :at AND NOT EXISTS (SELECT L FROM ExchangeRate L WHERE L.source = R.source AND L.effectiveFrom <= :at AND (L.effectiveFrom > R.effectiveFrom OR (L.effectiveFrom = R.effectiveFrom AND L.id > R.id))) ORDER BY R.source")
+    List<ExchangeRate> findRatesEffectiveAt(@Param("at") OffsetDateTime at);
+
+    /**
+     * When the next stored rate takes effect after the given instant, or null if none is dated later.
+     */
+    @Query("SELECT MIN(R.effectiveFrom) FROM ExchangeRate R WHERE R.effectiveFrom > :at")
+    OffsetDateTime findNextEffectiveFromAfter(@Param("at") OffsetDateTime at);
 }
@@ -0,0 +1,18 @@
+package io.mintos.banking.repos;
+
+import io.mintos.banking.domain.IdempotentRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+public interface IdempotentRequestRepository extends JpaRepository<IdempotentRequest, Long> {
+    Optional<IdempotentRequest> findByIdempotencyKey(String idempotencyKey);
+
+    @Modifying
+    @Query("DELETE FROM IdempotentRequest R WHERE R.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") OffsetDateTime cutoff);
+}
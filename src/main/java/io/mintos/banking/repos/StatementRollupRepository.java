@@ -0,0 +1,35 @@
+package io.mintos.banking.repos;
+
+import io.mintos.banking.domain.StatementRollup;
+import io.mintos.banking.records.StatementPeriodRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+
+public interface StatementRollupRepository extends JpaRepository<StatementRollup, Long> {
+
+    List<StatementRollup> findAllByAccountNumberInAndBookingDateInAndSlot(Collection<String> accountNumbers,
+                                                                          Collection<LocalDate> bookingDates,
+                                                                          int slot);
+
+    /**
+     * The account's daily totals between the two dates, inclusive, oldest first. A day with several slots has
+     * one row per slot, in the order they were closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new io.mintos.banking.records.StatementPeriodRecord(R.bookingDate, R.incoming, R.outgoing, R.closingBalance) FROM StatementRollup R WHERE R.accountNumber = :accountNumber AND R.bookingDate BETWEEN :from AND :to ORDER BY R.bookingDate, R.closedAt")
+    List<StatementPeriodRecord> findDays(@Param("accountNumber") String accountNumber,
+                                         @Param("from") LocalDate from,
+                                         @Param("to") LocalDate to);
+}
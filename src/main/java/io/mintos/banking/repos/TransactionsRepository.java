@@ -2,14 +2,83 @@ package io.mintos.banking.repos;
 
 import io.mintos.banking.domain.Transactions;
 import io.mintos.banking.records.TransactionsRecord;
+import io.mintos.banking.records.TransactionsRowRecord;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
-
+/**
+ * History reads are projected straight into records inside read-only transactions, so no entity is hydrated,
+ * tracked or snapshotted for dirty checking. Only the transfer paths load {@link Transactions} entities.
+ */
 public interface TransactionsRepository extends JpaRepository<Transactions, Long> {
     Page<Transactions> findAllByAccountNumber(String accountNumber, Pageable pageable);
-    List<TransactionsRecord> findAllByAccountNumberOrderByTimestampDesc(String accountNumber);
+
+    /**
+     * The account's history, newest first, one page of it or all of it with {@link Pageable#unpaged()}.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new io.mintos.banking.records.TransactionsRecord(T.accountNumber, T.balance, T.amount, T.currency, T.timestamp, T.transactionFlow) FROM Transactions T WHERE T.accountNumber = :accountNumber ORDER BY T.timestamp DESC, T.id DESC")
+    List<TransactionsRecord> findHistory(@Param("accountNumber") String accountNumber, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new io.mintos.banking.records.TransactionsRowRecord(T.id, T.accountNumber, T.balance, T.amount, T.currency, T.timestamp, T.transactionFlow) FROM Transactions T WHERE T.accountNumber = :accountNumber ORDER BY T.timestamp DESC, T.id DESC")
+    Slice<TransactionsRowRecord> findHistoryPage(@Param("accountNumber") String accountNumber, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new io.mintos.banking.records.TransactionsRowRecord(T.id, T.accountNumber, T.balance, T.amount, T.currency, T.timestamp, T.transactionFlow) FROM Transactions T WHERE T.accountNumber = :accountNumber AND (T.timestamp < :timestamp OR (T.timestamp = :timestamp AND T.id < :id)) ORDER BY T.timestamp DESC, T.id DESC")
+    Slice<TransactionsRowRecord> findHistoryPageAfter(@Param("accountNumber") String accountNumber,
+                                                      @Param("timestamp") OffsetDateTime timestamp,
+                                                      @Param("id") Long id,
+                                                      Pageable pageable);
+
+    /**
+     * Forward-only cursor over an account's history, newest first. Rows are projected straight into records,
+     * so nothing accumulates in the persistence context. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new io.mintos.banking.records.TransactionsRecord(T.accountNumber, T.balance, T.amount, T.currency, T.timestamp, T.transactionFlow) FROM Transactions T WHERE T.accountNumber = :accountNumber ORDER BY T.timestamp DESC, T.id DESC")
+    Stream<TransactionsRecord> streamByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    @Query("SELECT MAX(T.id) FROM Transactions T WHERE T.accountNumber = :accountNumber")
+    Long findLastIdByAccountNumber(@Param("accountNumber") String accountNumber);
+
+    /**
+     * Net effect on the balance of the account's postings after the given id.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN T.transactionFlow = io.mintos.banking.enums.TransactionFlow.INCOMING THEN T.amount ELSE -T.amount END), 0) FROM Transactions T WHERE T.accountNumber = :accountNumber AND T.id > :position")
+    BigDecimal sumPostingsAfter(@Param("accountNumber") String accountNumber, @Param("position") Long position);
+
+    /**
+     * Highest journal sequence number written to the table, see {@link io.mintos.banking.utils.TransactionJournal}.
+     */
+    @Query("SELECT MAX(T.journalSequence) FROM Transactions T")
+    Long findLastJournalSequence();
 }
@@ -0,0 +1,19 @@
+package io.mintos.banking.services;
+
+import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.records.TransferStatusRecord;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface AsyncTransferService {
+    boolean isEnabled();
+    TransferStatusRecord submit(TransfareRecord transfareRecord);
+    /**
+     * {@code onAccepted} is handed the pending status before the transfer is queued, and the transfer is not
+     * queued if it fails. {@code onFinished} is handed the final status once the transfer has been applied or
+     * rejected; it runs on a writer thread, so it should be quick and its failures are only logged.
+     */
+    TransferStatusRecord submit(TransfareRecord transfareRecord, Consumer<TransferStatusRecord> onAccepted,
+                                Consumer<TransferStatusRecord> onFinished);
+    Optional<TransferStatusRecord> getStatus(String transferId);
+}
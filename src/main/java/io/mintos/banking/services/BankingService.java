@@ -1,14 +1,37 @@
 package io.mintos.banking.services;
 
+import io.mintos.banking.enums.StatementPeriod;
 import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.StatementPeriodRecord;
+import io.mintos.banking.records.TransactionsPageRecord;
 import io.mintos.banking.records.TransactionsRecord;
 import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.records.TransferResultRecord;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BankingService {
     List<AccountRecord> getAccountsByClient(String personalCode);
+    Optional<List<AccountRecord>> findAccountsByClient(String personalCode);
+    Map<String, List<AccountRecord>> getAccountsByClients(List<String> personalCodes);
     List<TransactionsRecord> getTransactionHistory(String accountId, Integer offset, Integer limit);
+    TransactionsPageRecord getTransactionHistoryPage(String accountId, String cursor, Integer limit);
+    void streamTransactionHistory(String accountId, Consumer<TransactionsRecord> consumer);
+    List<StatementPeriodRecord> getStatementSummary(String accountId, StatementPeriod period, LocalDate from, LocalDate to);
     void transferFunds(TransfareRecord transfareRecord);
+    /**
+     * Runs {@code beforeCommit} inside the transfer's transaction, so whatever it writes commits or rolls back
+     * together with the transfer. It runs once per attempt, and not at all if there is no such transaction.
+     */
+    void transferFunds(TransfareRecord transfareRecord, Runnable beforeCommit);
+    /**
+     * False if {@link #transferFunds(TransfareRecord, Runnable)} has no transaction to run {@code beforeCommit} in.
+     */
+    boolean runsBeforeCommit();
+    List<TransferResultRecord> transferFundsBatch(List<TransfareRecord> transfareRecords);
 
     boolean clientExists(String personalCode);
 }
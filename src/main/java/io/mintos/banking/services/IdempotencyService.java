@@ -0,0 +1,18 @@
+package io.mintos.banking.services;
+
+import io.mintos.banking.records.IdempotentOutcomeRecord;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public interface IdempotencyService {
+    /**
+     * The action is handed a callback recording its outcome. Calling it inside the action's own transaction
+     * commits the outcome together with the action; an outcome not recorded that way is stored afterwards. Calling
+     * it again after the action has returned replaces the outcome that repeats are answered with.
+     * <p>
+     * A request that never completed, e.g. because the process died, is run again by a later repeat only if it is
+     * {@code recoverable}: its action records an outcome before, or together with, having any effect.
+     */
+    IdempotentOutcomeRecord execute(String idempotencyKey, String requestFingerprint, boolean recoverable,
+                                    Function<Consumer<IdempotentOutcomeRecord>, IdempotentOutcomeRecord> action);
+}
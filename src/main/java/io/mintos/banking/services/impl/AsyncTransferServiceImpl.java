@@ -0,0 +1,260 @@
+package io.mintos.banking.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mintos.banking.enums.TransferStatus;
+import io.mintos.banking.exception.AccountEqualException;
+import io.mintos.banking.exception.AccountNotFoundException;
+import io.mintos.banking.exception.AmountExceedsException;
+import io.mintos.banking.exception.CurrencyNotSupportedException;
+import io.mintos.banking.exception.InvalidTransferException;
+import io.mintos.banking.exception.TransferQueueClosedException;
+import io.mintos.banking.exception.TransferQueueFullException;
+import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.records.TransferResultRecord;
+import io.mintos.banking.records.TransferStatusRecord;
+import io.mintos.banking.services.AsyncTransferService;
+import io.mintos.banking.services.BankingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Accepts transfers into bounded in-memory queues and applies them in the background.
+ * <p>
+ * Transfers are sharded by sender account and every shard has exactly one writer thread, so transfers from the
+ * same account are applied in the order they were accepted. A writer drains whatever has queued up on its shard
+ * (up to {@code max-group-size}) and applies it as one batch, committing the whole group at once. When the
+ * group fails as a whole its transfers are retried one by one, so one bad transfer does not fail the others.
+ * <p>
+ * A full shard rejects new transfers with {@link TransferQueueFullException} rather than growing. Accepted
+ * transfers live in memory only: they are drained on a clean shutdown but lost on a crash. Once shutting down
+ * the service reports itself disabled, so callers apply transfers synchronously, and a transfer submitted anyway
+ * is rejected with {@link TransferQueueClosedException}. Outcomes are kept for {@code status-ttl} and for at
+ * most {@code status-max-size} transfers; an evicted transfer's status is unknown, as if it had expired.
+ */
+@Service
+public class AsyncTransferServiceImpl implements AsyncTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncTransferServiceImpl.class);
+    private static final long POLL_MILLIS = 100;
+
+    private final BankingService bankingService;
+    private final boolean enabled;
+    private final int maxGroupSize;
+    private final List<BlockingQueue<QueuedTransfer>> shards;
+    private final Cache<String, TransferStatusRecord> statuses;
+    private final ExecutorService writers;
+    private volatile boolean running = true;
+
+    private final Timer queueWait;
+    private final Timer completionLatency;
+    private final DistributionSummary groupSize;
+    private final Counter rejected;
+
+    public AsyncTransferServiceImpl(BankingService bankingService,
+                                    @Value("${banking.transfer.async.enabled:false}") boolean enabled,
+                                    @Value("${banking.transfer.async.shards:8}") int shardCount,
+                                    @Value("${banking.transfer.async.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${banking.transfer.async.max-group-size:100}") int maxGroupSize,
+                                    @Value("${banking.transfer.async.status-ttl:PT1H}") Duration statusTtl,
+                                    @Value("${banking.transfer.async.status-max-size:100000}") long statusMaxSize,
+                                    MeterRegistry meterRegistry) {
+        if (shardCount < 1 || queueCapacity < shardCount || maxGroupSize < 1 || statusMaxSize < 1)
+            throw new IllegalArgumentException("banking.transfer.async shards, queue-capacity, max-group-size and "
+                    + "status-max-size must be positive and queue-capacity must be at least the number of shards");
+        this.bankingService = Objects.requireNonNull(bankingService);
+        this.enabled = enabled;
+        this.maxGroupSize = maxGroupSize;
+        this.shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayBlockingQueue<>(queueCapacity / shardCount));
+        }
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(statusMaxSize)
+                .expireAfterWrite(statusTtl)
+                // evict on the writing thread, so the size bound holds as soon as an outcome is put
+                .executor(Runnable::run)
+                .build();
+        this.writers = enabled
+                ? Executors.newFixedThreadPool(shardCount, Thread.ofPlatform().name("transfer-writer-", 0).factory())
+                : null;
+
+        Objects.requireNonNull(meterRegistry);
+        Gauge.builder("banking.transfer.queue.depth", shards, s -> s.stream().mapToInt(BlockingQueue::size).sum())
+                .description("Transfers accepted but not yet picked up by a writer")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("banking.transfer.queue.wait")
+                .description("Time from acceptance until a writer picks the transfer up")
+                .register(meterRegistry);
+        this.completionLatency = Timer.builder("banking.transfer.async.latency")
+                .description("Time from acceptance until the outcome is known")
+                .register(meterRegistry);
+        this.groupSize = DistributionSummary.builder("banking.transfer.group.size")
+                .description("Transfers committed together by one writer")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("banking.transfer.queue.rejected")
+                .description("Transfers turned away because their shard was full")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled)
+            return;
+        for (BlockingQueue<QueuedTransfer> shard : shards) {
+            writers.execute(() -> drain(shard));
+        }
+    }
+
+    /**
+     * Stops accepting transfers and waits for the writers to apply what is already queued.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (Objects.isNull(writers))
+            return;
+        writers.shutdown();
+        if (!writers.awaitTermination(30, TimeUnit.SECONDS))
+            log.warn("Transfer writers did not finish within 30s, {} queued transfers dropped",
+                    shards.stream().mapToInt(BlockingQueue::size).sum());
+    }
+
+    /**
+     * False once the service is stopping.
+     */
+    @Override
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    @Override
+    public TransferStatusRecord submit(TransfareRecord transfareRecord) {
+        return submit(transfareRecord, accepted -> { }, finished -> { });
+    }
+
+    @Override
+    public TransferStatusRecord submit(TransfareRecord transfareRecord, Consumer<TransferStatusRecord> onAccepted,
+                                       Consumer<TransferStatusRecord> onFinished) {
+        if (!enabled)
+            throw new IllegalStateException("Asynchronous transfers are not enabled");
+        if (!running)
+            throw new TransferQueueClosedException("Transfers are not accepted while shutting down, try again later!");
+        if (Objects.isNull(transfareRecord) || Objects.isNull(transfareRecord.senderAccount()))
+            throw new InvalidTransferException("Sender, receiver, amount and currency are required!");
+        TransferStatusRecord pending = new TransferStatusRecord(UUID.randomUUID().toString(), TransferStatus.PENDING, null);
+        statuses.put(pending.id(), pending);
+        try {
+            onAccepted.accept(pending);
+        } catch (RuntimeException e) {
+            statuses.invalidate(pending.id());
+            throw e;
+        }
+        QueuedTransfer queued = new QueuedTransfer(pending.id(), transfareRecord, System.nanoTime(), onFinished);
+        if (!shardFor(transfareRecord.senderAccount()).offer(queued)) {
+            statuses.invalidate(pending.id());
+            rejected.increment();
+            throw new TransferQueueFullException("Too many pending transfers, try again later!");
+        }
+        return pending;
+    }
+
+    @Override
+    public Optional<TransferStatusRecord> getStatus(String transferId) {
+        return Optional.ofNullable(statuses.getIfPresent(transferId));
+    }
+
+    BlockingQueue<QueuedTransfer> shardFor(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return shards.get(Math.floorMod(hash ^ (hash >>> 16), shards.size()));
+    }
+
+    private void drain(BlockingQueue<QueuedTransfer> shard) {
+        List<QueuedTransfer> group = new ArrayList<>(maxGroupSize);
+        while (running || !shard.isEmpty()) {
+            try {
+                QueuedTransfer first = shard.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (Objects.isNull(first))
+                    continue;
+                group.add(first);
+                shard.drainTo(group, maxGroupSize - 1);
+                apply(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Transfer writer failed to apply a group of {}", group.size(), e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    void apply(List<QueuedTransfer> group) {
+        long pickedUp = System.nanoTime();
+        group.forEach(t -> queueWait.record(pickedUp - t.acceptedAt(), TimeUnit.NANOSECONDS));
+        groupSize.record(group.size());
+        List<TransferResultRecord> results;
+        try {
+            results = bankingService.transferFundsBatch(group.stream().map(QueuedTransfer::transfer).toList());
+        } catch (RuntimeException e) {
+            log.warn("Group of {} transfers failed ({}), applying them one by one", group.size(), e.getMessage());
+            group.forEach(this::applySingle);
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            TransferResultRecord result = results.get(i);
+            complete(group.get(i), result.status(), result.message());
+        }
+    }
+
+    private void applySingle(QueuedTransfer queued) {
+        try {
+            bankingService.transferFunds(queued.transfer());
+            complete(queued, TransferStatus.COMPLETED, null);
+        } catch (AccountEqualException | AccountNotFoundException | AmountExceedsException
+                 | CurrencyNotSupportedException | InvalidTransferException e) {
+            complete(queued, TransferStatus.REJECTED, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Transfer {} failed", queued.id(), e);
+            complete(queued, TransferStatus.FAILED, "Transfer could not be processed");
+        }
+    }
+
+    private void complete(QueuedTransfer queued, TransferStatus status, String message) {
+        TransferStatusRecord finished = new TransferStatusRecord(queued.id(), status, message);
+        statuses.put(queued.id(), finished);
+        completionLatency.record(System.nanoTime() - queued.acceptedAt(), TimeUnit.NANOSECONDS);
+        try {
+            queued.onFinished().accept(finished);
+        } catch (RuntimeException e) {
+            log.error("Could not report the outcome of transfer {}", queued.id(), e);
+        }
+    }
+
+    record QueuedTransfer(String id, TransfareRecord transfer, long acceptedAt,
+                          Consumer<TransferStatusRecord> onFinished) {
+    }
+}
@@ -2,29 +2,64 @@ package io.mintos.banking.services.impl;
 
 import io.mintos.banking.domain.Account;
 import io.mintos.banking.domain.Transactions;
+import io.mintos.banking.enums.ConcurrencyMode;
 import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.StatementPeriod;
 import io.mintos.banking.enums.TransactionFlow;
+import io.mintos.banking.enums.TransferStatus;
 import io.mintos.banking.exception.AccountEqualException;
+import io.mintos.banking.exception.AccountNotFoundException;
 import io.mintos.banking.exception.AmountExceedsException;
+import io.mintos.banking.exception.BatchTooLargeException;
 import io.mintos.banking.exception.CurrencyNotSupportedException;
+import io.mintos.banking.exception.InvalidTransferException;
 import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.StatementPeriodRecord;
+import io.mintos.banking.records.TransactionsPageRecord;
 import io.mintos.banking.records.TransactionsRecord;
+import io.mintos.banking.records.TransactionsRowRecord;
 import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.records.TransferResultRecord;
 import io.mintos.banking.repos.AccountRepository;
 import io.mintos.banking.repos.ClientRepository;
 import io.mintos.banking.repos.TransactionsRepository;
 import io.mintos.banking.services.BankingService;
+import io.mintos.banking.utils.AccountLocks;
+import io.mintos.banking.utils.ClientAccountsCache;
 import io.mintos.banking.utils.CurrencyConverter;
-import org.springframework.data.domain.Page;
+import io.mintos.banking.utils.HistoryCursor;
+import io.mintos.banking.utils.HotAccounts;
+import io.mintos.banking.utils.LedgerBalances;
+import io.mintos.banking.utils.OptimisticRetry;
+import io.mintos.banking.utils.StatementRollups;
+import io.mintos.banking.utils.TransactionJournal;
+import io.mintos.banking.utils.TransferMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 public class BankingServiceImpl implements BankingService {
@@ -34,71 +69,474 @@ public class BankingServiceImpl implements BankingService {
     private final TransactionsRepository transactionsRepository;
 
     private final CurrencyConverter currencyConverter;
+    private final AccountLocks accountLocks;
+    private final OptimisticRetry optimisticRetry;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ConcurrencyMode concurrencyMode;
+    private final int maxBatchSize;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int maxClientBatchSize;
+    private final ClientAccountsCache clientAccountsCache;
+    private final LedgerBalances ledgerBalances;
+    private final TransferMetrics transferMetrics;
+    private final StatementRollups statementRollups;
+    private final HotAccounts hotAccounts;
+    private final TransactionJournal transactionJournal;
 
     public BankingServiceImpl(ClientRepository clientRepository, AccountRepository accountRepository,
-                              TransactionsRepository transactionsRepository, CurrencyConverter currencyConverter) {
+                              TransactionsRepository transactionsRepository, CurrencyConverter currencyConverter,
+                              AccountLocks accountLocks, OptimisticRetry optimisticRetry,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${banking.transfer.concurrency-mode:OPTIMISTIC}") ConcurrencyMode concurrencyMode,
+                              @Value("${banking.transfer.batch.max-size:1000}") int maxBatchSize,
+                              @Value("${banking.history.page-size:50}") int defaultPageSize,
+                              @Value("${banking.history.max-page-size:500}") int maxPageSize,
+                              @Value("${banking.clients.batch.max-size:1000}") int maxClientBatchSize,
+                              ClientAccountsCache clientAccountsCache,
+                              LedgerBalances ledgerBalances,
+                              TransferMetrics transferMetrics,
+                              StatementRollups statementRollups,
+                              HotAccounts hotAccounts,
+                              TransactionJournal transactionJournal) {
         this.clientRepository = Objects.requireNonNull(clientRepository);
         this.accountRepository = Objects.requireNonNull(accountRepository);
         this.transactionsRepository = Objects.requireNonNull(transactionsRepository);
         this.currencyConverter = Objects.requireNonNull(currencyConverter);
+        this.accountLocks = Objects.requireNonNull(accountLocks);
+        this.optimisticRetry = Objects.requireNonNull(optimisticRetry);
+        this.transactionTemplate = new TransactionTemplate(Objects.requireNonNull(transactionManager));
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.concurrencyMode = Objects.requireNonNull(concurrencyMode);
+        this.maxBatchSize = maxBatchSize;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxClientBatchSize = maxClientBatchSize;
+        this.clientAccountsCache = Objects.requireNonNull(clientAccountsCache);
+        this.ledgerBalances = Objects.requireNonNull(ledgerBalances);
+        this.transferMetrics = Objects.requireNonNull(transferMetrics);
+        this.statementRollups = Objects.requireNonNull(statementRollups);
+        this.hotAccounts = Objects.requireNonNull(hotAccounts);
+        this.transactionJournal = Objects.requireNonNull(transactionJournal);
     }
 
     @Override
     public List<AccountRecord> getAccountsByClient(String personalCode) {
-        return clientRepository.findClientByPersonalCode(personalCode);
+        return findAccountsByClient(personalCode).orElse(List.of());
     }
 
+    /**
+     * In {@link ConcurrencyMode#LEDGER} mode the cached balances are checkpoints, so the current balances are
+     * filled in from the ledger.
+     */
     @Override
-    public List<TransactionsRecord> getTransactionHistory(String accountNumber, Integer offset, Integer limit) {
-        if (Objects.isNull(offset) || Objects.isNull(limit)) {
-            return transactionsRepository.findAllByAccountNumberOrderByTimestampDesc(accountNumber);
+    public Optional<List<AccountRecord>> findAccountsByClient(String personalCode) {
+        return clientAccountsCache.getAccounts(personalCode).map(this::withCurrentBalances);
+    }
+
+    /**
+     * Clients are read through the same cache as single lookups; the ones not cached yet are loaded together,
+     * see {@link ClientAccountsCache#getAccounts(Collection)}. Unknown personal codes are left out of the result.
+     */
+    @Override
+    public Map<String, List<AccountRecord>> getAccountsByClients(List<String> personalCodes) {
+        if (personalCodes.size() > maxClientBatchSize)
+            throw new BatchTooLargeException("Batch must not contain more than " + maxClientBatchSize + " personal codes!");
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String personalCode : personalCodes) {
+            if (Objects.nonNull(personalCode))
+                distinct.add(personalCode);
+        }
+        Map<String, Optional<List<AccountRecord>>> accounts = clientAccountsCache.getAccounts(distinct);
+        Map<String, List<AccountRecord>> found = new LinkedHashMap<>();
+        for (String personalCode : distinct) {
+            accounts.get(personalCode).ifPresent(records -> found.put(personalCode, withCurrentBalances(records)));
         }
-        Pageable pageable = PageRequest.of(offset, limit, Sort.by(Sort.Direction.DESC, "timestamp"));
-        Page<Transactions> allByAccountNumber = transactionsRepository.findAllByAccountNumber(accountNumber, pageable);
-        return allByAccountNumber.stream()
-                .map(t -> new TransactionsRecord(t.getAccountNumber(), t.getBalance(), t.getAmount(),
-                        t.getCurrency(), t.getTimestamp(), t.getTransactionFlow()))
+        return found;
+    }
+
+    private List<AccountRecord> withCurrentBalances(List<AccountRecord> accounts) {
+        if (concurrencyMode != ConcurrencyMode.LEDGER)
+            return accounts;
+        return accounts.stream()
+                .map(r -> new AccountRecord(r.accountNumber(), ledgerBalances.balanceOf(r.accountNumber()), r.currency()))
                 .toList();
     }
 
+    /**
+     * History reads run in a read-only transaction and project rows straight into records, see
+     * {@link TransactionsRepository}.
+     */
+    @Override
+    public List<TransactionsRecord> getTransactionHistory(String accountNumber, Integer offset, Integer limit) {
+        Pageable pageable = Objects.isNull(offset) || Objects.isNull(limit) ? Pageable.unpaged() : PageRequest.of(offset, limit);
+        return readOnlyTransactionTemplate.execute(status -> transactionsRepository.findHistory(accountNumber, pageable));
+    }
+
+    /**
+     * Keyset pagination: the page is located by seeking past the (timestamp, id) of the previous page's last row
+     * instead of skipping rows, so deep pages cost the same as the first one and no count query is issued.
+     */
+    @Override
+    public TransactionsPageRecord getTransactionHistoryPage(String accountNumber, String cursor, Integer limit) {
+        int pageSize = Objects.isNull(limit) ? defaultPageSize : Math.min(Math.max(limit, 1), maxPageSize);
+        Pageable pageable = PageRequest.ofSize(pageSize);
+        HistoryCursor after = Objects.isNull(cursor) || cursor.isBlank() ? null : HistoryCursor.decode(cursor);
+        Slice<TransactionsRowRecord> slice = readOnlyTransactionTemplate.execute(status -> Objects.isNull(after)
+                ? transactionsRepository.findHistoryPage(accountNumber, pageable)
+                : transactionsRepository.findHistoryPageAfter(accountNumber, after.timestamp(), after.id(), pageable));
+        List<TransactionsRowRecord> content = slice.getContent();
+        List<TransactionsRecord> transactions = new ArrayList<>(content.size());
+        for (TransactionsRowRecord row : content) {
+            transactions.add(row.toRecord());
+        }
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            TransactionsRowRecord last = content.get(content.size() - 1);
+            nextCursor = new HistoryCursor(last.timestamp(), last.id()).encode();
+        }
+        return new TransactionsPageRecord(transactions, nextCursor);
+    }
+
+    /**
+     * Hands every row of the account's history to the consumer while the database cursor is open, inside a
+     * read-only transaction, so the history is never held in memory as a whole.
+     */
+    @Override
+    public void streamTransactionHistory(String accountNumber, Consumer<TransactionsRecord> consumer) {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<TransactionsRecord> rows = transactionsRepository.streamByAccountNumber(accountNumber)) {
+                rows.forEach(consumer);
+            }
+        });
+    }
+
+    /**
+     * Reads the daily totals kept by {@link StatementRollups}, so a year costs at most one row per day with
+     * postings. Without {@code from} the summary starts with the account's first posting, without {@code to} it
+     * ends today (UTC).
+     */
+    @Override
+    public List<StatementPeriodRecord> getStatementSummary(String accountNumber, StatementPeriod period,
+                                                           LocalDate from, LocalDate to) {
+        LocalDate first = Objects.isNull(from) ? LocalDate.EPOCH : from;
+        LocalDate last = Objects.isNull(to) ? LocalDate.now(ZoneOffset.UTC) : to;
+        return readOnlyTransactionTemplate.execute(status ->
+                statementRollups.summarize(accountNumber, Objects.requireNonNullElse(period, StatementPeriod.DAY), first, last));
+    }
+
+    /**
+     * In {@link ConcurrencyMode#OPTIMISTIC} mode the transfer commits only if neither account changed since it
+     * was read and is retried otherwise. In {@link ConcurrencyMode#LOCKING} mode both accounts are locked until
+     * the transaction has committed. Either way concurrent transfers cannot lose updates. In
+     * {@link ConcurrencyMode#LEDGER} mode both accounts are locked as well, but only the two postings are written.
+     * <p>
+     * A hot receiver's row is not written, its balance slot is credited instead (see {@link HotAccounts}), so in
+     * {@link ConcurrencyMode#LOCKING} mode only the sender is locked.
+     * <p>
+     * Every attempt is timed stage by stage, see {@link TransferMetrics}.
+     */
     @Override
     public void transferFunds(TransfareRecord transfareRecord) {
-        BigDecimal amount;
-        validateAccount(transfareRecord.senderAccount(), transfareRecord.receiverAccount());
-        validateCurrency(transfareRecord.currency());
-        Account senderAccount = accountRepository.getAccountByAccountNumber(transfareRecord.senderAccount());
-        Account receiverAccount = accountRepository.getAccountByAccountNumber(transfareRecord.receiverAccount());
-        if (!transfareRecord.currency().equalsIgnoreCase(receiverAccount.getCurrency()))
-            throw new CurrencyNotSupportedException("Transfer currency does not match receiver currency!");
-        else {
-            amount = convert(transfareRecord, senderAccount);
+        transferFunds(transfareRecord, () -> { });
+    }
+
+    /**
+     * With the {@link TransactionJournal} enabled the transfer has no transaction to join, and
+     * {@code beforeCommit} is not run.
+     */
+    @Override
+    public void transferFunds(TransfareRecord transfareRecord, Runnable beforeCommit) {
+        TransferMetrics.Clock clock = transferMetrics.start(transfareRecord.currency());
+        try {
+            validateAccount(transfareRecord.senderAccount(), transfareRecord.receiverAccount());
+            validateCurrency(transfareRecord.currency());
+            hotAccounts.provision(transfareRecord.receiverAccount());
+            Set<String> changedClients;
+            if (concurrencyMode == ConcurrencyMode.LEDGER) {
+                changedClients = accountLocks.withLocks(transfareRecord.senderAccount(), transfareRecord.receiverAccount(),
+                        () -> clock.attempt(() -> executeLedgerTransfer(transfareRecord, beforeCommit, clock)));
+            } else if (concurrencyMode == ConcurrencyMode.LOCKING) {
+                String lockedReceiver = hotAccounts.isHot(transfareRecord.receiverAccount())
+                        ? transfareRecord.senderAccount() : transfareRecord.receiverAccount();
+                changedClients = accountLocks.withLocks(transfareRecord.senderAccount(), lockedReceiver,
+                        () -> clock.attempt(() -> executeTransfer(transfareRecord, beforeCommit, clock)));
+            } else {
+                changedClients = optimisticRetry.execute(() -> clock.attempt(() -> executeTransfer(transfareRecord, beforeCommit, clock)));
+            }
+            clientAccountsCache.invalidate(changedClients);
+            clock.completed();
+        } catch (RuntimeException e) {
+            clock.failed(e);
+            throw e;
         }
+    }
 
-        validateAmount(transfareRecord, senderAccount);
+    @Override
+    public boolean runsBeforeCommit() {
+        return concurrencyMode != ConcurrencyMode.LEDGER || !transactionJournal.isEnabled();
+    }
 
-        senderAccount.setBalance(senderAccount.getBalance().subtract(transfareRecord.amount()));
-        receiverAccount.setBalance(receiverAccount.getBalance().add(amount));
+    private Set<String> executeTransfer(TransfareRecord transfareRecord, Runnable beforeCommit, TransferMetrics.Clock clock) {
+        return transactionTemplate.execute(status -> {
+            Set<String> changedClients = applyTransfer(transfareRecord, clock);
+            beforeCommit.run();
+            return changedClients;
+        });
+    }
+
+    /**
+     * Appends the transfer's postings without touching the account rows. The accounts are read outside the
+     * transaction, so setting their balances to the ledger's is never flushed. Nothing cached has to be
+     * invalidated: cached balances are replaced by the ledger's on read.
+     * <p>
+     * With the {@link TransactionJournal} enabled the postings are appended to it instead, and the transfer
+     * completes once they are durable there; the journal writes them to the database later.
+     */
+    private Set<String> executeLedgerTransfer(TransfareRecord transfareRecord, Runnable beforeCommit,
+                                              TransferMetrics.Clock clock) {
+        clock.begin(TransferMetrics.Stage.LOOKUP);
+        Account senderAccount = withLedgerBalance(findAccount(transfareRecord.senderAccount()));
+        Account receiverAccount = withLedgerBalance(findAccount(transfareRecord.receiverAccount()));
+        clock.senderCurrency(senderAccount.getCurrency());
+        clock.begin(TransferMetrics.Stage.CONVERT);
+        Conversion conversion = convertForReceiver(transfareRecord, senderAccount, receiverAccount);
+        clock.begin(TransferMetrics.Stage.LEDGER);
+        debit(transfareRecord, senderAccount);
+        receiverAccount.setBalance(receiverAccount.getBalance().add(conversion.amount()));
+        List<Transactions> postings = List.of(
+                ledgerEntry(senderAccount, transfareRecord.amount(), conversion, TransactionFlow.OUTGOING),
+                ledgerEntry(receiverAccount, conversion.amount(), conversion, TransactionFlow.INCOMING));
+        if (transactionJournal.isEnabled()) {
+            long sequence = transactionJournal.append(postings);
+            clock.begin(TransferMetrics.Stage.COMMIT);
+            transactionJournal.awaitDurable(sequence);
+        } else {
+            transactionTemplate.executeWithoutResult(status -> {
+                transactionsRepository.saveAll(postings);
+                clock.begin(TransferMetrics.Stage.ROLLUP);
+                statementRollups.record(postings);
+                clock.begin(TransferMetrics.Stage.COMMIT);
+                beforeCommit.run();
+            });
+        }
+        ledgerBalances.posted(postings);
+        return Set.of();
+    }
+
+    private Account withLedgerBalance(Account account) {
+        return account.setBalance(ledgerBalances.balanceOf(account));
+    }
+
+    /**
+     * Returns the personal codes of the clients whose balances changed. Leaves the clock in the commit stage,
+     * which ends once the surrounding transaction has committed.
+     * <p>
+     * A hot receiver's slot is credited before the sender's funds are checked, and a hot sender's slots are swept
+     * only when its account row does not cover the amount; {@link HotAccounts} explains the order. Postings on a
+     * hot account carry its combined balance as far as this transaction can see it.
+     */
+    Set<String> applyTransfer(TransfareRecord transfareRecord, TransferMetrics.Clock clock) {
+        clock.begin(TransferMetrics.Stage.LOOKUP);
+        Account senderAccount = findAccount(transfareRecord.senderAccount());
+        Account receiverAccount = findAccount(transfareRecord.receiverAccount());
+        clock.senderCurrency(senderAccount.getCurrency());
+        clock.begin(TransferMetrics.Stage.CONVERT);
+        Conversion conversion = convertForReceiver(transfareRecord, senderAccount, receiverAccount);
+        BigDecimal amount = conversion.amount();
+        clock.begin(TransferMetrics.Stage.SAVE);
+        HotAccounts.Credit credit = hotAccounts.isHot(receiverAccount.getAccountNumber())
+                ? hotAccounts.credit(receiverAccount, amount) : null;
+        boolean hotSender = hotAccounts.isHot(senderAccount.getAccountNumber());
+        if (hotSender && transfareRecord.amount().compareTo(senderAccount.getBalance()) > 0)
+            hotAccounts.sweep(senderAccount);
+        debit(transfareRecord, senderAccount);
+        if (Objects.isNull(credit))
+            receiverAccount.setBalance(receiverAccount.getBalance().add(amount));
         accountRepository.save(senderAccount);
         accountRepository.save(receiverAccount);
-        transactionsRepository.save(new Transactions()
-                .setAccountNumber(senderAccount.getAccountNumber())
-                .setCurrency(senderAccount.getCurrency())
-                .setBalance(senderAccount.getBalance())
-                .setAmount(transfareRecord.amount())
-                .setTransactionFlow(TransactionFlow.OUTGOING)
-                .setTimestamp(OffsetDateTime.now()));
-
-        transactionsRepository.save(new Transactions()
-                .setAccountNumber(receiverAccount.getAccountNumber())
-                .setCurrency(receiverAccount.getCurrency())
-                .setBalance(receiverAccount.getBalance())
+        clock.begin(TransferMetrics.Stage.LEDGER);
+        Transactions outgoing = ledgerEntry(senderAccount,
+                hotSender ? hotAccounts.balanceOf(senderAccount) : senderAccount.getBalance(),
+                transfareRecord.amount(), conversion, TransactionFlow.OUTGOING);
+        Transactions incoming = ledgerEntry(receiverAccount,
+                Objects.isNull(credit) ? receiverAccount.getBalance() : credit.balance(),
+                amount, conversion, TransactionFlow.INCOMING);
+        transactionsRepository.save(outgoing);
+        transactionsRepository.save(incoming);
+        clock.begin(TransferMetrics.Stage.ROLLUP);
+        if (Objects.isNull(credit)) {
+            statementRollups.record(List.of(outgoing, incoming));
+        } else {
+            statementRollups.record(List.of(outgoing));
+            statementRollups.record(List.of(incoming), credit.slot());
+        }
+        clock.begin(TransferMetrics.Stage.COMMIT);
+        return clientsOf(List.of(senderAccount, receiverAccount));
+    }
+
+    /**
+     * Transfers are validated and applied one by one in request order, so a later item sees the balances left
+     * by earlier ones. Rejected items leave no trace; everything else is written in a single transaction. Hot
+     * accounts are swept first and then updated like any other account.
+     */
+    @Override
+    public List<TransferResultRecord> transferFundsBatch(List<TransfareRecord> transfareRecords) {
+        if (transfareRecords.size() > maxBatchSize)
+            throw new BatchTooLargeException("Batch must not contain more than " + maxBatchSize + " transfers!");
+        Set<String> accountNumbers = new HashSet<>();
+        for (TransfareRecord transfareRecord : transfareRecords) {
+            if (Objects.nonNull(transfareRecord)) {
+                if (Objects.nonNull(transfareRecord.senderAccount()))
+                    accountNumbers.add(transfareRecord.senderAccount());
+                if (Objects.nonNull(transfareRecord.receiverAccount()))
+                    accountNumbers.add(transfareRecord.receiverAccount());
+            }
+        }
+        Supplier<BatchOutcome> batch =
+                () -> transactionTemplate.execute(status -> applyBatch(transfareRecords, accountNumbers));
+        BatchOutcome outcome;
+        if (concurrencyMode == ConcurrencyMode.LEDGER) {
+            outcome = accountLocks.withLocks(accountNumbers, () -> applyLedgerBatch(transfareRecords, accountNumbers));
+        } else if (concurrencyMode == ConcurrencyMode.LOCKING) {
+            outcome = accountLocks.withLocks(accountNumbers, batch);
+        } else {
+            outcome = optimisticRetry.execute(batch);
+        }
+        clientAccountsCache.invalidate(outcome.changedClients());
+        return outcome.results();
+    }
+
+    BatchOutcome applyBatch(List<TransfareRecord> transfareRecords, Set<String> accountNumbers) {
+        Map<String, Account> accounts = new HashMap<>();
+        accountRepository.findAllByAccountNumberIn(accountNumbers)
+                .forEach(account -> accounts.put(account.getAccountNumber(), account));
+        for (Account account : accounts.values()) {
+            if (hotAccounts.isHot(account.getAccountNumber()))
+                hotAccounts.sweep(account);
+        }
+        BatchPostings batch = evaluateBatch(transfareRecords, accounts);
+        accountRepository.saveAll(batch.changedAccounts());
+        transactionsRepository.saveAll(batch.postings());
+        statementRollups.record(batch.postings());
+        return new BatchOutcome(batch.results(), clientsOf(batch.changedAccounts()));
+    }
+
+    /**
+     * Same as {@link #applyBatch(List, Set)} but, as for single transfers in ledger mode, only the postings are
+     * written. The caller must hold the locks of all accounts in the batch.
+     */
+    private BatchOutcome applyLedgerBatch(List<TransfareRecord> transfareRecords, Set<String> accountNumbers) {
+        Map<String, Account> accounts = new HashMap<>();
+        accountRepository.findAllByAccountNumberIn(accountNumbers)
+                .forEach(account -> accounts.put(account.getAccountNumber(), withLedgerBalance(account)));
+        BatchPostings batch = evaluateBatch(transfareRecords, accounts);
+        if (transactionJournal.isEnabled()) {
+            transactionJournal.awaitDurable(transactionJournal.append(batch.postings()));
+        } else {
+            transactionTemplate.executeWithoutResult(status -> {
+                transactionsRepository.saveAll(batch.postings());
+                statementRollups.record(batch.postings());
+            });
+        }
+        ledgerBalances.posted(batch.postings());
+        return new BatchOutcome(batch.results(), Set.of());
+    }
+
+    private BatchPostings evaluateBatch(List<TransfareRecord> transfareRecords, Map<String, Account> accounts) {
+        List<TransferResultRecord> results = new ArrayList<>(transfareRecords.size());
+        Set<Account> changedAccounts = new LinkedHashSet<>();
+        List<Transactions> ledger = new ArrayList<>();
+        for (int i = 0; i < transfareRecords.size(); i++) {
+            TransfareRecord transfareRecord = transfareRecords.get(i);
+            try {
+                validateComplete(transfareRecord);
+                validateAccount(transfareRecord.senderAccount(), transfareRecord.receiverAccount());
+                validateCurrency(transfareRecord.currency());
+                Account senderAccount = requireAccount(accounts, transfareRecord.senderAccount());
+                Account receiverAccount = requireAccount(accounts, transfareRecord.receiverAccount());
+                Conversion conversion = applyToAccounts(transfareRecord, senderAccount, receiverAccount);
+                changedAccounts.add(senderAccount);
+                changedAccounts.add(receiverAccount);
+                ledger.add(ledgerEntry(senderAccount, transfareRecord.amount(), conversion, TransactionFlow.OUTGOING));
+                ledger.add(ledgerEntry(receiverAccount, conversion.amount(), conversion, TransactionFlow.INCOMING));
+                results.add(new TransferResultRecord(i, TransferStatus.COMPLETED, null));
+            } catch (AccountEqualException | AccountNotFoundException | AmountExceedsException
+                     | CurrencyNotSupportedException | InvalidTransferException e) {
+                results.add(new TransferResultRecord(i, TransferStatus.REJECTED, e.getMessage()));
+            }
+        }
+        return new BatchPostings(results, changedAccounts, ledger);
+    }
+
+    private static Set<String> clientsOf(Collection<Account> accounts) {
+        Set<String> personalCodes = new HashSet<>();
+        for (Account account : accounts) {
+            personalCodes.add(account.getClient().getPersonalCode());
+        }
+        return personalCodes;
+    }
+
+    private Account findAccount(String accountNumber) {
+        Account account = accountRepository.getAccountByAccountNumber(accountNumber);
+        if (Objects.isNull(account))
+            throw new AccountNotFoundException("Account " + accountNumber + " does not exist!");
+        return account;
+    }
+
+    private Account requireAccount(Map<String, Account> accounts, String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (Objects.isNull(account))
+            throw new AccountNotFoundException("Account " + accountNumber + " does not exist!");
+        return account;
+    }
+
+    private Conversion applyToAccounts(TransfareRecord transfareRecord, Account senderAccount, Account receiverAccount) {
+        Conversion conversion = convertForReceiver(transfareRecord, senderAccount, receiverAccount);
+        debit(transfareRecord, senderAccount);
+        receiverAccount.setBalance(receiverAccount.getBalance().add(conversion.amount()));
+        return conversion;
+    }
+
+    private Conversion convertForReceiver(TransfareRecord transfareRecord, Account senderAccount, Account receiverAccount) {
+        if (transfareRecord.currency() != receiverAccount.getCurrency())
+            throw new CurrencyNotSupportedException("Transfer currency does not match receiver currency!");
+        return convert(transfareRecord, senderAccount);
+    }
+
+    private void debit(TransfareRecord transfareRecord, Account senderAccount) {
+        validateAmount(transfareRecord, senderAccount);
+        senderAccount.setBalance(senderAccount.getBalance().subtract(transfareRecord.amount()));
+    }
+
+    private Transactions ledgerEntry(Account account, BigDecimal amount, Conversion conversion,
+                                     TransactionFlow transactionFlow) {
+        return ledgerEntry(account, account.getBalance(), amount, conversion, transactionFlow);
+    }
+
+    private Transactions ledgerEntry(Account account, BigDecimal balance, BigDecimal amount, Conversion conversion,
+                                     TransactionFlow transactionFlow) {
+        return new Transactions()
+                .setAccountNumber(account.getAccountNumber())
+                .setCurrency(account.getCurrency())
+                .setBalance(balance)
                 .setAmount(amount)
-                .setTransactionFlow(TransactionFlow.INCOMING)
-                .setTimestamp(OffsetDateTime.now()));
+                .setExchangeRate(conversion.exchangeRate())
+                .setTransactionFlow(transactionFlow)
+                .setTimestamp(OffsetDateTime.now());
     }
 
-    void validateCurrency(String currency) {
-        if (!Currency.isValid(currency))
+    void validateComplete(TransfareRecord transfareRecord) {
+        if (Objects.isNull(transfareRecord) || Objects.isNull(transfareRecord.senderAccount())
+                || Objects.isNull(transfareRecord.receiverAccount()) || Objects.isNull(transfareRecord.amount())
+                || Objects.isNull(transfareRecord.currency()))
+            throw new InvalidTransferException("Sender, receiver, amount and currency are required!");
+    }
+
+    void validateCurrency(Currency currency) {
+        if (Objects.isNull(currency))
             throw new CurrencyNotSupportedException("Provided currency is not supported!");
     }
 
@@ -107,12 +545,14 @@ public class BankingServiceImpl implements BankingService {
             throw new AccountEqualException("Sender and receiver accounts must differ!");
     }
 
-    BigDecimal convert(TransfareRecord transfareRecord, Account senderAccount) {
-        if (transfareRecord.currency().equalsIgnoreCase(senderAccount.getCurrency())) {
-            return transfareRecord.amount();
-        } else {
-            return currencyConverter.convert(senderAccount.getCurrency(), transfareRecord.currency(), transfareRecord.amount());
-        }
+    /**
+     * Keeps the rate the amount was converted at, so the postings record it.
+     */
+    Conversion convert(TransfareRecord transfareRecord, Account senderAccount) {
+        if (transfareRecord.currency() == senderAccount.getCurrency())
+            return new Conversion(transfareRecord.amount(), null);
+        BigDecimal rate = currencyConverter.getRate(senderAccount.getCurrency(), transfareRecord.currency());
+        return new Conversion(CurrencyConverter.convert(rate, transfareRecord.amount()), rate);
     }
 
     void validateAmount(TransfareRecord transfareRecord, Account senderAccount) {
@@ -122,6 +562,19 @@ public class BankingServiceImpl implements BankingService {
 
     @Override
     public boolean clientExists(String personalCode) {
-        return clientRepository.existsByPersonalCode(personalCode);
+        return clientAccountsCache.getAccounts(personalCode).isPresent();
+    }
+
+    record BatchOutcome(List<TransferResultRecord> results, Set<String> changedClients) {
+    }
+
+    /**
+     * The amount in the receiver's currency and the rate it was converted at, null if it was not converted.
+     */
+    record Conversion(BigDecimal amount, BigDecimal exchangeRate) {
+    }
+
+    private record BatchPostings(List<TransferResultRecord> results, Set<Account> changedAccounts,
+                                 List<Transactions> postings) {
     }
 }
@@ -0,0 +1,354 @@
+package io.mintos.banking.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.mintos.banking.domain.IdempotentRequest;
+import io.mintos.banking.exception.AccountEqualException;
+import io.mintos.banking.exception.AccountNotFoundException;
+import io.mintos.banking.exception.AmountExceedsException;
+import io.mintos.banking.exception.CurrencyNotSupportedException;
+import io.mintos.banking.exception.IdempotencyKeyConflictException;
+import io.mintos.banking.exception.IdempotencyKeyReuseException;
+import io.mintos.banking.exception.InvalidTransferException;
+import io.mintos.banking.records.IdempotentOutcomeRecord;
+import io.mintos.banking.repos.IdempotentRequestRepository;
+import io.mintos.banking.services.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a request at most once per idempotency key and answers repeats with the first outcome.
+ * <p>
+ * Keys seen recently are held in a bounded in-memory index of (possibly still running) outcomes, so a repeat that
+ * hits the index costs no database round trip, and concurrent duplicates wait for the one execution in flight.
+ * Behind the index, the {@link IdempotentRequest} row is claimed before the request runs: its unique key makes a
+ * second claim fail even when the index has forgotten the key, in which case the stored outcome is replayed.
+ * <p>
+ * Successful outcomes and the client errors listed in {@link ReplayedError} are stored and replayed. Any other
+ * failure releases the key, so the client can retry. Keys expire after {@code ttl}.
+ * <p>
+ * An action that runs in a transaction records its outcome in it, so the outcome is stored if and only if the
+ * action committed. Otherwise, the outcome is stored once the action is done; if that fails, or the process dies
+ * before, the claim stays without an outcome. Such a claim older than {@code stale-claim} is taken over by the
+ * next repeat if the request is recoverable, i.e. it cannot have had an effect without recording its outcome.
+ * Otherwise the key answers "outcome unknown" until it expires, rather than risk running the action twice.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    private static final String IN_PROGRESS = "A request with this Idempotency-Key is still in progress!";
+    private static final String FAILED = "The first request with this Idempotency-Key failed, try again!";
+    private static final String OUTCOME_UNKNOWN = "The first request with this Idempotency-Key did not complete "
+            + "and may have taken effect, check the account before retrying with a new key!";
+
+    private final IdempotentRequestRepository idempotentRequestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration duplicateWait;
+    private final Duration staleClaim;
+    private final Cache<String, CompletableFuture<StoredOutcome>> index;
+
+    public IdempotencyServiceImpl(IdempotentRequestRepository idempotentRequestRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${banking.idempotency.cache-size:100000}") long cacheSize,
+                                  @Value("${banking.idempotency.ttl:PT24H}") Duration ttl,
+                                  @Value("${banking.idempotency.duplicate-wait:PT30S}") Duration duplicateWait,
+                                  @Value("${banking.idempotency.stale-claim:PT5M}") Duration staleClaim) {
+        this.idempotentRequestRepository = Objects.requireNonNull(idempotentRequestRepository);
+        this.transactionTemplate = new TransactionTemplate(Objects.requireNonNull(transactionManager));
+        this.ttl = Objects.requireNonNull(ttl);
+        this.duplicateWait = Objects.requireNonNull(duplicateWait);
+        this.staleClaim = Objects.requireNonNull(staleClaim);
+        this.index = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public IdempotentOutcomeRecord execute(String idempotencyKey, String requestFingerprint, boolean recoverable,
+                                           Function<Consumer<IdempotentOutcomeRecord>, IdempotentOutcomeRecord> action) {
+        String requestHash = sha256(requestFingerprint);
+        CompletableFuture<StoredOutcome> created = new CompletableFuture<>();
+        CompletableFuture<StoredOutcome> existing = index.asMap().putIfAbsent(idempotencyKey, created);
+        if (Objects.nonNull(existing))
+            return replay(await(existing), requestHash);
+
+        IdempotentRequest claimed;
+        StoredOutcome stored = null;
+        try {
+            claimed = claim(idempotencyKey, requestHash, recoverable);
+            if (Objects.isNull(claimed)) {
+                stored = loadCompleted(idempotencyKey, requestHash);
+                if (Objects.isNull(stored))
+                    claimed = claim(idempotencyKey, requestHash, recoverable);
+                if (Objects.isNull(stored) && Objects.isNull(claimed))
+                    throw new IdempotencyKeyConflictException(IN_PROGRESS);
+            }
+        } catch (RuntimeException e) {
+            forget(idempotencyKey, created, e);
+            throw e;
+        }
+        if (Objects.nonNull(stored)) {
+            created.complete(stored);
+            return replay(stored, requestHash);
+        }
+        return run(idempotencyKey, requestHash, claimed, created, action);
+    }
+
+    private IdempotentOutcomeRecord run(String idempotencyKey, String requestHash, IdempotentRequest claimed,
+                                        CompletableFuture<StoredOutcome> created,
+                                        Function<Consumer<IdempotentOutcomeRecord>, IdempotentOutcomeRecord> action) {
+        OutcomeRecorder recorder = new OutcomeRecorder(idempotencyKey, requestHash, claimed, created);
+        IdempotentOutcomeRecord outcome;
+        try {
+            outcome = action.apply(recorder);
+        } catch (RuntimeException e) {
+            ReplayedError error = ReplayedError.of(e);
+            if (Objects.isNull(error)) {
+                release(claimed);
+                forget(idempotencyKey, created, e);
+                throw e;
+            }
+            IdempotentOutcomeRecord failure = new IdempotentOutcomeRecord(error.status.value(), null, null, e.getMessage());
+            store(claimed, failure, error.name());
+            created.complete(new StoredOutcome(requestHash, failure, error.name()));
+            throw e;
+        }
+        recorder.returned(outcome);
+        return outcome;
+    }
+
+    @Scheduled(fixedDelayString = "${banking.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        Integer purged = transactionTemplate.execute(status ->
+                idempotentRequestRepository.deleteCreatedBefore(OffsetDateTime.now(ZoneOffset.UTC).minus(ttl)));
+        if (Objects.nonNull(purged) && purged > 0)
+            log.info("Purged {} expired idempotency keys", purged);
+    }
+
+    /**
+     * Returns null if the key is already claimed.
+     */
+    private IdempotentRequest claim(String idempotencyKey, String requestHash, boolean recoverable) {
+        try {
+            return idempotentRequestRepository.saveAndFlush(new IdempotentRequest()
+                    .setIdempotencyKey(idempotencyKey)
+                    .setRequestHash(requestHash)
+                    .setCreatedAt(OffsetDateTime.now(ZoneOffset.UTC))
+                    .setRecoverable(recoverable));
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns null if the claim on the key was abandoned and has been released, so it can be claimed again.
+     */
+    private StoredOutcome loadCompleted(String idempotencyKey, String requestHash) {
+        IdempotentRequest stored = idempotentRequestRepository.findByIdempotencyKey(idempotencyKey)
+                .orElseThrow(() -> new IdempotencyKeyConflictException(IN_PROGRESS));
+        if (Objects.nonNull(stored.getResponseStatus()))
+            return new StoredOutcome(stored.getRequestHash(), new IdempotentOutcomeRecord(stored.getResponseStatus(),
+                    stored.getTransferId(), stored.getTransferStatus(), stored.getMessage()), stored.getErrorCode());
+        if (stored.getCreatedAt().isAfter(OffsetDateTime.now(ZoneOffset.UTC).minus(staleClaim)))
+            throw new IdempotencyKeyConflictException(IN_PROGRESS);
+        if (!stored.getRequestHash().equals(requestHash))
+            throw new IdempotencyKeyReuseException("Idempotency-Key was already used for a different request!");
+        if (!stored.isRecoverable()) {
+            log.warn("Idempotency key {} claimed at {} has no outcome and may have taken effect", idempotencyKey,
+                    stored.getCreatedAt());
+            throw new IdempotencyKeyConflictException(OUTCOME_UNKNOWN);
+        }
+        log.warn("Taking over idempotency key {} claimed at {} without an outcome", idempotencyKey, stored.getCreatedAt());
+        idempotentRequestRepository.delete(stored);
+        return null;
+    }
+
+    private StoredOutcome await(CompletableFuture<StoredOutcome> inFlight) {
+        try {
+            return inFlight.get(duplicateWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // the first request released the key, so this one can be retried
+            throw new IdempotencyKeyConflictException(FAILED);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyConflictException(IN_PROGRESS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyConflictException(IN_PROGRESS);
+        }
+    }
+
+    private static IdempotentOutcomeRecord replay(StoredOutcome stored, String requestHash) {
+        if (!stored.requestHash().equals(requestHash))
+            throw new IdempotencyKeyReuseException("Idempotency-Key was already used for a different request!");
+        IdempotentOutcomeRecord outcome = stored.outcome();
+        if (outcome.status() >= 400)
+            throw failure(stored.errorCode(), outcome);
+        return outcome;
+    }
+
+    /**
+     * Recreates the stored client error, so the error response is the same as the first time.
+     */
+    private static RuntimeException failure(String errorCode, IdempotentOutcomeRecord outcome) {
+        for (ReplayedError error : ReplayedError.values()) {
+            if (error.name().equals(errorCode))
+                return error.recreate.apply(outcome.message());
+        }
+        log.warn("Replaying unknown error code {} as a plain {}", errorCode, outcome.status());
+        return new ResponseStatusException(HttpStatus.valueOf(outcome.status()), outcome.message());
+    }
+
+    private void store(IdempotentRequest claimed, IdempotentOutcomeRecord outcome, String errorCode) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    idempotentRequestRepository.save(withOutcome(claimed, outcome, errorCode)));
+        } catch (RuntimeException e) {
+            // the in-memory index still answers repeats; after eviction the claim is taken over once stale
+            log.error("Could not store the outcome of idempotency key {}", claimed.getIdempotencyKey(), e);
+        }
+    }
+
+    private static IdempotentRequest withOutcome(IdempotentRequest claimed, IdempotentOutcomeRecord outcome,
+                                                 String errorCode) {
+        return claimed
+                .setResponseStatus(outcome.status())
+                .setTransferId(outcome.transferId())
+                .setTransferStatus(outcome.transferStatus())
+                .setMessage(outcome.message())
+                .setErrorCode(errorCode);
+    }
+
+    private void release(IdempotentRequest claimed) {
+        try {
+            idempotentRequestRepository.delete(claimed);
+        } catch (RuntimeException e) {
+            log.error("Could not release idempotency key {}", claimed.getIdempotencyKey(), e);
+        }
+    }
+
+    private void forget(String idempotencyKey, CompletableFuture<StoredOutcome> created, RuntimeException e) {
+        index.asMap().remove(idempotencyKey, created);
+        created.completeExceptionally(e);
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record StoredOutcome(String requestHash, IdempotentOutcomeRecord outcome, String errorCode) {
+    }
+
+    /**
+     * Writes the outcomes the action records to its claim, and those recorded after the action has returned also
+     * to the index, replacing the outcome repeats are answered with.
+     */
+    private final class OutcomeRecorder implements Consumer<IdempotentOutcomeRecord> {
+        private final String idempotencyKey;
+        private final String requestHash;
+        private final IdempotentRequest claimed;
+        private CompletableFuture<StoredOutcome> indexed;
+        private IdempotentOutcomeRecord recorded;
+        private boolean returned;
+
+        OutcomeRecorder(String idempotencyKey, String requestHash, IdempotentRequest claimed,
+                        CompletableFuture<StoredOutcome> indexed) {
+            this.idempotencyKey = idempotencyKey;
+            this.requestHash = requestHash;
+            this.claimed = claimed;
+            this.indexed = indexed;
+        }
+
+        @Override
+        public synchronized void accept(IdempotentOutcomeRecord outcome) {
+            if (!returned) {
+                // joins the action's transaction, if it runs in one
+                idempotentRequestRepository.save(withOutcome(claimed, outcome, null));
+                recorded = outcome;
+                return;
+            }
+            store(claimed, outcome, null);
+            CompletableFuture<StoredOutcome> replaced = CompletableFuture.completedFuture(
+                    new StoredOutcome(requestHash, outcome, null));
+            index.asMap().replace(idempotencyKey, indexed, replaced);
+            indexed = replaced;
+        }
+
+        /**
+         * Stores the returned outcome unless the action recorded one, which may already be a later one.
+         */
+        synchronized void returned(IdempotentOutcomeRecord outcome) {
+            returned = true;
+            if (Objects.isNull(recorded)) {
+                store(claimed, outcome, null);
+                recorded = outcome;
+            }
+            indexed.complete(new StoredOutcome(requestHash, recorded, null));
+        }
+    }
+
+    /**
+     * The client errors that are stored and replayed, by the code they are stored under. Each would fail the same
+     * way again if the request were repeated.
+     */
+    private enum ReplayedError {
+        ACCOUNT_EQUAL(AccountEqualException.class, AccountEqualException::new),
+        ACCOUNT_NOT_FOUND(AccountNotFoundException.class, AccountNotFoundException::new),
+        AMOUNT_EXCEEDS(AmountExceedsException.class, AmountExceedsException::new),
+        CURRENCY_NOT_SUPPORTED(CurrencyNotSupportedException.class, CurrencyNotSupportedException::new),
+        INVALID_TRANSFER(InvalidTransferException.class, InvalidTransferException::new);
+
+        private final Class<? extends RuntimeException> type;
+        private final Function<String, RuntimeException> recreate;
+        private final HttpStatus status;
+
+        ReplayedError(Class<? extends RuntimeException> type, Function<String, RuntimeException> recreate) {
+            this.type = type;
+            this.recreate = recreate;
+            this.status = AnnotatedElementUtils.findMergedAnnotation(type, ResponseStatus.class).code();
+        }
+
+        /**
+         * Returns null if the failure is not replayed.
+         */
+        static ReplayedError of(RuntimeException e) {
+            for (ReplayedError error : values()) {
+                if (error.type == e.getClass())
+                    return error;
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.mintos.banking.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-JVM locks keyed by account number. Two accounts are always locked in stripe order, so concurrent
+ * transfers in opposite directions cannot deadlock. Unrelated accounts mostly map to different stripes and
+ * proceed in parallel.
+ */
+@Component
+public class AccountLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public AccountLocks(@Value("${banking.transfer.lock-stripes:1024}") int stripeCount) {
+        if (stripeCount < 1)
+            throw new IllegalArgumentException("banking.transfer.lock-stripes must be positive");
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T withLocks(String firstAccount, String secondAccount, Supplier<T> action) {
+        int first = stripeFor(firstAccount);
+        int second = stripeFor(secondAccount);
+        ReentrantLock lower = stripes[Math.min(first, second)];
+        ReentrantLock upper = stripes[Math.max(first, second)];
+        lower.lock();
+        try {
+            if (upper != lower)
+                upper.lock();
+            try {
+                return action.get();
+            } finally {
+                if (upper != lower)
+                    upper.unlock();
+            }
+        } finally {
+            lower.unlock();
+        }
+    }
+
+    /**
+     * Locks every stripe used by the given accounts, in ascending order, for the duration of the action.
+     */
+    public <T> T withLocks(Collection<String> accountNumbers, Supplier<T> action) {
+        int[] indexes = accountNumbers.stream().mapToInt(this::stripeFor).distinct().sorted().toArray();
+        int locked = 0;
+        try {
+            for (int index : indexes) {
+                stripes[index].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    int stripeFor(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), stripes.length);
+    }
+}
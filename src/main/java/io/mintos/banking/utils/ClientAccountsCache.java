@@ -0,0 +1,144 @@
+package io.mintos.banking.utils;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.ClientAccountRecord;
+import io.mintos.banking.repos.ClientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Read-through cache of a client's accounts keyed by personal code. One entry answers both "does the client
+ * exist" and "which accounts does it have"; unknown clients are cached as empty too. Entries are evicted by size
+ * and by age, and dropped explicitly when a transfer changes one of the client's balances.
+ * <p>
+ * Invalidation must happen after the changing transaction has committed: an invalidation that races with an
+ * in-flight load drops the pending entry, so the load's result is handed to its waiters but never cached.
+ * <p>
+ * A miss is loaded on the calling thread, outside of the cache's internal locks: concurrent callers for the same
+ * client wait on the pending entry instead of a monitor, so a virtual thread never pins its carrier for the
+ * duration of the query.
+ * <p>
+ * Bulk lookups load all missing clients together, with one {@code IN} query per {@code load-chunk-size} clients.
+ */
+@Component
+public class ClientAccountsCache {
+
+    static final String CACHE_NAME = "client.accounts";
+
+    private final ClientRepository clientRepository;
+    private final int loadChunkSize;
+    private final AsyncCache<String, Optional<List<AccountRecord>>> cache;
+
+    public ClientAccountsCache(ClientRepository clientRepository,
+                               @Value("${banking.client-cache.max-size:10000}") long maxSize,
+                               @Value("${banking.client-cache.ttl:PT30S}") Duration ttl,
+                               @Value("${banking.client-cache.load-chunk-size:500}") int loadChunkSize,
+                               MeterRegistry meterRegistry) {
+        if (loadChunkSize < 1)
+            throw new IllegalArgumentException("banking.client-cache.load-chunk-size must be positive");
+        this.clientRepository = Objects.requireNonNull(clientRepository);
+        this.loadChunkSize = loadChunkSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("banking.client.accounts.cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+                .description("Share of client account lookups served from the cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the client's accounts, or empty when no client has this personal code.
+     */
+    public Optional<List<AccountRecord>> getAccounts(String personalCode) {
+        CompletableFuture<Optional<List<AccountRecord>>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<List<AccountRecord>>> cached = cache.get(personalCode, (key, executor) -> created);
+        if (cached == created) {
+            try {
+                created.complete(load(personalCode));
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return join(cached);
+    }
+
+    /**
+     * Returns the accounts of every given client, or empty for those that do not exist. Clients not cached yet
+     * are loaded together, on the calling thread.
+     */
+    public Map<String, Optional<List<AccountRecord>>> getAccounts(Collection<String> personalCodes) {
+        return join(cache.getAll(personalCodes, (missing, executor) -> {
+            try {
+                return CompletableFuture.completedFuture(loadAll(missing));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }));
+    }
+
+    public void invalidate(Collection<String> personalCodes) {
+        cache.synchronous().invalidateAll(personalCodes);
+    }
+
+    public double getHitRatio() {
+        return cache.synchronous().stats().hitRate();
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw e;
+        }
+    }
+
+    private Map<String, Optional<List<AccountRecord>>> loadAll(Set<? extends String> personalCodes) {
+        List<String> codes = List.copyOf(personalCodes);
+        Map<String, List<AccountRecord>> found = new HashMap<>();
+        for (int from = 0; from < codes.size(); from += loadChunkSize) {
+            List<String> chunk = codes.subList(from, Math.min(codes.size(), from + loadChunkSize));
+            for (ClientAccountRecord row : clientRepository.findClientAccountsByPersonalCodeIn(chunk)) {
+                List<AccountRecord> accounts = found.computeIfAbsent(row.personalCode(), code -> new ArrayList<>());
+                if (Objects.nonNull(row.accountNumber()))
+                    accounts.add(new AccountRecord(row.accountNumber(), row.balance(), row.currency()));
+            }
+        }
+        Map<String, Optional<List<AccountRecord>>> loaded = new HashMap<>();
+        for (String personalCode : codes) {
+            loaded.put(personalCode, Optional.ofNullable(found.get(personalCode)).map(List::copyOf));
+        }
+        return loaded;
+    }
+
+    private Optional<List<AccountRecord>> load(String personalCode) {
+        List<AccountRecord> rows = clientRepository.findClientAccountsByPersonalCode(personalCode);
+        if (rows.isEmpty())
+            return Optional.empty();
+        return Optional.of(rows.stream()
+                .filter(account -> Objects.nonNull(account.accountNumber()))
+                .toList());
+    }
+}
@@ -0,0 +1,159 @@
+package io.mintos.banking.utils;
+
+import io.mintos.banking.domain.ExchangeRate;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.exception.CurrencyNotSupportedException;
+import io.mintos.banking.repos.ExchangeRateRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Local exchange rates for every ordered currency pair, held in an array indexed by
+ * {@link Currency#pairIndex(Currency, Currency)}.
+ * <p>
+ * Stored pairs are used as they are. Every other pair is triangulated through the base currency: the rate from
+ * the base to each currency is derived by walking the stored pairs (in either direction) outward from the base,
+ * and {@code from -> to} becomes {@code base->to / base->from}. Pairs that cannot be reached stay empty.
+ * <p>
+ * The matrix is rebuilt into a fresh array and published with a single volatile write, so lookups never lock and
+ * never see a half-built matrix. Rebuilds are serialized with a {@link ReentrantLock} rather than a monitor, so a
+ * virtual thread waiting on the rates query does not pin its carrier.
+ * <p>
+ * The matrix is first built once the database is initialized, before any bean that converts currencies can use
+ * it. It holds the rates in effect when it was built and is rebuilt as soon as the next stored rate takes
+ * effect, checked every {@code check-interval}, and at least every {@code rebuild-interval} to pick up rates
+ * stored since.
+ */
+@Component
+@DependsOnDatabaseInitialization
+public class CrossRateMatrix {
+
+    private static final Logger log = LoggerFactory.getLogger(CrossRateMatrix.class);
+    private static final MathContext PRECISION = MathContext.DECIMAL64;
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final Currency baseCurrency;
+    private final Duration rebuildInterval;
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private volatile BigDecimal[] rates = new BigDecimal[Currency.pairCount()];
+    private volatile OffsetDateTime rebuildDue = OffsetDateTime.MIN;
+
+    public CrossRateMatrix(ExchangeRateRepository exchangeRateRepository,
+                           @Value("${exchange.matrix.base-currency:EUR}") Currency baseCurrency,
+                           @Value("${exchange.matrix.rebuild-interval:PT5M}") Duration rebuildInterval) {
+        this.exchangeRateRepository = Objects.requireNonNull(exchangeRateRepository);
+        this.baseCurrency = Objects.requireNonNull(baseCurrency);
+        this.rebuildInterval = Objects.requireNonNull(rebuildInterval);
+    }
+
+    /**
+     * Returns the local rate for the pair.
+     *
+     * @throws CurrencyNotSupportedException when the pair is neither stored nor reachable from the base currency
+     */
+    public BigDecimal getRate(Currency currencyFrom, Currency currencyTo) {
+        BigDecimal rate = rates[Currency.pairIndex(currencyFrom, currencyTo)];
+        if (Objects.isNull(rate))
+            throw new CurrencyNotSupportedException("No exchange rate for " + currencyFrom.pairCode(currencyTo));
+        return rate;
+    }
+
+    /**
+     * Reloads the rates currently in effect and publishes a new matrix.
+     */
+    @PostConstruct
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            rates = build(exchangeRateRepository.findRatesEffectiveAt(now));
+            OffsetDateTime nextEffective = exchangeRateRepository.findNextEffectiveFromAfter(now);
+            OffsetDateTime interval = now.plus(rebuildInterval);
+            rebuildDue = Objects.nonNull(nextEffective) && nextEffective.isBefore(interval) ? nextEffective : interval;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the matrix if a stored rate has taken effect or {@code rebuild-interval} has passed since the last
+     * rebuild.
+     */
+    @Scheduled(fixedDelayString = "${exchange.matrix.check-interval:PT1S}")
+    public void rebuildIfDue() {
+        if (!OffsetDateTime.now(ZoneOffset.UTC).isBefore(rebuildDue))
+            rebuild();
+    }
+
+    BigDecimal[] build(Collection<ExchangeRate> exchangeRates) {
+        int n = Currency.values().length;
+        BigDecimal[] stored = new BigDecimal[Currency.pairCount()];
+        for (ExchangeRate exchangeRate : exchangeRates) {
+            String source = exchangeRate.getSource();
+            Currency from = source.length() == 6 ? Currency.fromCode(source.substring(0, 3)) : null;
+            Currency to = source.length() == 6 ? Currency.fromCode(source.substring(3)) : null;
+            if (Objects.isNull(from) || Objects.isNull(to) || exchangeRate.getRate().signum() <= 0) {
+                log.warn("Ignoring exchange rate {} = {}", source, exchangeRate.getRate());
+                continue;
+            }
+            stored[Currency.pairIndex(from, to)] = exchangeRate.getRate();
+        }
+
+        BigDecimal[] fromBase = new BigDecimal[n];
+        fromBase[baseCurrency.ordinal()] = BigDecimal.ONE;
+        Deque<Currency> reached = new ArrayDeque<>();
+        reached.add(baseCurrency);
+        while (!reached.isEmpty()) {
+            Currency via = reached.poll();
+            for (Currency next : Currency.values()) {
+                if (Objects.nonNull(fromBase[next.ordinal()]))
+                    continue;
+                BigDecimal leg = leg(stored, via, next);
+                if (Objects.nonNull(leg)) {
+                    fromBase[next.ordinal()] = fromBase[via.ordinal()].multiply(leg, PRECISION);
+                    reached.add(next);
+                }
+            }
+        }
+
+        BigDecimal[] matrix = new BigDecimal[Currency.pairCount()];
+        for (Currency from : Currency.values()) {
+            for (Currency to : Currency.values()) {
+                int pair = Currency.pairIndex(from, to);
+                if (from == to) {
+                    matrix[pair] = BigDecimal.ONE;
+                } else if (Objects.nonNull(stored[pair])) {
+                    matrix[pair] = stored[pair];
+                } else if (Objects.nonNull(fromBase[from.ordinal()]) && Objects.nonNull(fromBase[to.ordinal()])) {
+                    matrix[pair] = fromBase[to.ordinal()].divide(fromBase[from.ordinal()], PRECISION);
+                }
+            }
+        }
+        return matrix;
+    }
+
+    private static BigDecimal leg(BigDecimal[] stored, Currency from, Currency to) {
+        BigDecimal direct = stored[Currency.pairIndex(from, to)];
+        if (Objects.nonNull(direct))
+            return direct;
+        BigDecimal inverse = stored[Currency.pairIndex(to, from)];
+        return Objects.nonNull(inverse) ? BigDecimal.ONE.divide(inverse, PRECISION) : null;
+    }
+}
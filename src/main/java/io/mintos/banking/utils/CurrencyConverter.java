@@ -1,55 +1,54 @@
 package io.mintos.banking.utils;
 
-import com.google.gson.Gson;
-import io.mintos.banking.domain.ExchangeRate;
-import io.mintos.banking.dto.ExchangeDto;
-import io.mintos.banking.repos.ExchangeRateRepository;
-import okhttp3.OkHttpClient;
-import okhttp3.Request;
-import okhttp3.Response;
-import org.springframework.beans.factory.annotation.Value;
+import io.mintos.banking.enums.Currency;
 import org.springframework.stereotype.Component;
 
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 
 @Component
 public class CurrencyConverter {
 
-    @Value("${exchange.api.url}")
-    private String exchangeRateApiUrl;
+    private final ExchangeRateCache exchangeRateCache;
+    private final CrossRateMatrix crossRateMatrix;
 
-    @Value("${exchange.key}")
-    private String exchangeKey;
+    public CurrencyConverter(ExchangeRateCache exchangeRateCache, CrossRateMatrix crossRateMatrix) {
+        this.exchangeRateCache = Objects.requireNonNull(exchangeRateCache);
+        this.crossRateMatrix = Objects.requireNonNull(crossRateMatrix);
+    }
+
+    public BigDecimal convert(Currency currencyFrom, Currency currencyTo, BigDecimal amount) {
+        return convert(getRate(currencyFrom, currencyTo), amount);
+    }
 
-    private final ExchangeRateRepository exchangeRateRepository;
+    /**
+     * The rate {@link #convert(Currency, Currency, BigDecimal)} applies: the cached one, or the local one if none
+     * is cached.
+     */
+    public BigDecimal getRate(Currency currencyFrom, Currency currencyTo) {
+        return exchangeRateCache.getRate(currencyFrom, currencyTo)
+                .orElseGet(() -> fallbackRate(currencyFrom, currencyTo));
+    }
+
+    public static BigDecimal convert(BigDecimal rate, BigDecimal amount) {
+        return amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+    }
 
-    public CurrencyConverter(ExchangeRateRepository exchangeRateRepository) {
-        this.exchangeRateRepository = Objects.requireNonNull(exchangeRateRepository);
+    /**
+     * Non-blocking variant of {@link #convert(Currency, Currency, BigDecimal)}. When no rate is cached, concurrent
+     * callers for the same pair share a single remote fetch and fall back to the local rate if it fails.
+     */
+    public CompletableFuture<BigDecimal> convertAsync(Currency currencyFrom, Currency currencyTo, BigDecimal amount) {
+        return exchangeRateCache.getRateAsync(currencyFrom, currencyTo)
+                .exceptionally(e -> fallbackRate(currencyFrom, currencyTo))
+                .thenApply(rate -> convert(rate, amount));
     }
 
-    public BigDecimal convert(String currencyFrom, String currencyTo, BigDecimal amount) {
-        try {
-            Gson gson = new Gson();
-            OkHttpClient client = new OkHttpClient().newBuilder().build();
-
-            Request request = new Request.Builder()
-                    .url(exchangeRateApiUrl.concat("?to=").concat(currencyTo).concat("&from=")
-                            .concat(currencyFrom).concat("&amount=").concat(amount.toString()))
-                    .addHeader("apikey", exchangeKey)
-                    .get()
-                    .build();
-            Response response = client.newCall(request).execute();
-
-            ExchangeDto exchangeDto = gson.fromJson(response.body().string(), ExchangeDto.class);
-            return exchangeDto.getResult();
-        } catch (IOException e) {
-            //Set default rate if service not available
-            ExchangeRate exchangeRate = exchangeRateRepository.getExchangeRateBySource(currencyFrom.concat(currencyTo));
-            return amount.multiply(exchangeRate.getRate()).setScale(2, RoundingMode.HALF_UP);
-        }
+    //Use default rate if no fresh rate is cached
+    private BigDecimal fallbackRate(Currency currencyFrom, Currency currencyTo) {
+        return crossRateMatrix.getRate(currencyFrom, currencyTo);
     }
 }
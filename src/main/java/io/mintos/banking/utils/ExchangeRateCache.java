@@ -0,0 +1,190 @@
+package io.mintos.banking.utils;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.mintos.banking.enums.Currency;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory exchange rate cache indexed by currency pair (see {@link Currency#pairIndex(Currency, Currency)}).
+ * <p>
+ * Rates younger than {@code fresh-ttl} are served as hits. Rates between {@code fresh-ttl} and {@code max-age}
+ * are still served but trigger a background revalidation. Older rates are never served, the caller is expected
+ * to fall back to the local rate source. Reads never touch the network.
+ * <p>
+ * Refreshes are coalesced: concurrent callers asking for the same pair share one in-flight remote request.
+ * <p>
+ * The hit, stale hit, miss and refresh failure counts are published as {@code exchange.rate.cache.requests} and
+ * {@code exchange.rate.cache.refresh.failures}; the meters read the existing counters, so lookups pay nothing extra.
+ */
+@Component
+public class ExchangeRateCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRateCache.class);
+
+    private final ExchangeRateClient exchangeRateClient;
+    private final Duration freshTtl;
+    private final Duration maxAge;
+    private final Clock clock;
+
+    private final AtomicReferenceArray<CachedRate> rates = new AtomicReferenceArray<>(Currency.pairCount());
+    private final AtomicReferenceArray<CompletableFuture<BigDecimal>> inFlight =
+            new AtomicReferenceArray<>(Currency.pairCount());
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    @Autowired
+    public ExchangeRateCache(ExchangeRateClient exchangeRateClient,
+                             @Value("${exchange.cache.fresh-ttl:PT5M}") Duration freshTtl,
+                             @Value("${exchange.cache.max-age:PT1H}") Duration maxAge) {
+        this(exchangeRateClient, freshTtl, maxAge, Clock.systemUTC());
+    }
+
+    ExchangeRateCache(ExchangeRateClient exchangeRateClient, Duration freshTtl, Duration maxAge, Clock clock) {
+        this.exchangeRateClient = Objects.requireNonNull(exchangeRateClient);
+        this.freshTtl = Objects.requireNonNull(freshTtl);
+        this.maxAge = Objects.requireNonNull(maxAge);
+        this.clock = Objects.requireNonNull(clock);
+        if (maxAge.compareTo(freshTtl) < 0)
+            throw new IllegalArgumentException("exchange.cache.max-age must not be shorter than fresh-ttl");
+    }
+
+    /**
+     * Returns the cached rate for the pair, or empty when there is no rate within the hard TTL.
+     */
+    public Optional<BigDecimal> getRate(Currency currencyFrom, Currency currencyTo) {
+        CachedRate cachedRate = rates.get(Currency.pairIndex(currencyFrom, currencyTo));
+        if (Objects.isNull(cachedRate)) {
+            misses.increment();
+            refreshAsync(currencyFrom, currencyTo);
+            return Optional.empty();
+        }
+        Duration age = Duration.between(cachedRate.fetchedAt(), clock.instant());
+        if (age.compareTo(freshTtl) <= 0) {
+            hits.increment();
+            return Optional.of(cachedRate.rate());
+        }
+        refreshAsync(currencyFrom, currencyTo);
+        if (age.compareTo(maxAge) <= 0) {
+            staleHits.increment();
+            return Optional.of(cachedRate.rate());
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the cached rate if it is within the hard TTL, otherwise a future for the (shared) remote fetch.
+     */
+    public CompletableFuture<BigDecimal> getRateAsync(Currency currencyFrom, Currency currencyTo) {
+        return getRate(currencyFrom, currencyTo)
+                .map(CompletableFuture::completedFuture)
+                .orElseGet(() -> refreshAsync(currencyFrom, currencyTo));
+    }
+
+    /**
+     * Fetches the pair from the remote API and stores it. Failures keep the previous entry in place.
+     */
+    public void refresh(Currency currencyFrom, Currency currencyTo) {
+        refreshAsync(currencyFrom, currencyTo).exceptionally(e -> null).join();
+    }
+
+    @Scheduled(initialDelayString = "${exchange.cache.initial-delay:PT0S}",
+            fixedDelayString = "${exchange.cache.refresh-interval:PT5M}")
+    public void refreshAll() {
+        List<CompletableFuture<BigDecimal>> refreshes = new ArrayList<>();
+        for (Currency from : Currency.values()) {
+            for (Currency to : Currency.values()) {
+                if (from != to)
+                    refreshes.add(refreshAsync(from, to).exceptionally(e -> null));
+            }
+        }
+        CompletableFuture.allOf(refreshes.toArray(CompletableFuture[]::new)).join();
+    }
+
+    CompletableFuture<BigDecimal> refreshAsync(Currency currencyFrom, Currency currencyTo) {
+        int pair = Currency.pairIndex(currencyFrom, currencyTo);
+        CompletableFuture<BigDecimal> created = new CompletableFuture<>();
+        while (!inFlight.compareAndSet(pair, null, created)) {
+            CompletableFuture<BigDecimal> existing = inFlight.get(pair);
+            if (Objects.nonNull(existing))
+                return existing;
+        }
+
+        exchangeRateClient.fetchRateAsync(currencyFrom, currencyTo).whenComplete((rate, e) -> {
+            if (Objects.isNull(e)) {
+                rates.set(pair, new CachedRate(rate, clock.instant()));
+            } else {
+                refreshFailures.increment();
+                if (e instanceof ExchangeRateCircuitBreaker.CallNotPermittedException)
+                    log.debug("Not refreshing exchange rate {}: {}", currencyFrom.pairCode(currencyTo), e.getMessage());
+                else
+                    log.warn("Could not refresh exchange rate {}: {}", currencyFrom.pairCode(currencyTo), e.getMessage());
+            }
+            inFlight.compareAndSet(pair, created, null);
+            if (Objects.isNull(e)) {
+                created.complete(rate);
+            } else {
+                created.completeExceptionally(e);
+            }
+        });
+        return created;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindRequests(registry, "hit", hits);
+        bindRequests(registry, "stale", staleHits);
+        bindRequests(registry, "miss", misses);
+        FunctionCounter.builder("exchange.rate.cache.refresh.failures", refreshFailures, LongAdder::sum)
+                .description("Exchange rate refreshes that failed and kept the previous rate")
+                .register(registry);
+    }
+
+    private static void bindRequests(MeterRegistry registry, String result, LongAdder counter) {
+        FunctionCounter.builder("exchange.rate.cache.requests", counter, LongAdder::sum)
+                .description("Exchange rate lookups by whether a fresh, stale or no rate was cached")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getRefreshFailureCount() {
+        return refreshFailures.sum();
+    }
+
+    private record CachedRate(BigDecimal rate, Instant fetchedAt) {
+    }
+}
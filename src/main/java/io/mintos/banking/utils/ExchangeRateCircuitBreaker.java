@@ -0,0 +1,140 @@
+package io.mintos.banking.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mintos.banking.enums.CircuitBreakerState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker in front of the remote exchange API.
+ * <p>
+ * {@code failure-threshold} consecutive failed calls (errors, bad responses or calls over the latency budget) open
+ * the breaker. While it is open every call is rejected at once with {@link CallNotPermittedException}, so callers
+ * fall back to the local rates instead of waiting on the API. After {@code open-duration} the next call is let
+ * through as a probe while all others are still rejected: if it succeeds the breaker closes, otherwise it opens
+ * again for another {@code open-duration}.
+ * <p>
+ * The current state is published as {@code exchange.api.breaker.state} (1 for the current state, 0 otherwise),
+ * state changes as {@code exchange.api.breaker.transitions} and rejected calls as
+ * {@code exchange.api.breaker.rejected}.
+ */
+@Component
+public class ExchangeRateCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRateCircuitBreaker.class);
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private final AtomicReference<CircuitBreakerState> state = new AtomicReference<>(CircuitBreakerState.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile Instant openedAt = Instant.MIN;
+
+    private final Map<CircuitBreakerState, Counter> transitions = new EnumMap<>(CircuitBreakerState.class);
+    private final Counter rejected;
+
+    @Autowired
+    public ExchangeRateCircuitBreaker(@Value("${exchange.breaker.failure-threshold:5}") int failureThreshold,
+                                      @Value("${exchange.breaker.open-duration:PT30S}") Duration openDuration,
+                                      MeterRegistry meterRegistry) {
+        this(failureThreshold, openDuration, meterRegistry, Clock.systemUTC());
+    }
+
+    ExchangeRateCircuitBreaker(int failureThreshold, Duration openDuration, MeterRegistry meterRegistry, Clock clock) {
+        if (failureThreshold < 1)
+            throw new IllegalArgumentException("exchange.breaker.failure-threshold must be positive");
+        this.failureThreshold = failureThreshold;
+        this.openDuration = Objects.requireNonNull(openDuration);
+        this.clock = Objects.requireNonNull(clock);
+        Objects.requireNonNull(meterRegistry);
+        for (CircuitBreakerState s : CircuitBreakerState.values()) {
+            String tag = s.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("exchange.api.breaker.state", state, current -> current.get() == s ? 1 : 0)
+                    .description("1 for the state the exchange API circuit breaker is in, 0 otherwise")
+                    .tag("state", tag)
+                    .register(meterRegistry);
+            transitions.put(s, Counter.builder("exchange.api.breaker.transitions")
+                    .description("Times the exchange API circuit breaker entered the state")
+                    .tag("state", tag)
+                    .register(meterRegistry));
+        }
+        this.rejected = Counter.builder("exchange.api.breaker.rejected")
+                .description("Exchange API calls rejected because the circuit breaker was open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether a call may be made now. A caller that is let through must report the outcome with
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     */
+    public boolean tryAcquire() {
+        CircuitBreakerState current = state.get();
+        if (current == CircuitBreakerState.CLOSED)
+            return true;
+        if (current == CircuitBreakerState.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))
+                && transition(CircuitBreakerState.OPEN, CircuitBreakerState.HALF_OPEN))
+            return true;
+        rejected.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        transition(CircuitBreakerState.HALF_OPEN, CircuitBreakerState.CLOSED);
+    }
+
+    public void onFailure() {
+        if (state.get() == CircuitBreakerState.HALF_OPEN) {
+            open(CircuitBreakerState.HALF_OPEN);
+        } else if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(CircuitBreakerState.CLOSED);
+        }
+    }
+
+    public CircuitBreakerState getState() {
+        return state.get();
+    }
+
+    private void open(CircuitBreakerState from) {
+        openedAt = clock.instant();
+        if (transition(from, CircuitBreakerState.OPEN))
+            log.warn("Exchange API circuit breaker opened, using local rates for {}", openDuration);
+    }
+
+    private boolean transition(CircuitBreakerState from, CircuitBreakerState to) {
+        if (!state.compareAndSet(from, to))
+            return false;
+        if (to == CircuitBreakerState.CLOSED) {
+            consecutiveFailures.set(0);
+            log.info("Exchange API circuit breaker closed");
+        }
+        transitions.get(to).increment();
+        return true;
+    }
+
+    /**
+     * The call was not made because the breaker is open.
+     */
+    public static class CallNotPermittedException extends IOException {
+        public CallNotPermittedException(String message) {
+            super(message);
+        }
+    }
+}
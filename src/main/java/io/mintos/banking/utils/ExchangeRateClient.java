@@ -0,0 +1,114 @@
+package io.mintos.banking.utils;
+
+import com.google.gson.Gson;
+import io.mintos.banking.dto.ExchangeDto;
+import io.mintos.banking.enums.Currency;
+import jakarta.annotation.PreDestroy;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thin client for the remote exchange API. Only used off the request path, by {@link ExchangeRateCache}.
+ * <p>
+ * Every call is cancelled once it exceeds {@code exchange.breaker.call-budget}, and calls go through
+ * {@link ExchangeRateCircuitBreaker}, so a slow API costs at most one budget per call until the breaker opens and
+ * nothing after that.
+ */
+@Component
+public class ExchangeRateClient {
+
+    private final String exchangeRateApiUrl;
+    private final String exchangeKey;
+    private final OkHttpClient client;
+    private final ExchangeRateCircuitBreaker circuitBreaker;
+    private final long callBudgetNanos;
+
+    private final Gson gson = new Gson();
+
+    public ExchangeRateClient(@Value("${exchange.api.url}") String exchangeRateApiUrl,
+                              @Value("${exchange.key}") String exchangeKey,
+                              OkHttpClient client,
+                              ExchangeRateCircuitBreaker circuitBreaker,
+                              @Value("${exchange.breaker.call-budget:PT1S}") Duration callBudget) {
+        this.exchangeRateApiUrl = Objects.requireNonNull(exchangeRateApiUrl);
+        this.exchangeKey = Objects.requireNonNull(exchangeKey);
+        this.client = Objects.requireNonNull(client);
+        this.circuitBreaker = Objects.requireNonNull(circuitBreaker);
+        this.callBudgetNanos = callBudget.toNanos();
+    }
+
+    /**
+     * Fetches the rate for one unit of {@code currencyFrom} expressed in {@code currencyTo}.
+     * The returned future completes exceptionally with an {@link IOException} when the API is unavailable, slower
+     * than the call budget, or when the circuit breaker is open
+     * ({@link ExchangeRateCircuitBreaker.CallNotPermittedException}, without making the call).
+     */
+    public CompletableFuture<BigDecimal> fetchRateAsync(Currency currencyFrom, Currency currencyTo) {
+        String pair = currencyFrom.pairCode(currencyTo);
+        if (!circuitBreaker.tryAcquire())
+            return CompletableFuture.failedFuture(new ExchangeRateCircuitBreaker.CallNotPermittedException(
+                    "Exchange API circuit breaker is open, not fetching " + pair));
+        CompletableFuture<BigDecimal> result = new CompletableFuture<>();
+        Call call = client.newCall(buildRequest(currencyFrom, currencyTo));
+        call.timeout().timeout(callBudgetNanos, TimeUnit.NANOSECONDS);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                circuitBreaker.onFailure();
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                try {
+                    BigDecimal rate = parse(pair, response);
+                    circuitBreaker.onSuccess();
+                    result.complete(rate);
+                } catch (IOException | RuntimeException e) {
+                    circuitBreaker.onFailure();
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    private Request buildRequest(Currency currencyFrom, Currency currencyTo) {
+        return new Request.Builder()
+                .url(exchangeRateApiUrl.concat("?to=").concat(currencyTo.name()).concat("&from=")
+                        .concat(currencyFrom.name()).concat("&amount=1"))
+                .addHeader("apikey", exchangeKey)
+                .get()
+                .build();
+    }
+
+    private BigDecimal parse(String pair, Response response) throws IOException {
+        try (ResponseBody body = response.body()) {
+            if (!response.isSuccessful())
+                throw new IOException("Exchange API responded with status " + response.code());
+            ExchangeDto exchangeDto = gson.fromJson(body.string(), ExchangeDto.class);
+            if (Objects.isNull(exchangeDto) || Objects.isNull(exchangeDto.getResult()))
+                throw new IOException("Exchange API returned no result for " + pair);
+            return exchangeDto.getResult();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+}
@@ -0,0 +1,188 @@
+package io.mintos.banking.utils;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.mintos.banking.domain.ExchangeRate;
+import io.mintos.banking.enums.RateFileFormat;
+import io.mintos.banking.records.ExchangeRateRecord;
+import io.mintos.banking.records.RateLoadResultRecord;
+import io.mintos.banking.repos.ExchangeRateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk-loads exchange rate history into {@code EXCHANGE_RATE}. Files are parsed row by row and inserted in
+ * batches, one transaction per batch, so neither the file nor the persistence context is ever held in memory.
+ * <p>
+ * CSV files start with the header {@value #CSV_HEADER}. JSON files hold either an array of
+ * {@code {"source", "rate", "effectiveFrom"}} objects or the same objects one after another. Rows with a missing
+ * or invalid value are skipped and counted; a file that cannot be parsed at all fails the load.
+ * <p>
+ * When {@code exchange.history.file} is set, that file is loaded once at startup, before the cross-rate matrix is
+ * built, so a cold start has recent rates even when the exchange API is unreachable.
+ */
+@Component
+public class ExchangeRateHistoryLoader {
+
+    static final String CSV_HEADER = "source,rate,effectiveFrom";
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRateHistoryLoader.class);
+    private static final Pattern SOURCE = Pattern.compile("[A-Z]{6}");
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final CrossRateMatrix crossRateMatrix;
+    private final ObjectReader rowReader;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final String historyFile;
+
+    public ExchangeRateHistoryLoader(ExchangeRateRepository exchangeRateRepository,
+                                     CrossRateMatrix crossRateMatrix,
+                                     ObjectMapper objectMapper,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${exchange.history.batch-size:1000}") int batchSize,
+                                     @Value("${exchange.history.file:}") String historyFile) {
+        this.exchangeRateRepository = Objects.requireNonNull(exchangeRateRepository);
+        this.crossRateMatrix = Objects.requireNonNull(crossRateMatrix);
+        this.rowReader = Objects.requireNonNull(objectMapper).readerFor(ExchangeRateRecord.class);
+        this.transactionTemplate = new TransactionTemplate(Objects.requireNonNull(transactionManager));
+        if (batchSize < 1)
+            throw new IllegalArgumentException("exchange.history.batch-size must be positive");
+        this.batchSize = batchSize;
+        this.historyFile = historyFile;
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHistoryFileOnStartup() {
+        if (Objects.isNull(historyFile) || historyFile.isBlank())
+            return;
+        Path path = Path.of(historyFile);
+        if (!Files.isRegularFile(path)) {
+            log.warn("Exchange rate history file {} does not exist", path);
+            return;
+        }
+        try {
+            RateLoadResultRecord result = load(path);
+            log.info("Loaded {} exchange rates from {}, skipped {}", result.loaded(), path, result.skipped());
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not load exchange rate history file {}", path, e);
+        }
+    }
+
+    /**
+     * Loads the file, choosing the format by extension, and rebuilds the cross-rate matrix.
+     */
+    public RateLoadResultRecord load(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            RateLoadResultRecord result = load(in, RateFileFormat.fromFileName(path.getFileName().toString()));
+            crossRateMatrix.rebuild();
+            return result;
+        }
+    }
+
+    /**
+     * Loads rates from the stream. Batches already inserted stay in place if reading fails part way through.
+     */
+    public RateLoadResultRecord load(InputStream in, RateFileFormat format) throws IOException {
+        Batch batch = new Batch();
+        if (format == RateFileFormat.CSV) {
+            readCsv(in, batch);
+        } else {
+            readJson(in, batch);
+        }
+        batch.flush();
+        return new RateLoadResultRecord(batch.loaded, batch.skipped);
+    }
+
+    private void readJson(InputStream in, Batch batch) throws IOException {
+        try (MappingIterator<ExchangeRateRecord> rows = rowReader.readValues(in)) {
+            while (rows.hasNextValue()) {
+                batch.add(rows.nextValue());
+            }
+        }
+    }
+
+    private void readCsv(InputStream in, Batch batch) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (Objects.isNull(header) || !CSV_HEADER.equals(header.strip()))
+            throw new IOException("Expected CSV header '" + CSV_HEADER + "' but found '" + header + "'");
+        String line;
+        while (Objects.nonNull(line = reader.readLine())) {
+            if (line.isBlank())
+                continue;
+            batch.add(parseCsvRow(line));
+        }
+    }
+
+    private static ExchangeRateRecord parseCsvRow(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 3)
+            return null;
+        try {
+            return new ExchangeRateRecord(fields[0].strip(), new BigDecimal(fields[1].strip()),
+                    OffsetDateTime.parse(fields[2].strip()));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean isValid(ExchangeRateRecord row) {
+        return Objects.nonNull(row)
+                && Objects.nonNull(row.source()) && SOURCE.matcher(row.source()).matches()
+                && Objects.nonNull(row.rate()) && row.rate().signum() > 0
+                && Objects.nonNull(row.effectiveFrom());
+    }
+
+    private final class Batch {
+        private final List<ExchangeRate> rows = new ArrayList<>(batchSize);
+        private long loaded;
+        private long skipped;
+
+        void add(ExchangeRateRecord row) {
+            if (!isValid(row)) {
+                skipped++;
+                return;
+            }
+            rows.add(new ExchangeRate()
+                    .setSource(row.source())
+                    .setRate(row.rate())
+                    .setEffectiveFrom(row.effectiveFrom()));
+            if (rows.size() == batchSize)
+                flush();
+        }
+
+        void flush() {
+            if (rows.isEmpty())
+                return;
+            transactionTemplate.executeWithoutResult(status -> exchangeRateRepository.saveAll(rows));
+            loaded += rows.size();
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package io.mintos.banking.utils;
+
+import io.mintos.banking.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in an account's history, encoded for clients as an opaque URL-safe string.
+ * The history is ordered by (timestamp, id) descending, so the cursor is the key of the last row returned.
+ */
+public record HistoryCursor(OffsetDateTime timestamp, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HistoryCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0)
+                throw new InvalidCursorException("Malformed cursor!");
+            return new HistoryCursor(OffsetDateTime.parse(raw.substring(0, separator)),
+                    Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException("Malformed cursor!");
+        }
+    }
+}
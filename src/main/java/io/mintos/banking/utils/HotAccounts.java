@@ -0,0 +1,189 @@
+package io.mintos.banking.utils;
+
+import io.mintos.banking.domain.Account;
+import io.mintos.banking.domain.BalanceSlot;
+import io.mintos.banking.enums.ConcurrencyMode;
+import io.mintos.banking.repos.AccountRepository;
+import io.mintos.banking.repos.BalanceSlotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Striped balances for designated hot accounts, such as a settlement account that receives most transfers.
+ * <p>
+ * A hot account's balance is its {@link Account} row plus {@code slots} {@link BalanceSlot} rows. A credit adds to
+ * one random slot with a single update, so concurrent transfers to the account lock different rows and never the
+ * account row. Debits are taken from the account row; when it does not cover a debit, the slots are swept into it
+ * first. Slots locked by credits still in flight are skipped rather than waited for, so a debit that only they
+ * could cover is rejected, as it would have been a moment earlier. A scheduled rebalance sweeps every hot account,
+ * so the account row usually covers debits on its own. Client account reads add the slots to the account row, so
+ * the balances they return are the combined ones.
+ * <p>
+ * A transfer credits the receiver's slot before it sweeps the sender's, and sweeps never wait for a lock, so a
+ * transfer only ever waits for a slot while holding no other lock and striped transfers cannot deadlock.
+ * <p>
+ * Striping applies in {@link ConcurrencyMode#OPTIMISTIC} and {@link ConcurrencyMode#LOCKING} mode. Ledger mode
+ * does not write account rows in the first place; whatever slots still hold is swept at startup in every mode.
+ */
+@Component
+public class HotAccounts {
+
+    private static final Logger log = LoggerFactory.getLogger(HotAccounts.class);
+
+    private final BalanceSlotRepository balanceSlotRepository;
+    private final AccountRepository accountRepository;
+    private final AccountLocks accountLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final Set<String> accountNumbers;
+    private final int slotCount;
+
+    private final Set<String> provisioned = ConcurrentHashMap.newKeySet();
+
+    public HotAccounts(BalanceSlotRepository balanceSlotRepository, AccountRepository accountRepository,
+                       AccountLocks accountLocks, PlatformTransactionManager transactionManager,
+                       @Value("${banking.hot-accounts.account-numbers:}") Set<String> accountNumbers,
+                       @Value("${banking.hot-accounts.slots:8}") int slotCount,
+                       @Value("${banking.transfer.concurrency-mode:OPTIMISTIC}") ConcurrencyMode concurrencyMode) {
+        if (slotCount < 1)
+            throw new IllegalArgumentException("banking.hot-accounts.slots must be positive");
+        this.balanceSlotRepository = Objects.requireNonNull(balanceSlotRepository);
+        this.accountRepository = Objects.requireNonNull(accountRepository);
+        this.accountLocks = Objects.requireNonNull(accountLocks);
+        this.transactionTemplate = new TransactionTemplate(Objects.requireNonNull(transactionManager));
+        this.slotCount = slotCount;
+        if (concurrencyMode == ConcurrencyMode.LEDGER && !accountNumbers.isEmpty()) {
+            log.warn("banking.hot-accounts is ignored in {} mode", concurrencyMode);
+            this.accountNumbers = Set.of();
+        } else {
+            this.accountNumbers = Set.copyOf(accountNumbers);
+        }
+    }
+
+    public boolean isHot(String accountNumber) {
+        return accountNumbers.contains(accountNumber);
+    }
+
+    /**
+     * Creates the slots of a hot account that does not have them yet. Runs in a transaction of its own, so it
+     * must be called before the transfer's transaction begins.
+     */
+    public void provision(String accountNumber) {
+        if (!isHot(accountNumber) || provisioned.contains(accountNumber))
+            return;
+        try {
+            Boolean exists = transactionTemplate.execute(status -> {
+                if (!accountRepository.existsByAccountNumber(accountNumber))
+                    return false;
+                Set<Integer> existing = new HashSet<>();
+                balanceSlotRepository.findAllByAccountNumber(accountNumber).forEach(slot -> existing.add(slot.getSlot()));
+                List<BalanceSlot> missing = new ArrayList<>();
+                for (int slot = 1; slot <= slotCount; slot++) {
+                    if (!existing.contains(slot))
+                        missing.add(new BalanceSlot().setAccountNumber(accountNumber).setSlot(slot).setBalance(BigDecimal.ZERO));
+                }
+                balanceSlotRepository.saveAll(missing);
+                return true;
+            });
+            if (Boolean.TRUE.equals(exists))
+                provisioned.add(accountNumber);
+        } catch (DataIntegrityViolationException e) {
+            // another transfer created them first
+            provisioned.add(accountNumber);
+        }
+    }
+
+    /**
+     * Adds the amount to a random slot of the account and returns the slot with the account's balance as this
+     * transaction sees it: the account row as read plus the committed slots and this credit. Must run in the
+     * transfer's transaction before anything else in it takes a lock.
+     */
+    public Credit credit(Account account, BigDecimal amount) {
+        int slot = ThreadLocalRandom.current().nextInt(1, slotCount + 1);
+        if (balanceSlotRepository.credit(account.getAccountNumber(), slot, amount) == 0)
+            throw new IllegalStateException("Balance slot " + slot + " of account " + account.getAccountNumber() + " is missing");
+        return new Credit(slot, balanceOf(account));
+    }
+
+    /**
+     * The account row as read plus the committed slots.
+     */
+    public BigDecimal balanceOf(Account account) {
+        return account.getBalance().add(balanceSlotRepository.sumByAccountNumber(account.getAccountNumber()));
+    }
+
+    /**
+     * Moves what the account's slots hold into the account row, skipping slots that another transaction has
+     * locked. The caller writes the account in the same transaction.
+     */
+    public void sweep(Account account) {
+        BigDecimal swept = BigDecimal.ZERO;
+        for (BalanceSlot slot : balanceSlotRepository.lockFundedSkippingLocked(account.getAccountNumber())) {
+            swept = swept.add(slot.getBalance());
+            slot.setBalance(BigDecimal.ZERO);
+        }
+        account.setBalance(account.getBalance().add(swept));
+    }
+
+    /**
+     * Sweeps every hot account, each under its account lock and in a transaction of its own.
+     */
+    @Scheduled(initialDelayString = "${banking.hot-accounts.rebalance-interval:PT10S}",
+            fixedDelayString = "${banking.hot-accounts.rebalance-interval:PT10S}")
+    public void rebalance() {
+        rebalance(accountNumbers);
+    }
+
+    /**
+     * Sweeps the slots of every account that has money in them, including accounts that are no longer hot or
+     * were striped before switching to ledger mode, whose debits would not see the slots otherwise.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void sweepAll() {
+        rebalance(balanceSlotRepository.findFundedAccountNumbers());
+    }
+
+    private void rebalance(Collection<String> accountNumbers) {
+        for (String accountNumber : accountNumbers) {
+            try {
+                accountLocks.withLocks(accountNumber, accountNumber, () -> transactionTemplate.execute(status -> {
+                    Account account = accountRepository.getAccountByAccountNumber(accountNumber);
+                    if (Objects.nonNull(account)) {
+                        sweep(account);
+                        accountRepository.save(account);
+                    }
+                    return null;
+                }));
+            } catch (ConcurrencyFailureException e) {
+                // a transfer changed the account meanwhile; the next rebalance tries again
+                log.debug("Could not rebalance hot account {}: {}", accountNumber, e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("Could not rebalance hot account {}: {}", accountNumber, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A credit to balance slot {@code slot}; {@code balance} is the account's combined balance after it.
+     */
+    public record Credit(int slot, BigDecimal balance) {
+    }
+}
@@ -0,0 +1,190 @@
+package io.mintos.banking.utils;
+
+import io.mintos.banking.domain.Account;
+import io.mintos.banking.domain.Transactions;
+import io.mintos.banking.exception.AccountNotFoundException;
+import io.mintos.banking.repos.AccountRepository;
+import io.mintos.banking.repos.TransactionsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Account balances for {@link io.mintos.banking.enums.ConcurrencyMode#LEDGER} mode, where transfers append
+ * postings and never update the account row.
+ * <p>
+ * An account's balance is its checkpointed snapshot ({@link Account#getBalance()} as of
+ * {@link Account#getLedgerPosition()}) plus the postings appended since. The sum is kept in memory once an
+ * account has been loaded, so reads are a single map lookup. Checkpoints periodically write the current
+ * balance back to the account row and advance its ledger position; a restart rebuilds the tail from the
+ * postings after that position.
+ * <p>
+ * Loading, posting and checkpointing an account happen under its {@link AccountLocks} stripe, so they never
+ * interleave for the same account. Reads take no lock once the account is loaded.
+ * <p>
+ * With the {@link TransactionJournal} enabled, postings are applied as soon as they are durable in the journal
+ * and reach the database later, so the journal is flushed before a balance is loaded or checkpointed.
+ */
+@Component
+public class LedgerBalances {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerBalances.class);
+
+    private final AccountRepository accountRepository;
+    private final TransactionsRepository transactionsRepository;
+    private final AccountLocks accountLocks;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionJournal transactionJournal;
+
+    private final Map<String, LedgerBalance> balances = new ConcurrentHashMap<>();
+
+    public LedgerBalances(AccountRepository accountRepository, TransactionsRepository transactionsRepository,
+                          AccountLocks accountLocks, PlatformTransactionManager transactionManager,
+                          TransactionJournal transactionJournal) {
+        this.accountRepository = Objects.requireNonNull(accountRepository);
+        this.transactionsRepository = Objects.requireNonNull(transactionsRepository);
+        this.accountLocks = Objects.requireNonNull(accountLocks);
+        this.transactionTemplate = new TransactionTemplate(Objects.requireNonNull(transactionManager));
+        this.transactionJournal = Objects.requireNonNull(transactionJournal);
+    }
+
+    /**
+     * Returns the current balance of the account, loading it from its checkpoint if needed.
+     */
+    public BigDecimal balanceOf(String accountNumber) {
+        LedgerBalance balance = balances.get(accountNumber);
+        if (Objects.nonNull(balance))
+            return balance.balance();
+        return accountLocks.withLocks(accountNumber, accountNumber, () -> {
+            Account account = accountRepository.getAccountByAccountNumber(accountNumber);
+            if (Objects.isNull(account))
+                throw new AccountNotFoundException("Account " + accountNumber + " does not exist!");
+            return balanceOf(account);
+        });
+    }
+
+    /**
+     * Same as {@link #balanceOf(String)} for an account that was just read. The caller must hold the account's
+     * lock.
+     */
+    public BigDecimal balanceOf(Account account) {
+        LedgerBalance balance = balances.get(account.getAccountNumber());
+        if (Objects.isNull(balance)) {
+            balance = load(account);
+            balances.put(account.getAccountNumber(), balance);
+        }
+        return balance.balance();
+    }
+
+    /**
+     * Applies committed (or journaled) postings, in order. Each posting carries the balance it left its account
+     * with. The caller must hold the locks of the accounts involved.
+     */
+    public void posted(Collection<Transactions> postings) {
+        boolean journaled = transactionJournal.isEnabled();
+        for (Transactions posting : postings) {
+            // a journaled posting gets its id when it is flushed, possibly in an attempt that is rolled back
+            Long postingId = journaled ? null : posting.getId();
+            balances.computeIfPresent(posting.getAccountNumber(),
+                    (accountNumber, balance) -> balance.append(posting.getBalance(), postingId));
+        }
+    }
+
+    /**
+     * Writes every balance with postings after its last checkpoint back to its account row.
+     */
+    @Scheduled(initialDelayString = "${banking.ledger.checkpoint-interval:PT1M}",
+            fixedDelayString = "${banking.ledger.checkpoint-interval:PT1M}")
+    @PreDestroy
+    public void checkpoint() {
+        for (String accountNumber : balances.keySet()) {
+            try {
+                accountLocks.withLocks(accountNumber, accountNumber, () -> checkpoint(accountNumber));
+            } catch (RuntimeException e) {
+                log.warn("Could not checkpoint the balance of account {}: {}", accountNumber, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Checkpoints the account and drops its in-memory balance; the next access reloads it from the database.
+     */
+    public void evict(String accountNumber) {
+        accountLocks.withLocks(accountNumber, accountNumber, () -> {
+            checkpoint(accountNumber);
+            return balances.remove(accountNumber);
+        });
+    }
+
+    private LedgerBalance checkpoint(String accountNumber) {
+        LedgerBalance current = balances.get(accountNumber);
+        if (Objects.isNull(current) || !current.hasTail())
+            return current;
+        LedgerBalance balance;
+        if (current.unflushed()) {
+            transactionJournal.flush();
+            balance = current.flushed(transactionsRepository.findLastIdByAccountNumber(accountNumber));
+        } else {
+            balance = current;
+        }
+        transactionTemplate.executeWithoutResult(status -> accountRepository.checkpointBalance(accountNumber,
+                balance.balance(), balance.lastPostingId()));
+        LedgerBalance checkpointed = balance.checkpointed();
+        balances.put(accountNumber, checkpointed);
+        return checkpointed;
+    }
+
+    private LedgerBalance load(Account account) {
+        String accountNumber = account.getAccountNumber();
+        Long position = account.getLedgerPosition();
+        // the tail is read from the database, so it must not be missing postings still in the journal
+        transactionJournal.flush();
+        if (Objects.isNull(position)) {
+            // first use in ledger mode: the balance already includes every posting made so far
+            Long lastId = transactionsRepository.findLastIdByAccountNumber(accountNumber);
+            Long initial = Objects.isNull(lastId) ? 0L : lastId;
+            transactionTemplate.executeWithoutResult(status ->
+                    accountRepository.initLedgerPosition(accountNumber, initial));
+            return new LedgerBalance(account.getBalance(), initial, initial, false);
+        }
+        BigDecimal tail = transactionsRepository.sumPostingsAfter(accountNumber, position);
+        Long lastId = transactionsRepository.findLastIdByAccountNumber(accountNumber);
+        return new LedgerBalance(account.getBalance().add(tail), position,
+                Objects.isNull(lastId) ? position : Math.max(lastId, position), false);
+    }
+
+    /**
+     * {@code unflushed} marks postings applied from the journal whose ids are not known yet.
+     */
+    private record LedgerBalance(BigDecimal balance, long position, long lastPostingId, boolean unflushed) {
+
+        boolean hasTail() {
+            return unflushed || lastPostingId > position;
+        }
+
+        LedgerBalance append(BigDecimal newBalance, Long postingId) {
+            if (Objects.isNull(postingId))
+                return new LedgerBalance(newBalance, position, lastPostingId, true);
+            return new LedgerBalance(newBalance, position, Math.max(lastPostingId, postingId), unflushed);
+        }
+
+        LedgerBalance flushed(Long lastId) {
+            return new LedgerBalance(balance, position,
+                    Objects.isNull(lastId) ? lastPostingId : Math.max(lastPostingId, lastId), false);
+        }
+
+        LedgerBalance checkpointed() {
+            return new LedgerBalance(balance, lastPostingId, lastPostingId, false);
+        }
+    }
+}
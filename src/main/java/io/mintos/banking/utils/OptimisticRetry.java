@@ -0,0 +1,79 @@
+package io.mintos.banking.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs an action that failed on a version conflict, with capped exponential backoff and full jitter.
+ * The action must be a complete transaction, so each attempt re-reads the rows it changes.
+ */
+@Component
+public class OptimisticRetry {
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    private final Counter attempts;
+    private final Counter conflicts;
+    private final Counter exhausted;
+    private final DistributionSummary attemptsPerCall;
+
+    public OptimisticRetry(@Value("${banking.transfer.retry.max-attempts:5}") int maxAttempts,
+                           @Value("${banking.transfer.retry.initial-backoff:PT0.005S}") Duration initialBackoff,
+                           @Value("${banking.transfer.retry.max-backoff:PT0.2S}") Duration maxBackoff,
+                           MeterRegistry meterRegistry) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("banking.transfer.retry.max-attempts must be positive");
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        Objects.requireNonNull(meterRegistry);
+        this.attempts = Counter.builder("banking.transfer.attempts")
+                .description("Transfer transaction attempts, including retries")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("banking.transfer.conflicts")
+                .description("Transfer attempts rolled back because of a concurrent update")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("banking.transfer.retries.exhausted")
+                .description("Transfers that still conflicted after the last attempt")
+                .register(meterRegistry);
+        this.attemptsPerCall = DistributionSummary.builder("banking.transfer.attempts.per.transfer")
+                .description("Attempts needed per transfer")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            attempts.increment();
+            try {
+                T result = action.get();
+                attemptsPerCall.record(attempt);
+                return result;
+            } catch (ConcurrencyFailureException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    attemptsPerCall.record(attempt);
+                    throw e;
+                }
+                LockSupport.parkNanos(backoffNanos(attempt));
+            }
+        }
+    }
+
+    long backoffNanos(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
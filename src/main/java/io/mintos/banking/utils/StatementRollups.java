@@ -0,0 +1,135 @@
+package io.mintos.banking.utils;
+
+import io.mintos.banking.domain.StatementRollup;
+import io.mintos.banking.domain.Transactions;
+import io.mintos.banking.enums.StatementPeriod;
+import io.mintos.banking.enums.TransactionFlow;
+import io.mintos.banking.records.StatementPeriodRecord;
+import io.mintos.banking.repos.StatementRollupRepository;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Daily statement totals per account, kept up to date by every transfer so that a statement summary reads one
+ * {@link StatementRollup} row per day with postings instead of the postings themselves. Days are UTC days.
+ * Monthly totals, and the totals of days that hot account credits spread over several slots, are added up from
+ * the daily rows when they are read.
+ */
+@Component
+public class StatementRollups {
+
+    private final StatementRollupRepository statementRollupRepository;
+
+    public StatementRollups(StatementRollupRepository statementRollupRepository) {
+        this.statementRollupRepository = Objects.requireNonNull(statementRollupRepository);
+    }
+
+    /**
+     * Adds the postings, in the order they were made, to their accounts' daily totals. Must run in the
+     * transaction that writes the postings, while no other transfer can change the same accounts: the pending
+     * changes are flushed first, so an optimistic transfer has updated (and locked) its account rows, or failed
+     * its version check, before the totals are read.
+     */
+    public void record(Collection<Transactions> postings) {
+        record(postings, 0);
+    }
+
+    /**
+     * Same as {@link #record(Collection)} for credits to a hot account's balance slot, which are added to that
+     * slot's daily totals. The transaction must hold the slot's lock instead of the account's.
+     */
+    public void record(Collection<Transactions> postings, int slot) {
+        if (postings.isEmpty())
+            return;
+        statementRollupRepository.flush();
+        Map<DayKey, DayDelta> deltas = new LinkedHashMap<>();
+        Set<String> accountNumbers = new HashSet<>();
+        Set<LocalDate> bookingDates = new HashSet<>();
+        for (Transactions posting : postings) {
+            DayKey key = new DayKey(posting.getAccountNumber(), bookingDate(posting.getTimestamp()));
+            deltas.computeIfAbsent(key, k -> new DayDelta()).add(posting);
+            accountNumbers.add(key.accountNumber());
+            bookingDates.add(key.bookingDate());
+        }
+        Map<DayKey, StatementRollup> existing = new HashMap<>();
+        statementRollupRepository.findAllByAccountNumberInAndBookingDateInAndSlot(accountNumbers, bookingDates, slot)
+                .forEach(rollup -> existing.put(new DayKey(rollup.getAccountNumber(), rollup.getBookingDate()), rollup));
+        List<StatementRollup> changed = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            StatementRollup rollup = existing.get(key);
+            if (Objects.isNull(rollup))
+                rollup = new StatementRollup()
+                        .setAccountNumber(key.accountNumber())
+                        .setBookingDate(key.bookingDate())
+                        .setSlot(slot)
+                        .setIncoming(BigDecimal.ZERO)
+                        .setOutgoing(BigDecimal.ZERO);
+            changed.add(rollup
+                    .setIncoming(rollup.getIncoming().add(delta.incoming))
+                    .setOutgoing(rollup.getOutgoing().add(delta.outgoing))
+                    .setClosingBalance(delta.closingBalance)
+                    .setClosedAt(delta.closedAt));
+        });
+        statementRollupRepository.saveAll(changed);
+    }
+
+    /**
+     * Returns the account's totals per day or month between the two dates, inclusive, oldest first. Periods
+     * without postings are left out; their closing balance is that of the period before.
+     */
+    public List<StatementPeriodRecord> summarize(String accountNumber, StatementPeriod period, LocalDate from,
+                                                 LocalDate to) {
+        List<StatementPeriodRecord> periods = new ArrayList<>();
+        StatementPeriodRecord current = null;
+        for (StatementPeriodRecord row : statementRollupRepository.findDays(accountNumber, from, to)) {
+            LocalDate periodStart = period == StatementPeriod.MONTH ? row.periodStart().withDayOfMonth(1) : row.periodStart();
+            if (Objects.nonNull(current) && current.periodStart().equals(periodStart)) {
+                current = new StatementPeriodRecord(periodStart, current.incoming().add(row.incoming()),
+                        current.outgoing().add(row.outgoing()), row.closingBalance());
+            } else {
+                if (Objects.nonNull(current))
+                    periods.add(current);
+                current = new StatementPeriodRecord(periodStart, row.incoming(), row.outgoing(), row.closingBalance());
+            }
+        }
+        if (Objects.nonNull(current))
+            periods.add(current);
+        return periods;
+    }
+
+    static LocalDate bookingDate(OffsetDateTime timestamp) {
+        return timestamp.atZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private record DayKey(String accountNumber, LocalDate bookingDate) {
+    }
+
+    private static final class DayDelta {
+        private BigDecimal incoming = BigDecimal.ZERO;
+        private BigDecimal outgoing = BigDecimal.ZERO;
+        private BigDecimal closingBalance;
+        private OffsetDateTime closedAt;
+
+        void add(Transactions posting) {
+            if (posting.getTransactionFlow() == TransactionFlow.INCOMING)
+                incoming = incoming.add(posting.getAmount());
+            else
+                outgoing = outgoing.add(posting.getAmount());
+            closingBalance = posting.getBalance();
+            closedAt = posting.getTimestamp();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.mintos.banking.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.mintos.banking.enums.ExportFormat;
+import io.mintos.banking.records.TransactionsRecord;
+import io.mintos.banking.services.BankingService;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Writes an account's full history to a stream row by row, as NDJSON or CSV. Rows are serialized as they
+ * arrive from the database cursor, so memory use does not grow with the length of the history.
+ */
+@Component
+public class TransactionHistoryExporter {
+
+    static final String CSV_HEADER = "accountNumber,balance,amount,currency,timestamp,transactionFlow";
+    private static final int FLUSH_EVERY_ROWS = 500;
+
+    private final BankingService bankingService;
+    private final ObjectWriter rowWriter;
+
+    public TransactionHistoryExporter(BankingService bankingService, ObjectMapper objectMapper) {
+        this.bankingService = Objects.requireNonNull(bankingService);
+        this.rowWriter = Objects.requireNonNull(objectMapper).writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void export(String accountNumber, ExportFormat format, OutputStream out) throws IOException {
+        try {
+            if (format == ExportFormat.CSV) {
+                writeCsv(accountNumber, out);
+            } else {
+                writeNdjson(accountNumber, out);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeNdjson(String accountNumber, OutputStream out) throws IOException {
+        try (JsonGenerator generator = rowWriter.createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .setRootValueSeparator(null)) {
+            RowCounter rows = new RowCounter();
+            bankingService.streamTransactionHistory(accountNumber, transaction -> {
+                try {
+                    rowWriter.writeValue(generator, transaction);
+                    generator.writeRaw('\n');
+                    if (rows.next())
+                        generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void writeCsv(String accountNumber, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        RowCounter rows = new RowCounter();
+        bankingService.streamTransactionHistory(accountNumber, transaction -> {
+            try {
+                writeCsvRow(writer, transaction);
+                if (rows.next())
+                    writer.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private static void writeCsvRow(Writer writer, TransactionsRecord transaction) throws IOException {
+        writer.write(csvField(transaction.accountNumber()));
+        writer.write(',');
+        writer.write(csvField(transaction.balance()));
+        writer.write(',');
+        writer.write(csvField(transaction.amount()));
+        writer.write(',');
+        writer.write(csvField(transaction.currency()));
+        writer.write(',');
+        writer.write(csvField(transaction.timestamp()));
+        writer.write(',');
+        writer.write(csvField(transaction.transactionFlow()));
+        writer.write('\n');
+    }
+
+    private static String csvField(Object value) {
+        if (Objects.isNull(value))
+            return "";
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0)
+            return text;
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private static final class RowCounter {
+        private int count;
+
+        boolean next() {
+            return ++count % FLUSH_EVERY_ROWS == 0;
+        }
+    }
+}
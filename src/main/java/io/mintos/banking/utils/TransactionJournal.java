@@ -0,0 +1,486 @@
+package io.mintos.banking.utils;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mintos.banking.domain.Transactions;
+import io.mintos.banking.enums.ConcurrencyMode;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.TransactionFlow;
+import io.mintos.banking.repos.TransactionsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-behind journal for the postings of {@link ConcurrencyMode#LEDGER} mode, enabled with
+ * {@code banking.journal.enabled}.
+ * <p>
+ * Transfers append their postings to a memory-mapped journal segment and return once they are on disk; a
+ * background flusher writes them to the {@code transactions} table (and the statement rollups) in bulk later.
+ * Concurrent transfers share fsyncs: whoever finds no sync in progress forces the segment for everything appended
+ * so far, and the others wait for it. Ledger balances include the postings as soon as they are durable here.
+ * <p>
+ * The postings appended together are one record ({@code length, CRC32C, first sequence number, postings}), so a
+ * transfer is replayed whole or not at all. A zero length ends a segment and a record whose checksum does not
+ * match, a write torn by a crash, ends replay. Every posting keeps its sequence number in the table, so on startup
+ * the journal is replayed from the highest one stored and nothing acknowledged is lost or written twice. Segments
+ * roll over at {@code segment-size} and are deleted once everything in them has been flushed.
+ * <p>
+ * Appends, syncs and flushes are serialized by {@link ReentrantLock}s rather than monitors, so transfers waiting
+ * for a sync on virtual threads do not pin their carriers. If a sync or a roll-over fails the journal stops taking
+ * appends, since what reached the disk is no longer known; a restart replays whatever did.
+ */
+@Component
+public class TransactionJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionJournal.class);
+    /** Payload length, CRC32C and first sequence number. */
+    private static final int HEADER_BYTES = Integer.BYTES * 2 + Long.BYTES;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final TransactionsRepository transactionsRepository;
+    private final StatementRollups statementRollups;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration flushInterval;
+    private final int flushBatchSize;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final Deque<SealedSegment> sealed = new ArrayDeque<>();
+
+    private long lastSequence;
+    private boolean syncing;
+    private volatile Segment active;
+    private volatile long appendedSequence;
+    private volatile long durableSequence;
+    private volatile long flushedSequence;
+    private volatile RuntimeException failure;
+    private ScheduledExecutorService flusher;
+
+    private final Timer syncDuration;
+    private final DistributionSummary syncSize;
+
+    public TransactionJournal(TransactionsRepository transactionsRepository, StatementRollups statementRollups,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${banking.journal.enabled:false}") boolean enabled,
+                              @Value("${banking.journal.directory:journal}") Path directory,
+                              @Value("${banking.journal.segment-size:64MB}") DataSize segmentSize,
+                              @Value("${banking.journal.flush-interval:PT0.2S}") Duration flushInterval,
+                              @Value("${banking.journal.flush-batch-size:1000}") int flushBatchSize,
+                              @Value("${banking.transfer.concurrency-mode:OPTIMISTIC}") ConcurrencyMode concurrencyMode,
+                              MeterRegistry meterRegistry) {
+        if (enabled && concurrencyMode != ConcurrencyMode.LEDGER)
+            throw new IllegalArgumentException("banking.journal.enabled requires banking.transfer.concurrency-mode LEDGER");
+        if (segmentSize.toBytes() <= HEADER_BYTES || segmentSize.toBytes() > Integer.MAX_VALUE || flushBatchSize < 1)
+            throw new IllegalArgumentException("banking.journal.segment-size must be below 2GB and flush-batch-size "
+                    + "must be positive");
+        this.transactionsRepository = Objects.requireNonNull(transactionsRepository);
+        this.statementRollups = Objects.requireNonNull(statementRollups);
+        this.transactionTemplate = new TransactionTemplate(Objects.requireNonNull(transactionManager));
+        this.enabled = enabled;
+        this.directory = Objects.requireNonNull(directory);
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.flushInterval = Objects.requireNonNull(flushInterval);
+        this.flushBatchSize = flushBatchSize;
+
+        Objects.requireNonNull(meterRegistry);
+        Gauge.builder("banking.journal.unflushed", this, journal -> journal.appendedSequence - journal.flushedSequence)
+                .description("Postings appended to the journal but not yet written to the database")
+                .register(meterRegistry);
+        this.syncDuration = Timer.builder("banking.journal.sync")
+                .description("Time to force a journal segment to disk")
+                .register(meterRegistry);
+        this.syncSize = DistributionSummary.builder("banking.journal.sync.size")
+                .description("Postings made durable by one sync")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replays the postings that the journal holds but the database does not, then starts a fresh segment.
+     */
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled)
+            return;
+        Files.createDirectories(directory);
+        Long stored = transactionsRepository.findLastJournalSequence();
+        long flushed = Objects.isNull(stored) ? 0 : stored;
+        long last = flushed;
+        List<Path> files = segmentFiles();
+        for (Path file : files) {
+            last = Math.max(last, replay(file, flushed));
+        }
+        int replayed = pending.size();
+        flushedSequence = flushed;
+        lastSequence = last;
+        appendedSequence = last;
+        durableSequence = last;
+        flush();
+        if (replayed > 0)
+            log.info("Replayed {} postings from the transaction journal", replayed);
+        for (Path file : files) {
+            Files.delete(file);
+        }
+        active = openSegment(last + 1);
+        flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("journal-flusher").factory());
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the flusher and writes what is left to the database.
+     */
+    @PreDestroy
+    void close() throws InterruptedException {
+        if (!enabled)
+            return;
+        flusher.shutdown();
+        if (!flusher.awaitTermination(30, TimeUnit.SECONDS))
+            log.warn("Journal flusher did not finish within 30s");
+        flushQuietly();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends the postings as one record and returns the sequence number of the last one, or 0 if there are none.
+     * They are not durable until {@link #awaitDurable(long)} returns for that number.
+     *
+     * @throws IllegalStateException when an earlier sync failed
+     */
+    public long append(Collection<Transactions> postings) {
+        if (postings.isEmpty())
+            return 0;
+        byte[] payload = encode(postings);
+        appendLock.lock();
+        try {
+            if (Objects.nonNull(failure))
+                throw unavailable();
+            long first = lastSequence + 1;
+            write(first, payload);
+            for (Transactions posting : postings) {
+                pending.add(new Entry(++lastSequence, posting));
+            }
+            appendedSequence = lastSequence;
+            return lastSequence;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until everything up to the sequence number is on disk, forcing the segment unless another thread is
+     * already doing so.
+     *
+     * @throws IllegalStateException when the sync fails
+     */
+    public void awaitDurable(long sequence) {
+        syncLock.lock();
+        try {
+            while (durableSequence < sequence) {
+                if (Objects.nonNull(failure))
+                    throw unavailable();
+                if (syncing) {
+                    synced.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                // read before the segment: whatever is appended up to the target is in it or in a forced one
+                long target = appendedSequence;
+                Segment segment = active;
+                syncLock.unlock();
+                boolean forced = false;
+                try {
+                    long startedAt = System.nanoTime();
+                    segment.buffer().force();
+                    syncDuration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    forced = true;
+                } catch (RuntimeException e) {
+                    log.error("Could not sync the transaction journal, no more transfers are accepted", e);
+                    failure = e;
+                } finally {
+                    syncLock.lock();
+                    syncing = false;
+                    if (forced && target > durableSequence) {
+                        syncSize.record(target - durableSequence);
+                        durableSequence = target;
+                    }
+                    synced.signalAll();
+                }
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Writes every durable posting that has not been written yet to the database, in transactions of up to
+     * {@code flush-batch-size} postings. Does nothing if the journal is disabled.
+     */
+    public void flush() {
+        if (!enabled)
+            return;
+        flushLock.lock();
+        try {
+            long durable = durableSequence;
+            while (flushBatch(durable)) {
+                // until everything durable when the flush started is written
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        deleteFlushedSegments();
+    }
+
+    private boolean flushBatch(long durable) {
+        List<Transactions> postings = new ArrayList<>();
+        long last = flushedSequence;
+        for (Entry entry : pending) {
+            if (entry.sequence() > durable || postings.size() == flushBatchSize)
+                break;
+            postings.add(entry.posting().setJournalSequence(entry.sequence()));
+            last = entry.sequence();
+        }
+        if (postings.isEmpty())
+            return false;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                transactionsRepository.saveAll(postings);
+                statementRollups.record(postings);
+            });
+        } catch (RuntimeException e) {
+            // the ids handed out by the failed attempt were never written
+            postings.forEach(posting -> posting.setId(null));
+            throw e;
+        }
+        for (int i = 0; i < postings.size(); i++) {
+            pending.poll();
+        }
+        flushedSequence = last;
+        return true;
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not flush the transaction journal: {}", e.getMessage());
+        }
+    }
+
+    private void write(long first, byte[] payload) {
+        int length = HEADER_BYTES + payload.length;
+        if (length > segmentSize)
+            throw new IllegalArgumentException("A journal record of " + length + " bytes does not fit a segment of "
+                    + segmentSize + " bytes");
+        if (active.buffer().remaining() < length)
+            roll(first);
+        active.buffer()
+                .putInt(payload.length)
+                .putInt(checksum(first, payload))
+                .putLong(first)
+                .put(payload);
+    }
+
+    /**
+     * Forces the full segment and continues in a new one starting at the given sequence number.
+     */
+    private void roll(long first) {
+        Segment full = active;
+        try {
+            full.buffer().force();
+        } catch (RuntimeException e) {
+            failure = e;
+            throw unavailable();
+        }
+        try {
+            active = openSegment(first);
+        } catch (IOException e) {
+            // the full segment stays active, so nothing more can be appended to it
+            log.error("Could not roll the transaction journal over, no more transfers are accepted", e);
+            failure = new UncheckedIOException(e);
+            throw unavailable();
+        }
+        sealed.add(new SealedSegment(full, first - 1));
+    }
+
+    private void deleteFlushedSegments() {
+        appendLock.lock();
+        try {
+            while (!sealed.isEmpty() && sealed.peek().lastSequence() <= flushedSequence) {
+                Segment segment = sealed.poll().segment();
+                try {
+                    segment.channel().close();
+                    Files.deleteIfExists(segment.path());
+                } catch (IOException e) {
+                    log.warn("Could not delete journal segment {}: {}", segment.path(), e.getMessage());
+                }
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private Segment openSegment(long first) throws IOException {
+        Path path = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, first, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        return new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Queues the segment's postings after {@code flushed} and returns the last sequence number in it, or 0.
+     */
+    private long replay(Path file, long flushed) throws IOException {
+        long last = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining() - Integer.BYTES - Long.BYTES)
+                    break;
+                int checksum = buffer.getInt();
+                long first = buffer.getLong();
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                if (checksum != checksum(first, payload)) {
+                    log.warn("Journal segment {} ends in a torn record at sequence {}", file.getFileName(), first);
+                    break;
+                }
+                long sequence = first;
+                for (Transactions posting : decode(payload)) {
+                    if (sequence > flushed)
+                        pending.add(new Entry(sequence, posting));
+                    last = sequence++;
+                }
+            }
+        }
+        return last;
+    }
+
+    private IllegalStateException unavailable() {
+        return new IllegalStateException("The transaction journal could not be written; restart to replay it", failure);
+    }
+
+    private static int checksum(long first, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, first));
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(Collection<Transactions> postings) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * postings.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(postings.size());
+            for (Transactions posting : postings) {
+                out.writeUTF(posting.getAccountNumber());
+                out.writeUTF(posting.getBalance().toPlainString());
+                out.writeUTF(posting.getAmount().toPlainString());
+                out.writeUTF(Objects.isNull(posting.getCurrency()) ? "" : posting.getCurrency().name());
+                out.writeUTF(posting.getTransactionFlow().name());
+                out.writeLong(posting.getTimestamp().toEpochSecond());
+                out.writeInt(posting.getTimestamp().getNano());
+                out.writeInt(posting.getTimestamp().getOffset().getTotalSeconds());
+                out.writeUTF(Objects.isNull(posting.getExchangeRate()) ? "" : posting.getExchangeRate().toPlainString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Transactions> decode(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int count = in.readInt();
+            List<Transactions> postings = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Transactions posting = new Transactions()
+                        .setAccountNumber(in.readUTF())
+                        .setBalance(new BigDecimal(in.readUTF()))
+                        .setAmount(new BigDecimal(in.readUTF()));
+                String currency = in.readUTF();
+                posting.setCurrency(currency.isEmpty() ? null : Currency.valueOf(currency))
+                        .setTransactionFlow(TransactionFlow.valueOf(in.readUTF()));
+                long epochSecond = in.readLong();
+                int nano = in.readInt();
+                ZoneOffset offset = ZoneOffset.ofTotalSeconds(in.readInt());
+                posting.setTimestamp(OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset));
+                String exchangeRate = in.readUTF();
+                postings.add(posting.setExchangeRate(exchangeRate.isEmpty() ? null : new BigDecimal(exchangeRate)));
+            }
+            return postings;
+        }
+    }
+
+    private record Entry(long sequence, Transactions posting) {
+    }
+
+    private record Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+    }
+
+    /**
+     * A segment that was rolled over, and so holds nothing after {@code lastSequence}.
+     */
+    private record SealedSegment(Segment segment, long lastSequence) {
+    }
+}
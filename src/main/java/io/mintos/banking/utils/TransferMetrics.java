@@ -0,0 +1,211 @@
+package io.mintos.banking.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.exception.AccountEqualException;
+import io.mintos.banking.exception.AccountNotFoundException;
+import io.mintos.banking.exception.AmountExceedsException;
+import io.mintos.banking.exception.CurrencyNotSupportedException;
+import io.mintos.banking.exception.InvalidTransferException;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Timers and counters for single transfers.
+ * <p>
+ * Every transfer is timed as a whole ({@code banking.transfer.duration}, tagged by currency pair and outcome) and
+ * stage by stage ({@code banking.transfer.stage}, tagged by stage, currency pair and outcome). Failed transfers
+ * are also counted by exception type ({@code banking.transfer.failures}). The pair is the sender's currency
+ * followed by the transfer currency, or {@code unknown} until the sender has been read.
+ * <p>
+ * All timers are registered up front and picked by array index, so recording takes no tag or registry lookups,
+ * only {@link System#nanoTime()} and the timer's own lock-free update.
+ */
+@Component
+public class TransferMetrics {
+
+    /**
+     * Stages of a single transfer, in the order they run. {@link #SAVE} and {@link #LEDGER} only stage the changes
+     * in the persistence context; their SQL runs when {@link #ROLLUP} flushes them, except for the balance slot
+     * updates of hot accounts, which run right away. In
+     * {@link io.mintos.banking.enums.ConcurrencyMode#LEDGER} mode there is no {@link #SAVE}; with the
+     * {@link TransactionJournal} enabled {@link #LEDGER} appends the postings to it, there is no {@link #ROLLUP} and
+     * {@link #COMMIT} waits for the journal's sync.
+     */
+    public enum Stage {
+        /** Reading both accounts (and, in ledger mode, their balances). */
+        LOOKUP,
+        /** Converting the amount into the receiver's currency. */
+        CONVERT,
+        /**
+         * Checking the sender's funds and updating both account balances, including crediting a hot receiver's
+         * balance slot and sweeping a hot sender's.
+         */
+        SAVE,
+        /** Adding the outgoing and incoming postings; in ledger mode also checking the sender's funds. */
+        LEDGER,
+        /** Flushing the changes so far and adding the postings to the daily statement totals. */
+        ROLLUP,
+        /** Flushing and committing the transaction. */
+        COMMIT
+    }
+
+    enum Outcome {
+        SUCCESS, REJECTED, ERROR
+    }
+
+    private static final Outcome[] OUTCOMES = Outcome.values();
+    private static final int UNKNOWN_PAIR = Currency.pairCount();
+    private static final int PAIR_SLOTS = Currency.pairCount() + 1;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer[] stageTimers;
+    private final Timer[] transferTimers;
+    private final ClassValue<Counter> failures = new ClassValue<>() {
+        @Override
+        protected Counter computeValue(Class<?> type) {
+            return Counter.builder("banking.transfer.failures")
+                    .description("Transfers that failed, by exception type")
+                    .tag("exception", type.getSimpleName())
+                    .register(meterRegistry);
+        }
+    };
+
+    public TransferMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = Objects.requireNonNull(meterRegistry);
+        Stage[] stages = Stage.values();
+        this.stageTimers = new Timer[stages.length * PAIR_SLOTS * 2];
+        for (Stage stage : stages) {
+            for (int pair = 0; pair < PAIR_SLOTS; pair++) {
+                for (boolean failed : new boolean[]{false, true}) {
+                    stageTimers[stageSlot(stage, pair, failed)] = Timer.builder("banking.transfer.stage")
+                            .description("Time spent in one stage of a transfer")
+                            .tag("stage", tagValue(stage))
+                            .tag("pair", pairTag(pair))
+                            .tag("outcome", failed ? "failure" : "success")
+                            .register(meterRegistry);
+                }
+            }
+        }
+        this.transferTimers = new Timer[PAIR_SLOTS * OUTCOMES.length];
+        for (int pair = 0; pair < PAIR_SLOTS; pair++) {
+            for (Outcome outcome : OUTCOMES) {
+                transferTimers[pair * OUTCOMES.length + outcome.ordinal()] = Timer.builder("banking.transfer.duration")
+                        .description("Time to complete or reject a transfer, including retries and lock waits")
+                        .tag("pair", pairTag(pair))
+                        .tag("outcome", tagValue(outcome))
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Starts timing a transfer in the given currency.
+     */
+    public Clock start(Currency currency) {
+        return new Clock(currency);
+    }
+
+    /**
+     * Transfers rejected for a reason on the client's side, as opposed to errors.
+     */
+    static boolean isRejection(RuntimeException e) {
+        return e instanceof AccountEqualException || e instanceof AccountNotFoundException
+                || e instanceof AmountExceedsException || e instanceof CurrencyNotSupportedException
+                || e instanceof InvalidTransferException;
+    }
+
+    private static int stageSlot(Stage stage, int pair, boolean failed) {
+        return (stage.ordinal() * PAIR_SLOTS + pair) * 2 + (failed ? 1 : 0);
+    }
+
+    private static String pairTag(int pair) {
+        if (pair == UNKNOWN_PAIR)
+            return "unknown";
+        Currency[] currencies = Currency.values();
+        return currencies[pair / currencies.length].pairCode(currencies[pair % currencies.length]);
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Times one transfer. Not thread-safe: a clock belongs to the thread running the transfer.
+     */
+    public final class Clock {
+
+        private final Currency currency;
+        private final long startedAt = System.nanoTime();
+        private int pair = UNKNOWN_PAIR;
+        private Stage stage;
+        private long stageStartedAt;
+
+        private Clock(Currency currency) {
+            this.currency = currency;
+        }
+
+        /**
+         * Sets the pair once the sender's currency is known.
+         */
+        public void senderCurrency(Currency senderCurrency) {
+            if (Objects.nonNull(senderCurrency) && Objects.nonNull(currency))
+                pair = Currency.pairIndex(senderCurrency, currency);
+        }
+
+        /**
+         * Ends the running stage, if any, as successful and starts the next one.
+         */
+        public void begin(Stage next) {
+            long now = System.nanoTime();
+            if (Objects.nonNull(stage))
+                stageTimers[stageSlot(stage, pair, false)].record(now - stageStartedAt, TimeUnit.NANOSECONDS);
+            stage = next;
+            stageStartedAt = now;
+        }
+
+        /**
+         * Runs one attempt of the transfer. When it returns the running stage ends as successful, when it throws
+         * as failed, so a retried attempt starts from a clean slate.
+         */
+        public <T> T attempt(Supplier<T> action) {
+            boolean failed = true;
+            try {
+                T result = action.get();
+                failed = false;
+                return result;
+            } finally {
+                endStage(failed);
+            }
+        }
+
+        public void completed() {
+            endStage(false);
+            record(Outcome.SUCCESS);
+        }
+
+        public void failed(RuntimeException e) {
+            endStage(true);
+            record(isRejection(e) ? Outcome.REJECTED : Outcome.ERROR);
+            failures.get(e.getClass()).increment();
+        }
+
+        private void endStage(boolean failed) {
+            if (Objects.isNull(stage))
+                return;
+            stageTimers[stageSlot(stage, pair, failed)].record(System.nanoTime() - stageStartedAt, TimeUnit.NANOSECONDS);
+            stage = null;
+        }
+
+        private void record(Outcome outcome) {
+            transferTimers[pair * OUTCOMES.length + outcome.ordinal()]
+                    .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
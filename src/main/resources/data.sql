@@ -1,12 +1,12 @@
 INSERT INTO CLIENT (ID, NAME, PERSONAL_CODE, SURNAME) VALUES (1, 'John', '326542136589', 'Dear');
 INSERT INTO CLIENT (ID, NAME, PERSONAL_CODE, SURNAME) VALUES (2, 'Jack', '326548951254', 'Kabo');
-INSERT INTO ACCOUNT (ID, ACCOUNT_NUMBER, BALANCE, CURRENCY, CLIENT_ID) VALUES (1, 'LV5647HAGA651651883', 1000, 'EUR', 1);
-INSERT INTO ACCOUNT (ID, ACCOUNT_NUMBER, BALANCE, CURRENCY, CLIENT_ID) VALUES (2, 'LV5647HAGA651651884', 1000, 'USD', 1);
-INSERT INTO ACCOUNT (ID, ACCOUNT_NUMBER, BALANCE, CURRENCY, CLIENT_ID) VALUES (3, 'LV5647HAGA651651885', 1000, 'GBP', 1);
-INSERT INTO ACCOUNT (ID, ACCOUNT_NUMBER, BALANCE, CURRENCY, CLIENT_ID) VALUES (4, 'LV5647HAGA651651878', 1000, 'EUR', 2);
-INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE) VALUES (1, 'EURUSD', 1.085184);
-INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE) VALUES (2, 'EURGBP', 0.854442);
-INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE) VALUES (3, 'USDEUR', 0.92153);
-INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE) VALUES (4, 'USDGBP', 0.78743);
-INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE) VALUES (5, 'GBPEUR', 1.1703);
-INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE) VALUES (6, 'GBPUSD', 1.269954);
+INSERT INTO ACCOUNT (ID, ACCOUNT_NUMBER, BALANCE, CURRENCY, CLIENT_ID, VERSION) VALUES (1, 'LV5647HAGA651651883', 1000, 'EUR', 1, 0);
+INSERT INTO ACCOUNT (ID, ACCOUNT_NUMBER, BALANCE, CURRENCY, CLIENT_ID, VERSION) VALUES (2, 'LV5647HAGA651651884', 1000, 'USD', 1, 0);
+INSERT INTO ACCOUNT (ID, ACCOUNT_NUMBER, BALANCE, CURRENCY, CLIENT_ID, VERSION) VALUES (3, 'LV5647HAGA651651885', 1000, 'GBP', 1, 0);
+INSERT INTO ACCOUNT (ID, ACCOUNT_NUMBER, BALANCE, CURRENCY, CLIENT_ID, VERSION) VALUES (4, 'LV5647HAGA651651878', 1000, 'EUR', 2, 0);
+INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE, EFFECTIVE_FROM) VALUES (1, 'EURUSD', 1.085184, TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00');
+INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE, EFFECTIVE_FROM) VALUES (2, 'EURGBP', 0.854442, TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00');
+INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE, EFFECTIVE_FROM) VALUES (3, 'USDEUR', 0.92153, TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00');
+INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE, EFFECTIVE_FROM) VALUES (4, 'USDGBP', 0.78743, TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00');
+INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE, EFFECTIVE_FROM) VALUES (5, 'GBPEUR', 1.1703, TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00');
+INSERT INTO EXCHANGE_RATE(ID, SOURCE, RATE, EFFECTIVE_FROM) VALUES (6, 'GBPUSD', 1.269954, TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00');
@@ -0,0 +1,5 @@
+-- Exchange rates are versioned by effective_from and the newest version in effect is looked up per source.
+-- Rows that predate versioning are treated as having applied from the start.
+ALTER TABLE exchange_rate ADD COLUMN IF NOT EXISTS effective_from TIMESTAMP WITH TIME ZONE;
+UPDATE exchange_rate SET effective_from = TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00' WHERE effective_from IS NULL;
+CREATE INDEX IF NOT EXISTS idx_exchange_rate_source_effective_from ON exchange_rate (source, effective_from DESC);
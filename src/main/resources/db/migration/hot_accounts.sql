@@ -0,0 +1,14 @@
+-- Statement rollups are kept per balance slot since hot accounts were introduced, and the rows of one day are
+-- ordered by the time of their last posting. Apply once to a database created before, before starting the new
+-- version.
+ALTER TABLE statement_rollup ADD COLUMN IF NOT EXISTS slot INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE statement_rollup ADD COLUMN IF NOT EXISTS closed_at TIMESTAMP(6) WITH TIME ZONE;
+UPDATE statement_rollup r
+SET closed_at = COALESCE((SELECT MAX(t.timestamp) FROM transactions t
+                          WHERE t.account_number = r.account_number
+                            AND CAST(t.timestamp AT TIME ZONE 'UTC' AS DATE) = r.booking_date),
+                         CAST(r.booking_date AS TIMESTAMP WITH TIME ZONE))
+WHERE closed_at IS NULL;
+ALTER TABLE statement_rollup ALTER COLUMN closed_at SET NOT NULL;
+ALTER TABLE statement_rollup DROP CONSTRAINT IF EXISTS uk_statement_rollup_account_date;
+ALTER TABLE statement_rollup ADD CONSTRAINT uk_statement_rollup_account_date_slot UNIQUE (account_number, booking_date, slot);
@@ -0,0 +1,6 @@
+-- History reads filter on account_number and walk timestamp (then id, for keyset paging) newest first.
+-- Account numbers and client personal codes are looked up one at a time and are unique by definition.
+-- Databases created by an older version have none of these; apply once. Fails if duplicates already exist.
+CREATE INDEX IF NOT EXISTS idx_transactions_account_timestamp ON transactions (account_number, timestamp DESC, id DESC);
+ALTER TABLE account ADD CONSTRAINT uk_account_account_number UNIQUE (account_number);
+ALTER TABLE client ADD CONSTRAINT uk_client_personal_code UNIQUE (personal_code);
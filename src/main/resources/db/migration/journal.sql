@@ -0,0 +1,4 @@
+-- Postings written through the transaction journal keep their journal sequence number, which replay on startup
+-- resumes after. Apply once to a database created before the journal existed.
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS journal_sequence BIGINT;
+ALTER TABLE transactions ADD CONSTRAINT uk_transactions_journal_sequence UNIQUE (journal_sequence);
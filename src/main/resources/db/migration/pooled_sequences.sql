@@ -0,0 +1,9 @@
+-- Entity ids are allocated in blocks of 50 (pooled-lo optimizer). Databases created while allocationSize was 1
+-- still have sequences that increment by 1 and must be migrated once, before the new version starts, otherwise
+-- Hibernate refuses to start on the increment mismatch. Values already handed out are never reused.
+ALTER SEQUENCE account_sequence INCREMENT BY 50;
+ALTER SEQUENCE client_sequence INCREMENT BY 50;
+ALTER SEQUENCE transaction_sequence INCREMENT BY 50;
+-- exchange_rate_sequence was never used by the application (rates are seeded with explicit ids 1-6),
+-- so it is moved past the seeded rows.
+ALTER SEQUENCE exchange_rate_sequence RESTART WITH 10 INCREMENT BY 50;
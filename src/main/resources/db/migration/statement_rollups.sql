@@ -0,0 +1,18 @@
+-- Daily statement totals are kept up to date by transfers, but only from the version that introduced them on.
+-- Apply once, after that version has created statement_rollup and before it accepts transfers, to add the
+-- postings written before. Days are UTC days; a day closes on the balance left by its last posting.
+INSERT INTO statement_rollup (id, account_number, booking_date, slot, incoming, outgoing, closing_balance, closed_at)
+SELECT NEXT VALUE FOR statement_rollup_sequence, d.account_number, d.booking_date, 0, d.incoming, d.outgoing, d.balance,
+       d.timestamp
+FROM (SELECT account_number,
+             booking_date,
+             SUM(CASE WHEN transaction_flow = 'INCOMING' THEN amount ELSE 0 END) OVER day_postings AS incoming,
+             SUM(CASE WHEN transaction_flow = 'OUTGOING' THEN amount ELSE 0 END) OVER day_postings AS outgoing,
+             balance,
+             timestamp,
+             ROW_NUMBER() OVER (PARTITION BY account_number, booking_date ORDER BY timestamp DESC, id DESC) AS latest
+      FROM (SELECT t.*, CAST(t.timestamp AT TIME ZONE 'UTC' AS DATE) AS booking_date FROM transactions t) p
+      WINDOW day_postings AS (PARTITION BY account_number, booking_date)) d
+WHERE d.latest = 1
+  AND NOT EXISTS (SELECT 1 FROM statement_rollup r
+                  WHERE r.account_number = d.account_number AND r.booking_date = d.booking_date);
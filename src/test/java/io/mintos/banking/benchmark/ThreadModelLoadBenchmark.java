@@ -0,0 +1,204 @@
+package io.mintos.banking.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mintos.banking.BankingApplication;
+import io.mintos.banking.domain.Account;
+import io.mintos.banking.domain.Client;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.repos.AccountRepository;
+import io.mintos.banking.repos.ClientRepository;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Drives the HTTP API over real sockets with many concurrent clients, once with Tomcat on its platform thread pool
+ * and once on virtual threads, and prints throughput and p99 latency for both. Every transaction first waits
+ * {@code benchmark.io-latency-ms} to stand in for the network round trips of a remote database. Skipped unless
+ * run with {@code -Dbenchmark=true}; the load shape can be tuned with {@code -Dbenchmark.clients},
+ * {@code -Dbenchmark.tomcat-threads}, {@code -Dbenchmark.io-latency-ms} and {@code -Dbenchmark.seconds}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ThreadModelLoadBenchmark {
+
+    private static final int ACCOUNTS = 1000;
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 256);
+    private static final int TOMCAT_THREADS = Integer.getInteger("benchmark.tomcat-threads", 32);
+    private static final long IO_LATENCY_MILLIS = Long.getLong("benchmark.io-latency-ms", 5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(Long.getLong("benchmark.seconds", 15));
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        System.out.printf("%d clients, %d Tomcat threads, %d ms simulated I/O per transaction%n",
+                CLIENTS, TOMCAT_THREADS, IO_LATENCY_MILLIS);
+        report("platform", platform);
+        report("virtual", virtual);
+        assertTrue(platform.requests() > 0 && virtual.requests() > 0);
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankingApplication.class,
+                SlowDataSourceConfig.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--server.tomcat.threads.max=" + TOMCAT_THREADS,
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN",
+                        "--exchange.cache.initial-delay=PT1H")) {
+            seed(context);
+            String baseUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            load(httpClient, baseUrl, WARMUP);
+            return load(httpClient, baseUrl, MEASUREMENT);
+        }
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        Client client = context.getBean(ClientRepository.class)
+                .save(new Client().setName("Load").setPersonalCode("LOAD"));
+        List<Account> accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(new Account()
+                    .setAccountNumber("LOAD" + i)
+                    .setBalance(new BigDecimal("1000000.00"))
+                    .setCurrency(Currency.EUR)
+                    .setClient(client));
+        }
+        context.getBean(AccountRepository.class).saveAll(accounts);
+    }
+
+    /**
+     * Every client alternates between reading a page of history and making a transfer until the duration is up.
+     */
+    private LoadResult load(HttpClient httpClient, String baseUrl, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<long[]>> clients = new ArrayList<>(CLIENTS);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < CLIENTS; c++) {
+                clients.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = count % 2 == 0
+                                ? history(baseUrl, random.nextInt(ACCOUNTS))
+                                : transfer(baseUrl, random.nextInt(ACCOUNTS), random.nextInt(ACCOUNTS - 1));
+                        long start = System.nanoTime();
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        long latency = System.nanoTime() - start;
+                        if (count == latencies.length)
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        // failed requests are recorded as negative latencies
+                        latencies[count++] = response.statusCode() < 400 ? latency : -latency;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        long[] all = new long[0];
+        for (Future<long[]> client : clients) {
+            long[] latencies = client.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        long errors = Arrays.stream(all).filter(latency -> latency < 0).count();
+        long[] sorted = Arrays.stream(all).map(Math::abs).sorted().toArray();
+        long p99 = sorted.length == 0 ? 0 : sorted[(int) Math.ceil(sorted.length * 0.99) - 1];
+        return new LoadResult(sorted.length, errors, duration, p99);
+    }
+
+    private static HttpRequest history(String baseUrl, int account) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/bank/accounts/LOAD" + account + "/transactions?limit=20"))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest transfer(String baseUrl, int sender, int offset) throws Exception {
+        int receiver = (sender + 1 + offset) % ACCOUNTS;
+        byte[] body = objectMapper.writeValueAsBytes(new TransfareRecord("LOAD" + sender, "LOAD" + receiver,
+                new BigDecimal("0.01"), Currency.EUR));
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/bank/accounts/transfer"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private static void report(String mode, LoadResult result) {
+        System.out.printf("%-9s %8d requests = %9.1f requests/s, p99 %8.2f ms, %d errors%n", mode, result.requests(),
+                result.requests() / (result.duration().toNanos() / 1_000_000_000.0), result.p99Nanos() / 1_000_000.0,
+                result.errors());
+    }
+
+    private record LoadResult(long requests, long errors, Duration duration, long p99Nanos) {
+    }
+
+    /**
+     * Passed to the application builder explicitly rather than annotated, so component scanning in the
+     * functional tests never picks it up.
+     */
+    static class SlowDataSourceConfig {
+
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? new SlowDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    static class SlowDataSource extends DelegatingDataSource {
+
+        SlowDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            try {
+                Thread.sleep(IO_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException(e);
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.mintos.banking.benchmark;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mintos.banking.domain.Account;
+import io.mintos.banking.domain.Client;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.repos.AccountRepository;
+import io.mintos.banking.repos.ClientRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+/**
+ * Compares the single-item transfer endpoint with the batch endpoint. Skipped unless run with
+ * {@code -Dbenchmark=true}; results are printed to standard out.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {"exchange.cache.initial-delay=PT1H", "spring.datasource.url=jdbc:h2:mem:benchmark",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc
+class TransferThroughputBenchmark {
+
+    private static final int TRANSFERS = 2000;
+    private static final int BATCH_SIZE = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        if (accountRepository.existsByAccountNumber("BENCH0"))
+            return;
+        Client client = clientRepository.save(new Client().setName("Bench").setPersonalCode("BENCH"));
+        for (int i = 0; i < 2; i++) {
+            accountRepository.save(new Account()
+                    .setAccountNumber("BENCH" + i)
+                    .setBalance(new BigDecimal("1000000.00"))
+                    .setCurrency(Currency.EUR)
+                    .setClient(client));
+        }
+    }
+
+    @Test
+    void compareSingleAndBatchTransfers() throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        // Warm up both paths before measuring
+        runSingle(200);
+        runBatch(200);
+
+        statistics.clear();
+        long singleNanos = runSingle(TRANSFERS);
+        long singleStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        long batchNanos = runBatch(TRANSFERS);
+        long batchStatements = statistics.getPrepareStatementCount();
+
+        report("single", singleNanos, singleStatements);
+        report("batch(" + BATCH_SIZE + ")", batchNanos, batchStatements);
+        assertTrue(batchNanos > 0 && singleNanos > 0);
+    }
+
+    private long runSingle(int transfers) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < transfers; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.post("/bank/accounts/transfer")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(transfer(i))))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long runBatch(int transfers) throws Exception {
+        long start = System.nanoTime();
+        for (int from = 0; from < transfers; from += BATCH_SIZE) {
+            List<TransfareRecord> batch = new ArrayList<>(BATCH_SIZE);
+            for (int i = from; i < Math.min(transfers, from + BATCH_SIZE); i++) {
+                batch.add(transfer(i));
+            }
+            mockMvc.perform(MockMvcRequestBuilders.post("/bank/accounts/transfers/batch")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(batch)))
+                    .andExpect(MockMvcResultMatchers.status().isOk())
+                    .andExpect(MockMvcResultMatchers.jsonPath("$[?(@.status == 'REJECTED')]").isEmpty());
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static TransfareRecord transfer(int i) {
+        return new TransfareRecord("BENCH" + (i % 2), "BENCH" + ((i + 1) % 2), new BigDecimal("1.00"), Currency.EUR);
+    }
+
+    private static void report(String mode, long nanos, long statements) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%-12s %6d transfers in %7.3f s = %9.1f transfers/s, %6.2f statements/transfer%n",
+                mode, TRANSFERS, seconds, TRANSFERS / seconds, (double) statements / TRANSFERS);
+    }
+}
@@ -1,14 +1,39 @@
 package io.mintos.banking.controller;
 
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mintos.banking.config.JacksonConfig;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.ExportFormat;
+import io.mintos.banking.enums.StatementPeriod;
+import io.mintos.banking.enums.TransferStatus;
+import io.mintos.banking.exception.TransferQueueFullException;
+import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.IdempotentOutcomeRecord;
+import io.mintos.banking.records.StatementPeriodRecord;
+import io.mintos.banking.records.TransactionsPageRecord;
 import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.records.TransferResultRecord;
+import io.mintos.banking.records.TransferStatusRecord;
+import io.mintos.banking.services.AsyncTransferService;
 import io.mintos.banking.services.BankingService;
+import io.mintos.banking.services.IdempotencyService;
+import io.mintos.banking.utils.TransactionHistoryExporter;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,8 +41,12 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -33,9 +62,18 @@ class BankingControllerTest {
     @MockBean
     private BankingService bankingService;
 
+    @MockBean
+    private TransactionHistoryExporter historyExporter;
+
+    @MockBean
+    private AsyncTransferService asyncTransferService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
     /**
      * Method under test:
-     * {@link BankingController#getTransactionHistory(String, Integer, Integer)}
+     * {@link BankingController#getTransactionHistory(String, Integer, Integer, String)}
      */
     @Test
     void testGetTransactionHistory() throws Exception {
@@ -55,18 +93,99 @@ class BankingControllerTest {
     }
 
     /**
-     * Method under test: {@link BankingController#transferFunds(TransfareRecord)}
+     * Method under test:
+     * {@link BankingController#getTransactionHistory(String, Integer, Integer, String)}
+     */
+    @Test
+    void testGetTransactionHistoryWithCursor() throws Exception {
+        // Arrange
+        when(bankingService.getTransactionHistoryPage("42", "abc", 20))
+                .thenReturn(new TransactionsPageRecord(new ArrayList<>(), "def"));
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get("/bank/accounts/{accountNumber}/transactions", "42")
+                .param("cursor", "abc")
+                .param("limit", "20");
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("X-Next-Cursor", "def"))
+                .andExpect(MockMvcResultMatchers.content().string("[]"));
+    }
+
+    /**
+     * Method under test:
+     * {@link BankingController#getStatementSummary(String, StatementPeriod, LocalDate, LocalDate)}
+     */
+    @Test
+    void testGetStatementSummary() throws Exception {
+        // Arrange
+        when(bankingService.getStatementSummary("42", StatementPeriod.MONTH, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)))
+                .thenReturn(List.of(new StatementPeriodRecord(LocalDate.of(2024, 3, 1), new BigDecimal("10.00"),
+                        new BigDecimal("2.50"), new BigDecimal("107.50"))));
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders
+                .get("/bank/accounts/{accountNumber}/summary", "42")
+                .param("period", "MONTH")
+                .param("from", "2024-01-01")
+                .param("to", "2024-12-31");
+        Jackson2ObjectMapperBuilder objectMapperBuilder = Jackson2ObjectMapperBuilder.json();
+        new JacksonConfig().jacksonCustomizer().customize(objectMapperBuilder);
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapperBuilder.build()))
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].periodStart").value("2024-03-01"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].incoming").value(10.0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].outgoing").value(2.5))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].closingBalance").value(107.5));
+    }
+
+    /**
+     * Method under test:
+     * {@link BankingController#exportTransactionHistory(String, ExportFormat)}
+     */
+    @Test
+    void testExportTransactionHistory() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("42,10.00\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(historyExporter).export(eq("42"), eq(ExportFormat.CSV), Mockito.any());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(bankingController).build();
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/bank/accounts/{accountNumber}/transactions/export", "42")
+                        .param("format", "CSV"))
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        // Act and Assert
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("text/csv"))
+                .andExpect(MockMvcResultMatchers.header().string("Content-Disposition",
+                        "attachment; filename=\"42-transactions.csv\""))
+                .andExpect(MockMvcResultMatchers.content().string("42,10.00\n"));
+    }
+
+    /**
+     * Method under test: {@link BankingController#transferFunds(TransfareRecord, String, String)}
      */
     @Test
     void testTransferFunds() throws Exception {
         // Arrange
-        doNothing().when(bankingService).transferFunds(Mockito.<TransfareRecord>any());
+        doNothing().when(bankingService).transferFunds(Mockito.<TransfareRecord>any(), Mockito.any());
         MockHttpServletRequestBuilder contentTypeResult = MockMvcRequestBuilders.post("/bank/accounts/transfer")
                 .contentType(MediaType.APPLICATION_JSON);
 
         ObjectMapper objectMapper = new ObjectMapper();
         MockHttpServletRequestBuilder requestBuilder = contentTypeResult
-                .content(objectMapper.writeValueAsString(new TransfareRecord("3", "3", new BigDecimal("2.3"), "GBP")));
+                .content(objectMapper.writeValueAsString(new TransfareRecord("3", "3", new BigDecimal("2.3"), Currency.GBP)));
 
         // Act and Assert
         MockMvcBuilders.standaloneSetup(bankingController)
@@ -75,14 +194,38 @@ class BankingControllerTest {
                 .andExpect(MockMvcResultMatchers.status().isOk());
     }
 
+    /**
+     * Method under test: {@link BankingController#transferFundsBatch(List)}
+     */
+    @Test
+    void testTransferFundsBatch() throws Exception {
+        // Arrange
+        when(bankingService.transferFundsBatch(Mockito.any())).thenReturn(List.of(
+                new TransferResultRecord(0, TransferStatus.COMPLETED, null),
+                new TransferResultRecord(1, TransferStatus.REJECTED, "Given amount exceeds available funds!")));
+        ObjectMapper objectMapper = new ObjectMapper();
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/bank/accounts/transfers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(
+                        new TransfareRecord("1", "2", new BigDecimal("2.3"), Currency.GBP),
+                        new TransfareRecord("1", "2", new BigDecimal("999"), Currency.GBP))));
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status").value("COMPLETED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status").value("REJECTED"));
+    }
+
     /**
      * Method under test: {@link BankingController#getAccountsByClientId(String)}
      */
     @Test
     void testGetAccountsByClientId2() throws Exception {
         // Arrange
-        when(bankingService.getAccountsByClient(Mockito.<String>any())).thenReturn(new ArrayList<>());
-        when(bankingService.clientExists(Mockito.<String>any())).thenReturn(false);
+        when(bankingService.findAccountsByClient(Mockito.<String>any())).thenReturn(Optional.empty());
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get("/bank/clients/{personalCode}/accounts",
                 "3546941651");
 
@@ -98,8 +241,7 @@ class BankingControllerTest {
     @Test
     void testGetAccountsByClientId3() throws Exception {
         // Arrange
-        when(bankingService.getAccountsByClient(Mockito.<String>any())).thenReturn(new ArrayList<>());
-        when(bankingService.clientExists(Mockito.<String>any())).thenReturn(true);
+        when(bankingService.findAccountsByClient(Mockito.<String>any())).thenReturn(Optional.of(new ArrayList<>()));
         MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.get("/bank/clients/{personalCode}/accounts",
                 "Personal Code");
 
@@ -111,4 +253,251 @@ class BankingControllerTest {
         // Assert
         actualPerformResult.andExpect(MockMvcResultMatchers.status().isOk());
     }
+
+    /**
+     * Method under test: {@link BankingController#transferFunds(TransfareRecord, String, String)}
+     */
+    @Test
+    void testTransferFundsRespondAsync() throws Exception {
+        // Arrange
+        when(asyncTransferService.isEnabled()).thenReturn(true);
+        when(asyncTransferService.submit(Mockito.<TransfareRecord>any(), Mockito.any(), Mockito.any()))
+                .thenReturn(new TransferStatusRecord("id-1", TransferStatus.PENDING, null));
+        when(asyncTransferService.getStatus("id-1"))
+                .thenReturn(Optional.of(new TransferStatusRecord("id-1", TransferStatus.PENDING, null)));
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/bank/accounts/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(BankingController.PREFER_HEADER, BankingController.RESPOND_ASYNC)
+                .content(new ObjectMapper().writeValueAsString(
+                        new TransfareRecord("3", "4", new BigDecimal("2.3"), Currency.GBP)));
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().string("Location", "/bank/accounts/transfers/id-1"))
+                .andExpect(MockMvcResultMatchers.header()
+                        .string(BankingController.PREFERENCE_APPLIED_HEADER, BankingController.RESPOND_ASYNC))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("PENDING"));
+        verify(bankingService, never()).transferFunds(Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link BankingController#transferFunds(TransfareRecord, String, String)}
+     */
+    @Test
+    void testTransferFundsRespondAsyncWhenDisabled() throws Exception {
+        // Arrange
+        when(asyncTransferService.isEnabled()).thenReturn(false);
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/bank/accounts/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(BankingController.PREFER_HEADER, BankingController.RESPOND_ASYNC)
+                .content(new ObjectMapper().writeValueAsString(
+                        new TransfareRecord("3", "4", new BigDecimal("2.3"), Currency.GBP)));
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        verify(bankingService).transferFunds(Mockito.any(), Mockito.any());
+        verify(asyncTransferService, never()).submit(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link BankingController#transferFunds(TransfareRecord, String, String)}
+     */
+    @Test
+    void testTransferFundsRespondAsyncQueueFull() throws Exception {
+        // Arrange
+        when(asyncTransferService.isEnabled()).thenReturn(true);
+        when(asyncTransferService.submit(Mockito.<TransfareRecord>any(), Mockito.any(), Mockito.any()))
+                .thenThrow(new TransferQueueFullException("Too many pending transfers, try again later!"));
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/bank/accounts/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(BankingController.PREFER_HEADER, BankingController.RESPOND_ASYNC)
+                .content(new ObjectMapper().writeValueAsString(
+                        new TransfareRecord("3", "4", new BigDecimal("2.3"), Currency.GBP)));
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests());
+    }
+
+    /**
+     * Method under test: {@link BankingController#getAccountsByClients(List)}
+     */
+    @Test
+    void testGetAccountsByClients() throws Exception {
+        // Arrange
+        when(bankingService.getAccountsByClients(List.of("a", "missing"))).thenReturn(
+                Map.of("a", List.of(new AccountRecord("LV01", new BigDecimal("10.00"), Currency.EUR))));
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/bank/clients/accounts:batchGet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(List.of("a", "missing")));
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.a[0].accountNumber").value("LV01"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missing").doesNotExist());
+    }
+
+    /**
+     * Method under test: {@link BankingController#getTransferStatus(String)}
+     */
+    @Test
+    void testGetTransferStatus() throws Exception {
+        // Arrange
+        when(asyncTransferService.getStatus("id-1"))
+                .thenReturn(Optional.of(new TransferStatusRecord("id-1", TransferStatus.REJECTED, "Given amount exceeds available funds!")));
+        when(asyncTransferService.getStatus("unknown")).thenReturn(Optional.empty());
+
+        // Act and Assert
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(bankingController).build();
+        mockMvc.perform(MockMvcRequestBuilders.get("/bank/accounts/transfers/{transferId}", "id-1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("REJECTED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Given amount exceeds available funds!"));
+        mockMvc.perform(MockMvcRequestBuilders.get("/bank/accounts/transfers/{transferId}", "unknown"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    /**
+     * Method under test: {@link BankingController#transferFunds(TransfareRecord, String, String)}
+     */
+    @Test
+    void testTransferFundsReplaysIdempotentRequest() throws Exception {
+        // Arrange
+        TransfareRecord transfareRecord = new TransfareRecord("3", "4", new BigDecimal("2.30"), Currency.GBP);
+        when(bankingService.runsBeforeCommit()).thenReturn(true);
+        when(idempotencyService.execute(eq("key-1"), eq(BankingController.fingerprint(transfareRecord, false)), eq(true),
+                Mockito.any()))
+                .thenReturn(new IdempotentOutcomeRecord(200, null, null, null));
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/bank/accounts/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(BankingController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                .content(new ObjectMapper().writeValueAsString(transfareRecord));
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        verify(bankingService, never()).transferFunds(Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link BankingController#transferFunds(TransfareRecord, String, String)}
+     */
+    @Test
+    void testTransferFundsRejectsBlankIdempotencyKey() throws Exception {
+        // Arrange
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/bank/accounts/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(BankingController.IDEMPOTENCY_KEY_HEADER, " ")
+                .content(new ObjectMapper().writeValueAsString(
+                        new TransfareRecord("3", "4", new BigDecimal("2.3"), Currency.GBP)));
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        verify(idempotencyService, never()).execute(Mockito.any(), Mockito.any(), Mockito.anyBoolean(), Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link BankingController#transferFunds(TransfareRecord, String, String)}
+     */
+    @Test
+    void testTransferFundsIsNotRecoverableWithoutBeforeCommit() throws Exception {
+        // Arrange: the journal has no transaction to record the outcome in
+        TransfareRecord transfareRecord = new TransfareRecord("3", "4", new BigDecimal("2.30"), Currency.GBP);
+        when(bankingService.runsBeforeCommit()).thenReturn(false);
+        when(idempotencyService.execute(eq("key-1"), Mockito.any(), eq(false), Mockito.any()))
+                .thenReturn(new IdempotentOutcomeRecord(200, null, null, null));
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/bank/accounts/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(BankingController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                .content(new ObjectMapper().writeValueAsString(transfareRecord));
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    /**
+     * Method under test: {@link BankingController#transferFunds(TransfareRecord, String, String)}
+     */
+    @Test
+    void testTransferFundsReplaysStoredFinalStatus() throws Exception {
+        // Arrange: the transfer's status has expired from memory
+        when(asyncTransferService.isEnabled()).thenReturn(true);
+        when(asyncTransferService.getStatus("id-1")).thenReturn(Optional.empty());
+        when(idempotencyService.execute(eq("key-1"), Mockito.any(), eq(true), Mockito.any()))
+                .thenReturn(new IdempotentOutcomeRecord(202, "id-1", TransferStatus.REJECTED,
+                        "Given amount exceeds available funds!"));
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/bank/accounts/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(BankingController.PREFER_HEADER, BankingController.RESPOND_ASYNC)
+                .header(BankingController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                .content(new ObjectMapper().writeValueAsString(
+                        new TransfareRecord("3", "4", new BigDecimal("2.3"), Currency.GBP)));
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value("REJECTED"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Given amount exceeds available funds!"));
+    }
+
+    /**
+     * Method under test: {@link BankingController#transferFunds(TransfareRecord, String, String)}
+     */
+    @Test
+    void testTransferFundsReplaysUnknownStatusWithoutBody() throws Exception {
+        // Arrange: neither memory nor the stored outcome knows how the transfer ended
+        when(asyncTransferService.isEnabled()).thenReturn(true);
+        when(asyncTransferService.getStatus("id-1")).thenReturn(Optional.empty());
+        when(idempotencyService.execute(eq("key-1"), Mockito.any(), eq(true), Mockito.any()))
+                .thenReturn(new IdempotentOutcomeRecord(202, "id-1", TransferStatus.PENDING, null));
+        MockHttpServletRequestBuilder requestBuilder = MockMvcRequestBuilders.post("/bank/accounts/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(BankingController.PREFER_HEADER, BankingController.RESPOND_ASYNC)
+                .header(BankingController.IDEMPOTENCY_KEY_HEADER, "key-1")
+                .content(new ObjectMapper().writeValueAsString(
+                        new TransfareRecord("3", "4", new BigDecimal("2.3"), Currency.GBP)));
+
+        // Act and Assert
+        MockMvcBuilders.standaloneSetup(bankingController)
+                .build()
+                .perform(requestBuilder)
+                .andExpect(MockMvcResultMatchers.status().isAccepted())
+                .andExpect(MockMvcResultMatchers.header().string("Location", "/bank/accounts/transfers/id-1"))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    /**
+     * Method under test: {@link BankingController#fingerprint(TransfareRecord, boolean)}
+     */
+    @Test
+    void testFingerprintIgnoresAmountScale() {
+        // Arrange, Act and Assert
+        org.junit.jupiter.api.Assertions.assertEquals(
+                BankingController.fingerprint(new TransfareRecord("3", "4", new BigDecimal("2.3"), Currency.GBP), false),
+                BankingController.fingerprint(new TransfareRecord("3", "4", new BigDecimal("2.30"), Currency.GBP), false));
+        org.junit.jupiter.api.Assertions.assertNotEquals(
+                BankingController.fingerprint(new TransfareRecord("3", "4", new BigDecimal("2.3"), Currency.GBP), false),
+                BankingController.fingerprint(new TransfareRecord("3", "4", new BigDecimal("2.3"), Currency.GBP), true));
+    }
 }
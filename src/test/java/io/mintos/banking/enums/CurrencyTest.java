@@ -0,0 +1,64 @@
+package io.mintos.banking.enums;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class CurrencyTest {
+
+    /**
+     * Method under test: {@link Currency#isValid(String)}
+     */
+    @Test
+    void testIsValid() {
+        // Arrange, Act and Assert
+        assertTrue(Currency.isValid("EUR"));
+        assertFalse(Currency.isValid("eur"));
+        assertFalse(Currency.isValid("JPY"));
+        assertFalse(Currency.isValid(null));
+    }
+
+    /**
+     * Method under test: {@link Currency#fromCode(String)}
+     */
+    @Test
+    void testFromCode() {
+        // Arrange, Act and Assert
+        assertSame(Currency.GBP, Currency.fromCode("GBP"));
+        assertNull(Currency.fromCode("JPY"));
+        assertNull(Currency.fromCode(null));
+    }
+
+    /**
+     * Method under test: {@link Currency#pairIndex(Currency, Currency)}
+     */
+    @Test
+    void testPairIndexIsDense() {
+        // Arrange
+        Set<Integer> indexes = new HashSet<>();
+
+        // Act
+        for (Currency from : Currency.values()) {
+            for (Currency to : Currency.values()) {
+                indexes.add(Currency.pairIndex(from, to));
+            }
+        }
+
+        // Assert
+        assertEquals(Currency.pairCount(), indexes.size());
+        assertTrue(indexes.stream().allMatch(i -> i >= 0 && i < Currency.pairCount()));
+    }
+
+    /**
+     * Method under test: {@link Currency#pairCode(Currency)}
+     */
+    @Test
+    void testPairCode() {
+        // Arrange, Act and Assert
+        assertEquals("EURUSD", Currency.EUR.pairCode(Currency.USD));
+        assertEquals("GBPEUR", Currency.GBP.pairCode(Currency.EUR));
+    }
+}
@@ -0,0 +1,84 @@
+package io.mintos.banking.repos;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.mintos.banking.domain.BalanceSlot;
+import io.mintos.banking.domain.Client;
+import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.ClientAccountRecord;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+@DataJpaTest
+class ClientRepositoryTest {
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private BalanceSlotRepository balanceSlotRepository;
+
+    /**
+     * Method under test: {@link ClientRepository#findClientAccountsByPersonalCode(String)}
+     */
+    @Test
+    void testFindClientAccountsByPersonalCode() {
+        // Arrange
+        clientRepository.saveAndFlush(new Client().setName("No").setSurname("Accounts").setPersonalCode("EMPTY"));
+
+        // Act
+        List<AccountRecord> withAccounts = clientRepository.findClientAccountsByPersonalCode("326542136589");
+        List<AccountRecord> withoutAccounts = clientRepository.findClientAccountsByPersonalCode("EMPTY");
+        List<AccountRecord> missing = clientRepository.findClientAccountsByPersonalCode("MISSING");
+
+        // Assert
+        assertEquals(3, withAccounts.size());
+        assertEquals(1, withoutAccounts.size());
+        assertNull(withoutAccounts.get(0).accountNumber());
+        assertTrue(missing.isEmpty());
+    }
+
+    /**
+     * Method under test: {@link ClientRepository#findClientAccountsByPersonalCodeIn(java.util.Collection)}
+     */
+    @Test
+    void testFindClientAccountsByPersonalCodeIn() {
+        // Arrange
+        clientRepository.saveAndFlush(new Client().setName("No").setSurname("Accounts").setPersonalCode("EMPTY"));
+
+        // Act
+        List<ClientAccountRecord> rows = clientRepository.findClientAccountsByPersonalCodeIn(
+                List.of("326542136589", "326548951254", "EMPTY", "MISSING"));
+
+        // Assert
+        Map<String, Long> rowsPerClient = rows.stream()
+                .collect(Collectors.groupingBy(ClientAccountRecord::personalCode, Collectors.counting()));
+        assertEquals(Map.of("326542136589", 3L, "326548951254", 1L, "EMPTY", 1L), rowsPerClient);
+        assertTrue(rows.stream().anyMatch(row -> row.personalCode().equals("EMPTY") && row.accountNumber() == null));
+    }
+
+    /**
+     * Method under test: {@link ClientRepository#findClientAccountsByPersonalCode(String)}
+     */
+    @Test
+    void testFindClientAccountsByPersonalCodeAddsBalanceSlots() {
+        // Arrange
+        AccountRecord account = clientRepository.findClientAccountsByPersonalCode("326548951254").get(0);
+        balanceSlotRepository.saveAllAndFlush(List.of(
+                new BalanceSlot().setAccountNumber(account.accountNumber()).setSlot(1).setBalance(new BigDecimal("10.00")),
+                new BalanceSlot().setAccountNumber(account.accountNumber()).setSlot(2).setBalance(new BigDecimal("2.50"))));
+
+        // Act
+        List<AccountRecord> accounts = clientRepository.findClientAccountsByPersonalCode("326548951254");
+
+        // Assert
+        assertEquals(0, account.balance().add(new BigDecimal("12.50")).compareTo(accounts.get(0).balance()));
+    }
+}
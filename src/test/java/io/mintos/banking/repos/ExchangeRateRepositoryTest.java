@@ -0,0 +1,89 @@
+package io.mintos.banking.repos;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.mintos.banking.domain.ExchangeRate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+@DataJpaTest
+class ExchangeRateRepositoryTest {
+
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2030, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @BeforeEach
+    void setUp() {
+        exchangeRateRepository.saveAll(List.of(
+                rate("EURUSD", "1.100000", BASE),
+                rate("EURUSD", "1.200000", BASE.plusDays(1)),
+                rate("EURUSD", "1.300000", BASE.plusDays(2)),
+                rate("GBPEUR", "1.150000", BASE.plusDays(1))));
+        exchangeRateRepository.flush();
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateRepository#findRatesEffectiveAt(OffsetDateTime)}
+     */
+    @Test
+    void testFindRatesEffectiveAtReturnsNewestVersionPerSource() {
+        // Act
+        List<ExchangeRate> actual = exchangeRateRepository.findRatesEffectiveAt(BASE.plusDays(1).plusHours(12));
+
+        // Assert
+        assertEquals(new BigDecimal("1.200000"), rateOf(actual, "EURUSD"));
+        assertEquals(new BigDecimal("1.150000"), rateOf(actual, "GBPEUR"));
+        assertEquals(1, actual.stream().filter(r -> r.getSource().equals("EURUSD")).count());
+        // the seeded pairs have no newer version, so they are still in effect
+        assertEquals(new BigDecimal("0.854442"), rateOf(actual, "EURGBP"));
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateRepository#findRatesEffectiveAt(OffsetDateTime)}
+     */
+    @Test
+    void testFindRatesEffectiveAtIgnoresFutureVersions() {
+        // Act
+        List<ExchangeRate> actual = exchangeRateRepository.findRatesEffectiveAt(BASE.minusDays(1));
+
+        // Assert
+        assertEquals(new BigDecimal("1.085184"), rateOf(actual, "EURUSD"));
+        assertEquals(new BigDecimal("1.170300"), rateOf(actual, "GBPEUR"));
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateRepository#findRatesEffectiveAt(OffsetDateTime)}
+     */
+    @Test
+    void testFindRatesEffectiveAtPicksLatestIdAmongSimultaneousVersions() {
+        // Arrange
+        exchangeRateRepository.saveAndFlush(rate("EURUSD", "1.250000", BASE.plusDays(1)));
+
+        // Act
+        List<ExchangeRate> actual = exchangeRateRepository.findRatesEffectiveAt(BASE.plusDays(1).plusHours(12));
+
+        // Assert
+        assertEquals(1, actual.stream().filter(r -> r.getSource().equals("EURUSD")).count());
+        assertEquals(new BigDecimal("1.250000"), rateOf(actual, "EURUSD"));
+        assertEquals(actual.stream().map(ExchangeRate::getSource).sorted().toList(),
+                actual.stream().map(ExchangeRate::getSource).toList());
+    }
+
+    private static BigDecimal rateOf(List<ExchangeRate> rates, String source) {
+        return rates.stream().filter(r -> r.getSource().equals(source)).findFirst().orElseThrow().getRate();
+    }
+
+    private static ExchangeRate rate(String source, String rate, OffsetDateTime effectiveFrom) {
+        return new ExchangeRate().setSource(source).setRate(new BigDecimal(rate)).setEffectiveFrom(effectiveFrom);
+    }
+}
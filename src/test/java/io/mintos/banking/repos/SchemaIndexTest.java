@@ -0,0 +1,111 @@
+package io.mintos.banking.repos;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.mintos.banking.domain.Account;
+import io.mintos.banking.domain.Client;
+import io.mintos.banking.enums.Currency;
+
+import java.math.BigDecimal;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Guards the indexes declared on the entities: each lookup must be served by its index according to H2's
+ * {@code EXPLAIN}, so dropping or reshaping an index on the entity fails here rather than in production.
+ */
+@DataJpaTest
+class SchemaIndexTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void testHistoryByAccountUsesIndex() {
+        // Act
+        String plan = explain("SELECT * FROM transactions WHERE account_number = 'LV5647HAGA651651883' "
+                + "ORDER BY timestamp DESC");
+
+        // Assert
+        assertTrue(plan.contains("IDX_TRANSACTIONS_ACCOUNT_TIMESTAMP: ACCOUNT_NUMBER ="), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    void testHistorySeekUsesIndex() {
+        // Act
+        String plan = explain("SELECT * FROM transactions WHERE account_number = 'LV5647HAGA651651883' "
+                + "AND (timestamp < TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00' "
+                + "OR (timestamp = TIMESTAMP WITH TIME ZONE '2024-01-01 00:00:00+00' AND id < 100)) "
+                + "ORDER BY timestamp DESC, id DESC LIMIT 51");
+
+        // Assert
+        assertTrue(plan.contains("IDX_TRANSACTIONS_ACCOUNT_TIMESTAMP: ACCOUNT_NUMBER ="), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    void testAccountByNumberUsesUniqueIndex() {
+        // Act
+        String plan = explain("SELECT * FROM account WHERE account_number = 'LV5647HAGA651651883'");
+
+        // Assert
+        assertTrue(plan.contains("UK_ACCOUNT_ACCOUNT_NUMBER"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    void testClientByPersonalCodeUsesUniqueIndex() {
+        // Act
+        String plan = explain("SELECT * FROM client WHERE personal_code = '326542136589'");
+
+        // Assert
+        assertTrue(plan.contains("UK_CLIENT_PERSONAL_CODE"), plan);
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    @Test
+    void testDuplicateAccountNumberIsRejected() {
+        // Arrange
+        Client client = clientRepository.findById(1L).orElseThrow();
+
+        // Act and Assert
+        assertThrows(DataIntegrityViolationException.class, () -> accountRepository.saveAndFlush(new Account()
+                .setAccountNumber("LV5647HAGA651651883")
+                .setBalance(BigDecimal.ZERO)
+                .setCurrency(Currency.EUR)
+                .setClient(client)));
+    }
+
+    @Test
+    void testDuplicatePersonalCodeIsRejected() {
+        // Act and Assert
+        assertThrows(DataIntegrityViolationException.class, () -> clientRepository.saveAndFlush(new Client()
+                .setName("John")
+                .setSurname("Copy")
+                .setPersonalCode("326542136589")));
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
@@ -0,0 +1,125 @@
+package io.mintos.banking.repos;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.mintos.banking.domain.Transactions;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.TransactionFlow;
+import io.mintos.banking.records.TransactionsRecord;
+import io.mintos.banking.records.TransactionsRowRecord;
+import jakarta.persistence.EntityManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+@DataJpaTest
+class TransactionsRepositoryTest {
+
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private TransactionsRepository transactionsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    /**
+     * Method under test: {@link TransactionsRepository#streamByAccountNumber(String)}
+     */
+    @Test
+    void testStreamByAccountNumberNewestFirst() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            transactionsRepository.save(new Transactions()
+                    .setAccountNumber("STREAM")
+                    .setAmount(BigDecimal.valueOf(i))
+                    .setBalance(BigDecimal.TEN)
+                    .setCurrency(Currency.EUR)
+                    .setTimestamp(BASE.plusMinutes(i))
+                    .setTransactionFlow(TransactionFlow.OUTGOING));
+        }
+        transactionsRepository.flush();
+
+        // Act
+        List<TransactionsRecord> actual;
+        try (Stream<TransactionsRecord> rows = transactionsRepository.streamByAccountNumber("STREAM")) {
+            actual = rows.toList();
+        }
+
+        // Assert
+        assertEquals(List.of(2, 1, 0), actual.stream().map(r -> r.amount().intValue()).toList());
+    }
+
+    /**
+     * Method under test: {@link TransactionsRepository#findHistory(String, org.springframework.data.domain.Pageable)}
+     */
+    @Test
+    void testFindHistoryProjectsWithoutManagingEntities() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            transactionsRepository.save(new Transactions()
+                    .setAccountNumber("PROJECT")
+                    .setAmount(BigDecimal.valueOf(i))
+                    .setBalance(BigDecimal.TEN)
+                    .setCurrency(Currency.EUR)
+                    .setTimestamp(BASE.plusMinutes(i))
+                    .setTransactionFlow(TransactionFlow.INCOMING));
+        }
+        transactionsRepository.flush();
+        entityManager.clear();
+
+        // Act
+        List<TransactionsRecord> page = transactionsRepository.findHistory("PROJECT", PageRequest.of(1, 2));
+        List<TransactionsRecord> all = transactionsRepository.findHistory("PROJECT", Pageable.unpaged());
+
+        // Assert
+        assertEquals(List.of(2, 1), page.stream().map(r -> r.amount().intValue()).toList());
+        assertEquals(List.of(4, 3, 2, 1, 0), all.stream().map(r -> r.amount().intValue()).toList());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    /**
+     * Method under test: {@link TransactionsRepository#findHistoryPageAfter}
+     */
+    @Test
+    void testSeekPagesVisitEveryRowOnceWithTiedTimestamps() {
+        // Arrange: 7 rows where pairs share a timestamp, so the id tie-breaker decides page boundaries
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Transactions saved = transactionsRepository.save(new Transactions()
+                    .setAccountNumber("SEEK")
+                    .setAmount(BigDecimal.ONE)
+                    .setBalance(BigDecimal.TEN)
+                    .setCurrency(Currency.EUR)
+                    .setTimestamp(BASE.plusMinutes(i / 2))
+                    .setTransactionFlow(TransactionFlow.INCOMING));
+            expected.add(0, saved.getId());
+        }
+        transactionsRepository.flush();
+
+        // Act
+        List<Long> actual = new ArrayList<>();
+        Slice<TransactionsRowRecord> slice = transactionsRepository.findHistoryPage("SEEK", PageRequest.ofSize(3));
+        slice.forEach(t -> actual.add(t.id()));
+        while (slice.hasNext()) {
+            TransactionsRowRecord last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            slice = transactionsRepository.findHistoryPageAfter("SEEK", last.timestamp(), last.id(), PageRequest.ofSize(3));
+            slice.forEach(t -> actual.add(t.id()));
+        }
+
+        // Assert
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,270 @@
+package io.mintos.banking.services.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.TransferStatus;
+import io.mintos.banking.exception.AmountExceedsException;
+import io.mintos.banking.exception.TransferQueueClosedException;
+import io.mintos.banking.exception.TransferQueueFullException;
+import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.records.TransferResultRecord;
+import io.mintos.banking.records.TransferStatusRecord;
+import io.mintos.banking.services.BankingService;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+class AsyncTransferServiceImplTest {
+
+    private final BankingService bankingService = mock(BankingService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AsyncTransferServiceImpl asyncTransferService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        if (asyncTransferService != null)
+            asyncTransferService.stop();
+    }
+
+    /**
+     * Method under test: {@link AsyncTransferServiceImpl#submit(TransfareRecord)}
+     */
+    @Test
+    void testSubmitCompletesTransfer() throws InterruptedException {
+        // Arrange
+        start(true, 4, 100);
+        when(bankingService.transferFundsBatch(Mockito.any())).thenAnswer(invocation -> completedAll(invocation.getArgument(0)));
+
+        // Act
+        TransferStatusRecord pending = asyncTransferService.submit(transfer("A", "10"));
+
+        // Assert
+        assertEquals(TransferStatus.PENDING, pending.status());
+        assertEquals(TransferStatus.COMPLETED, awaitOutcome(pending.id()).status());
+        assertEquals(1, meterRegistry.get("banking.transfer.async.latency").timer().count());
+    }
+
+    /**
+     * Method under test: {@link AsyncTransferServiceImpl#submit(TransfareRecord)}
+     */
+    @Test
+    void testTransfersFromOneAccountAreGroupedInOrder() throws InterruptedException {
+        // Arrange
+        start(true, 4, 100);
+        List<List<TransfareRecord>> groups = new CopyOnWriteArrayList<>();
+        when(bankingService.transferFundsBatch(Mockito.any())).thenAnswer(invocation -> {
+            List<TransfareRecord> group = invocation.getArgument(0);
+            groups.add(group);
+            if (groups.size() == 1)
+                release.await(5, TimeUnit.SECONDS);
+            return completedAll(group);
+        });
+        TransferStatusRecord first = asyncTransferService.submit(transfer("A", "1"));
+        awaitCalls(groups, 1);
+
+        // Act
+        List<TransferStatusRecord> queued = IntStream.rangeClosed(2, 4)
+                .mapToObj(i -> asyncTransferService.submit(transfer("A", String.valueOf(i))))
+                .toList();
+        release.countDown();
+
+        // Assert
+        awaitOutcome(first.id());
+        for (TransferStatusRecord pending : queued) {
+            assertEquals(TransferStatus.COMPLETED, awaitOutcome(pending.id()).status());
+        }
+        assertEquals(2, groups.size());
+        assertEquals(List.of("2", "3", "4"), groups.get(1).stream().map(t -> t.amount().toPlainString()).toList());
+    }
+
+    /**
+     * Method under test: {@link AsyncTransferServiceImpl#submit(TransfareRecord)}
+     */
+    @Test
+    void testSubmitRejectsWhenShardIsFull() throws InterruptedException {
+        // Arrange
+        start(true, 1, 1);
+        List<List<TransfareRecord>> groups = new CopyOnWriteArrayList<>();
+        when(bankingService.transferFundsBatch(Mockito.any())).thenAnswer(invocation -> {
+            groups.add(invocation.getArgument(0));
+            release.await(5, TimeUnit.SECONDS);
+            return completedAll(invocation.getArgument(0));
+        });
+        asyncTransferService.submit(transfer("A", "1"));
+        awaitCalls(groups, 1);
+        asyncTransferService.submit(transfer("A", "2"));
+
+        // Act and Assert
+        assertThrows(TransferQueueFullException.class, () -> asyncTransferService.submit(transfer("A", "3")));
+        assertEquals(1.0, meterRegistry.get("banking.transfer.queue.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("banking.transfer.queue.depth").gauge().value());
+    }
+
+    /**
+     * Method under test: {@link AsyncTransferServiceImpl#apply(List)}
+     */
+    @Test
+    void testFailedGroupIsAppliedOneByOne() throws InterruptedException {
+        // Arrange
+        start(false, 1, 10);
+        when(bankingService.transferFundsBatch(Mockito.any())).thenThrow(new OptimisticLockingFailureException("Conflict"));
+        doThrow(new AmountExceedsException("Given amount exceeds available funds!"))
+                .when(bankingService).transferFunds(transfer("B", "2"));
+        List<AsyncTransferServiceImpl.QueuedTransfer> group = List.of(
+                new AsyncTransferServiceImpl.QueuedTransfer("1", transfer("A", "1"), System.nanoTime(), finished -> { }),
+                new AsyncTransferServiceImpl.QueuedTransfer("2", transfer("B", "2"), System.nanoTime(), finished -> { }));
+
+        // Act
+        asyncTransferService.apply(group);
+
+        // Assert
+        assertEquals(TransferStatus.COMPLETED, asyncTransferService.getStatus("1").orElseThrow().status());
+        TransferStatusRecord rejected = asyncTransferService.getStatus("2").orElseThrow();
+        assertEquals(TransferStatus.REJECTED, rejected.status());
+        assertEquals("Given amount exceeds available funds!", rejected.message());
+    }
+
+    /**
+     * Method under test: {@link AsyncTransferServiceImpl#getStatus(String)}
+     */
+    @Test
+    void testStatusesAreBoundedInNumber() {
+        // Arrange
+        start(false, 1, 10, 2);
+        when(bankingService.transferFundsBatch(Mockito.any())).thenAnswer(invocation -> completedAll(invocation.getArgument(0)));
+        List<AsyncTransferServiceImpl.QueuedTransfer> group = IntStream.range(0, 10)
+                .mapToObj(i -> new AsyncTransferServiceImpl.QueuedTransfer(String.valueOf(i), transfer("A", "1"), System.nanoTime(),
+                        finished -> { }))
+                .toList();
+
+        // Act
+        asyncTransferService.apply(group);
+
+        // Assert
+        long known = IntStream.range(0, 10).filter(i -> asyncTransferService.getStatus(String.valueOf(i)).isPresent()).count();
+        assertTrue(known <= 2, known + " statuses kept");
+    }
+
+    /**
+     * Method under test: {@link AsyncTransferServiceImpl#submit(TransfareRecord)}
+     */
+    @Test
+    void testSubmitWhenDisabled() throws InterruptedException {
+        // Arrange
+        start(false, 1, 10);
+
+        // Act and Assert
+        assertFalse(asyncTransferService.isEnabled());
+        assertThrows(IllegalStateException.class, () -> asyncTransferService.submit(transfer("A", "1")));
+    }
+
+    /**
+     * Method under test: {@link AsyncTransferServiceImpl#submit(TransfareRecord)}
+     */
+    @Test
+    void testSubmitWhileStopping() throws InterruptedException {
+        // Arrange
+        start(true, 1, 10);
+
+        // Act
+        asyncTransferService.stop();
+
+        // Assert
+        assertFalse(asyncTransferService.isEnabled());
+        assertThrows(TransferQueueClosedException.class, () -> asyncTransferService.submit(transfer("A", "1")));
+    }
+
+    /**
+     * Method under test: {@link AsyncTransferServiceImpl#submit(TransfareRecord, java.util.function.Consumer, java.util.function.Consumer)}
+     */
+    @Test
+    void testSubmitReportsAcceptedAndFinishedStatus() throws InterruptedException {
+        // Arrange
+        start(true, 1, 10);
+        when(bankingService.transferFundsBatch(Mockito.any())).thenAnswer(invocation -> completedAll(invocation.getArgument(0)));
+        List<TransferStatusRecord> accepted = new CopyOnWriteArrayList<>();
+        List<TransferStatusRecord> finished = new CopyOnWriteArrayList<>();
+
+        // Act
+        TransferStatusRecord pending = asyncTransferService.submit(transfer("A", "1"), accepted::add, finished::add);
+
+        // Assert
+        assertEquals(List.of(pending), accepted);
+        awaitCalls(finished, 1);
+        assertEquals(new TransferStatusRecord(pending.id(), TransferStatus.COMPLETED, null), finished.get(0));
+    }
+
+    /**
+     * Method under test: {@link AsyncTransferServiceImpl#submit(TransfareRecord, java.util.function.Consumer, java.util.function.Consumer)}
+     */
+    @Test
+    void testSubmitDoesNotQueueWhenAcceptanceFails() {
+        // Arrange
+        start(true, 1, 10);
+        List<TransferStatusRecord> accepted = new ArrayList<>();
+
+        // Act and Assert
+        assertThrows(IllegalStateException.class, () -> asyncTransferService.submit(transfer("A", "1"), pending -> {
+            accepted.add(pending);
+            throw new IllegalStateException("Database unavailable");
+        }, finished -> { }));
+        assertTrue(asyncTransferService.shardFor("A").isEmpty());
+        assertTrue(asyncTransferService.getStatus(accepted.get(0).id()).isEmpty());
+    }
+
+    private void start(boolean enabled, int shards, int capacity) {
+        start(enabled, shards, capacity, 100_000);
+    }
+
+    private void start(boolean enabled, int shards, int capacity, long statusMaxSize) {
+        asyncTransferService = new AsyncTransferServiceImpl(bankingService, enabled, shards, capacity, 100,
+                Duration.ofMinutes(1), statusMaxSize, meterRegistry);
+        asyncTransferService.start();
+    }
+
+    private static TransfareRecord transfer(String sender, String amount) {
+        return new TransfareRecord(sender, "RECEIVER", new BigDecimal(amount), Currency.EUR);
+    }
+
+    private static List<TransferResultRecord> completedAll(List<TransfareRecord> group) {
+        List<TransferResultRecord> results = new ArrayList<>();
+        for (int i = 0; i < group.size(); i++) {
+            results.add(new TransferResultRecord(i, TransferStatus.COMPLETED, null));
+        }
+        return results;
+    }
+
+    private TransferStatusRecord awaitOutcome(String transferId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        TransferStatusRecord status = asyncTransferService.getStatus(transferId).orElseThrow();
+        while (status.status() == TransferStatus.PENDING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            status = asyncTransferService.getStatus(transferId).orElseThrow();
+        }
+        return status;
+    }
+
+    private static void awaitCalls(List<?> calls, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (calls.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, calls.size());
+    }
+}
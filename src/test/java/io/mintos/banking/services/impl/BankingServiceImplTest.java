@@ -7,17 +7,36 @@ import static org.mockito.Mockito.*;
 import io.mintos.banking.domain.Account;
 import io.mintos.banking.domain.Client;
 import io.mintos.banking.domain.Transactions;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.StatementPeriod;
 import io.mintos.banking.enums.TransactionFlow;
+import io.mintos.banking.enums.TransferStatus;
 import io.mintos.banking.exception.AccountEqualException;
 import io.mintos.banking.exception.AmountExceedsException;
+import io.mintos.banking.exception.BatchTooLargeException;
 import io.mintos.banking.exception.CurrencyNotSupportedException;
+import io.mintos.banking.exception.InvalidCursorException;
 import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.StatementPeriodRecord;
+import io.mintos.banking.records.TransactionsPageRecord;
 import io.mintos.banking.records.TransactionsRecord;
+import io.mintos.banking.records.TransactionsRowRecord;
 import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.records.TransferResultRecord;
 import io.mintos.banking.repos.AccountRepository;
 import io.mintos.banking.repos.ClientRepository;
 import io.mintos.banking.repos.TransactionsRepository;
+import io.mintos.banking.utils.AccountLocks;
+import io.mintos.banking.utils.ClientAccountsCache;
 import io.mintos.banking.utils.CurrencyConverter;
+import io.mintos.banking.utils.HistoryCursor;
+import io.mintos.banking.utils.HotAccounts;
+import io.mintos.banking.utils.LedgerBalances;
+import io.mintos.banking.utils.OptimisticRetry;
+import io.mintos.banking.utils.StatementRollups;
+import io.mintos.banking.utils.TransactionJournal;
+import io.mintos.banking.utils.TransferMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -25,22 +44,49 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
 import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
-@ContextConfiguration(classes = {BankingServiceImpl.class})
+@ContextConfiguration(classes = {BankingServiceImpl.class, AccountLocks.class, OptimisticRetry.class,
+        TransferMetrics.class, SimpleMeterRegistry.class, BankingServiceImplTest.Conversions.class})
 @ExtendWith(SpringExtension.class)
 class BankingServiceImplTest {
+    static class Conversions {
+        // binds the Duration settings the way a Boot application context does
+        @Bean
+        static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+    }
+
     @MockBean
     private AccountRepository accountRepository;
 
@@ -56,6 +102,27 @@ class BankingServiceImplTest {
     @MockBean
     private TransactionsRepository transactionsRepository;
 
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ClientAccountsCache clientAccountsCache;
+
+    @MockBean
+    private LedgerBalances ledgerBalances;
+
+    @MockBean
+    private StatementRollups statementRollups;
+
+    @MockBean
+    private HotAccounts hotAccounts;
+
+    @MockBean
+    private TransactionJournal transactionJournal;
+
+    @Autowired
+    private SimpleMeterRegistry meterRegistry;
+
     /**
      * Method under test: {@link BankingServiceImpl#getAccountsByClient(String)}
      */
@@ -63,13 +130,13 @@ class BankingServiceImplTest {
     void testGetAccountsByClient() {
         // Arrange
         ArrayList<AccountRecord> accountRecordList = new ArrayList<>();
-        when(clientRepository.findClientByPersonalCode(Mockito.<String>any())).thenReturn(accountRecordList);
+        when(clientAccountsCache.getAccounts(Mockito.<String>any())).thenReturn(Optional.of(accountRecordList));
 
         // Act
         List<AccountRecord> actualAccountsByClient = bankingServiceImpl.getAccountsByClient("354651611615");
 
         // Assert
-        verify(clientRepository).findClientByPersonalCode("354651611615");
+        verify(clientAccountsCache).getAccounts("354651611615");
         assertTrue(actualAccountsByClient.isEmpty());
         assertSame(accountRecordList, actualAccountsByClient);
     }
@@ -80,12 +147,46 @@ class BankingServiceImplTest {
     @Test
     void testGetAccountsByClient2() {
         // Arrange
-        when(clientRepository.findClientByPersonalCode(Mockito.<String>any()))
+        when(clientAccountsCache.getAccounts(Mockito.<String>any()))
                 .thenThrow(new CurrencyNotSupportedException("An error occurred"));
 
         // Act and Assert
         assertThrows(CurrencyNotSupportedException.class, () -> bankingServiceImpl.getAccountsByClient("354651611615"));
-        verify(clientRepository).findClientByPersonalCode("354651611615");
+        verify(clientAccountsCache).getAccounts("354651611615");
+    }
+
+    /**
+     * Method under test: {@link BankingServiceImpl#getAccountsByClients(List)}
+     */
+    @Test
+    void testGetAccountsByClientsLeavesOutUnknownClients() {
+        // Arrange
+        AccountRecord account = new AccountRecord("LV01", new BigDecimal("10.00"), Currency.EUR);
+        Map<String, Optional<List<AccountRecord>>> cached = new HashMap<>();
+        cached.put("a", Optional.of(List.of(account)));
+        cached.put("missing", Optional.empty());
+        when(clientAccountsCache.getAccounts(Mockito.<Collection<String>>any())).thenReturn(cached);
+
+        // Act
+        Map<String, List<AccountRecord>> actualAccounts =
+                bankingServiceImpl.getAccountsByClients(Arrays.asList("a", "missing", null, "a"));
+
+        // Assert
+        assertEquals(Map.of("a", List.of(account)), actualAccounts);
+        verify(clientAccountsCache).getAccounts(new LinkedHashSet<>(List.of("a", "missing")));
+    }
+
+    /**
+     * Method under test: {@link BankingServiceImpl#getAccountsByClients(List)}
+     */
+    @Test
+    void testGetAccountsByClientsRejectsTooManyCodes() {
+        // Arrange
+        List<String> personalCodes = Collections.nCopies(1001, "a");
+
+        // Act and Assert
+        assertThrows(BatchTooLargeException.class, () -> bankingServiceImpl.getAccountsByClients(personalCodes));
+        verifyNoInteractions(clientAccountsCache);
     }
 
     /**
@@ -95,14 +196,14 @@ class BankingServiceImplTest {
     @Test
     void testGetTransactionHistory() {
         // Arrange
-        when(transactionsRepository.findAllByAccountNumber(Mockito.<String>any(), Mockito.<Pageable>any()))
-                .thenReturn(new PageImpl<>(new ArrayList<>()));
+        when(transactionsRepository.findHistory(Mockito.<String>any(), Mockito.<Pageable>any()))
+                .thenReturn(new ArrayList<>());
 
         // Act
         List<TransactionsRecord> actualTransactionHistory = bankingServiceImpl.getTransactionHistory("42", 2, 1);
 
         // Assert
-        verify(transactionsRepository).findAllByAccountNumber(eq("42"), Mockito.<Pageable>any());
+        verify(transactionsRepository).findHistory("42", PageRequest.of(2, 1));
         assertTrue(actualTransactionHistory.isEmpty());
     }
 
@@ -113,27 +214,17 @@ class BankingServiceImplTest {
     @Test
     void testGetTransactionHistory2() {
         // Arrange
-        Transactions transactions = new Transactions();
-        transactions.setAccountNumber("42");
-        transactions.setAmount(new BigDecimal("2.3"));
-        transactions.setBalance(new BigDecimal("2.3"));
-        transactions.setCurrency("GBP");
-        transactions.setId(1L);
-        transactions.setTimestamp(OffsetDateTime.of(LocalDate.of(1970, 1, 1), LocalTime.MIDNIGHT, ZoneOffset.UTC));
-        transactions.setTransactionFlow(TransactionFlow.INCOMING);
-
-        ArrayList<Transactions> content = new ArrayList<>();
-        content.add(transactions);
-        PageImpl<Transactions> pageImpl = new PageImpl<>(content);
-        when(transactionsRepository.findAllByAccountNumber(Mockito.<String>any(), Mockito.<Pageable>any()))
-                .thenReturn(pageImpl);
+        TransactionsRecord record = new TransactionsRecord("42", new BigDecimal("2.3"), new BigDecimal("2.3"), Currency.GBP,
+                OffsetDateTime.of(LocalDate.of(1970, 1, 1), LocalTime.MIDNIGHT, ZoneOffset.UTC), TransactionFlow.INCOMING);
+        when(transactionsRepository.findHistory(Mockito.<String>any(), Mockito.<Pageable>any()))
+                .thenReturn(List.of(record));
 
         // Act
         List<TransactionsRecord> actualTransactionHistory = bankingServiceImpl.getTransactionHistory("42", 2, 1);
 
         // Assert
-        verify(transactionsRepository).findAllByAccountNumber(eq("42"), Mockito.<Pageable>any());
-        assertEquals(1, actualTransactionHistory.size());
+        verify(transactionsRepository).findHistory(eq("42"), Mockito.<Pageable>any());
+        assertEquals(List.of(record), actualTransactionHistory);
     }
 
     /**
@@ -143,37 +234,15 @@ class BankingServiceImplTest {
     @Test
     void testGetTransactionHistory3() {
         // Arrange
-        Transactions transactions = new Transactions();
-        transactions.setAccountNumber("42");
-        transactions.setAmount(new BigDecimal("2.3"));
-        transactions.setBalance(new BigDecimal("2.3"));
-        transactions.setCurrency("GBP");
-        transactions.setId(1L);
-        transactions.setTimestamp(OffsetDateTime.of(LocalDate.of(1970, 1, 1), LocalTime.MIDNIGHT, ZoneOffset.UTC));
-        transactions.setTransactionFlow(TransactionFlow.INCOMING);
-
-        Transactions transactions2 = new Transactions();
-        transactions2.setAccountNumber("3");
-        transactions2.setAmount(new BigDecimal("2.3"));
-        transactions2.setBalance(new BigDecimal("2.3"));
-        transactions2.setCurrency("USD");
-        transactions2.setId(2L);
-        transactions2.setTimestamp(OffsetDateTime.of(LocalDate.of(1970, 1, 1), LocalTime.MIDNIGHT, ZoneOffset.UTC));
-        transactions2.setTransactionFlow(TransactionFlow.OUTGOING);
-
-        ArrayList<Transactions> content = new ArrayList<>();
-        content.add(transactions2);
-        content.add(transactions);
-        PageImpl<Transactions> pageImpl = new PageImpl<>(content);
-        when(transactionsRepository.findAllByAccountNumber(Mockito.<String>any(), Mockito.<Pageable>any()))
-                .thenReturn(pageImpl);
+        when(transactionsRepository.findHistory(Mockito.<String>any(), Mockito.<Pageable>any()))
+                .thenReturn(new ArrayList<>());
 
         // Act
-        List<TransactionsRecord> actualTransactionHistory = bankingServiceImpl.getTransactionHistory("42", 2, 1);
+        bankingServiceImpl.getTransactionHistory("42", null, null);
 
         // Assert
-        verify(transactionsRepository).findAllByAccountNumber(eq("42"), Mockito.<Pageable>any());
-        assertEquals(2, actualTransactionHistory.size());
+        verify(transactionsRepository).findHistory("42", Pageable.unpaged());
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
     }
 
     /**
@@ -183,12 +252,105 @@ class BankingServiceImplTest {
     @Test
     void testGetTransactionHistory4() {
         // Arrange
-        when(transactionsRepository.findAllByAccountNumber(Mockito.<String>any(), Mockito.<Pageable>any()))
+        when(transactionsRepository.findHistory(Mockito.<String>any(), Mockito.<Pageable>any()))
                 .thenThrow(new CurrencyNotSupportedException("Transfer currency does not match receiver currency!"));
 
         // Act and Assert
         assertThrows(CurrencyNotSupportedException.class, () -> bankingServiceImpl.getTransactionHistory("42", 2, 1));
-        verify(transactionsRepository).findAllByAccountNumber(eq("42"), Mockito.<Pageable>any());
+        verify(transactionsRepository).findHistory(eq("42"), Mockito.<Pageable>any());
+    }
+
+    /**
+     * Method under test:
+     * {@link BankingServiceImpl#getTransactionHistoryPage(String, String, Integer)}
+     */
+    @Test
+    void testGetTransactionHistoryPageFirstPage() {
+        // Arrange
+        TransactionsRowRecord first = rowAt(2L, OffsetDateTime.of(LocalDate.of(1970, 1, 2), LocalTime.MIDNIGHT, ZoneOffset.UTC));
+        TransactionsRowRecord second = rowAt(1L, OffsetDateTime.of(LocalDate.of(1970, 1, 1), LocalTime.MIDNIGHT, ZoneOffset.UTC));
+        when(transactionsRepository.findHistoryPage(eq("42"), Mockito.<Pageable>any()))
+                .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.ofSize(2), true));
+
+        // Act
+        TransactionsPageRecord actualPage = bankingServiceImpl.getTransactionHistoryPage("42", "", 2);
+
+        // Assert
+        assertEquals(List.of(first.toRecord(), second.toRecord()), actualPage.transactions());
+        assertEquals(new HistoryCursor(second.timestamp(), 1L), HistoryCursor.decode(actualPage.nextCursor()));
+        verify(transactionsRepository).findHistoryPage("42", PageRequest.ofSize(2));
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    /**
+     * Method under test:
+     * {@link BankingServiceImpl#getTransactionHistoryPage(String, String, Integer)}
+     */
+    @Test
+    void testGetTransactionHistoryPageSeeksPastCursor() {
+        // Arrange
+        OffsetDateTime timestamp = OffsetDateTime.of(LocalDate.of(1970, 1, 1), LocalTime.MIDNIGHT, ZoneOffset.UTC);
+        String cursor = new HistoryCursor(timestamp, 7L).encode();
+        when(transactionsRepository.findHistoryPageAfter(eq("42"), eq(timestamp), eq(7L), Mockito.<Pageable>any()))
+                .thenReturn(new SliceImpl<>(List.of(rowAt(6L, timestamp)), PageRequest.ofSize(50), false));
+
+        // Act
+        TransactionsPageRecord actualPage = bankingServiceImpl.getTransactionHistoryPage("42", cursor, null);
+
+        // Assert
+        assertEquals(1, actualPage.transactions().size());
+        assertNull(actualPage.nextCursor());
+        verify(transactionsRepository).findHistoryPageAfter("42", timestamp, 7L, PageRequest.ofSize(50));
+    }
+
+    /**
+     * Method under test:
+     * {@link BankingServiceImpl#getTransactionHistoryPage(String, String, Integer)}
+     */
+    @Test
+    void testGetTransactionHistoryPageRejectsMalformedCursor() {
+        // Arrange, Act and Assert
+        assertThrows(InvalidCursorException.class, () -> bankingServiceImpl.getTransactionHistoryPage("42", "not a cursor", 10));
+        verifyNoInteractions(transactionsRepository);
+    }
+
+    /**
+     * Method under test:
+     * {@link BankingServiceImpl#getStatementSummary(String, StatementPeriod, LocalDate, LocalDate)}
+     */
+    @Test
+    void testGetStatementSummaryDefaultsToWholeHistory() {
+        // Arrange
+        when(statementRollups.summarize(eq("42"), eq(StatementPeriod.DAY), Mockito.any(), Mockito.any()))
+                .thenReturn(List.of());
+
+        // Act
+        List<StatementPeriodRecord> actualSummary = bankingServiceImpl.getStatementSummary("42", null, null, null);
+
+        // Assert
+        assertTrue(actualSummary.isEmpty());
+        verify(statementRollups).summarize("42", StatementPeriod.DAY, LocalDate.EPOCH, LocalDate.now(ZoneOffset.UTC));
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    /**
+     * Method under test:
+     * {@link BankingServiceImpl#streamTransactionHistory(String, Consumer)}
+     */
+    @Test
+    void testStreamTransactionHistoryInReadOnlyTransaction() {
+        // Arrange
+        TransactionsRecord record = new TransactionsRecord("42", new BigDecimal("2.3"), new BigDecimal("2.3"), Currency.GBP,
+                OffsetDateTime.of(LocalDate.of(1970, 1, 1), LocalTime.MIDNIGHT, ZoneOffset.UTC), TransactionFlow.INCOMING);
+        when(transactionsRepository.streamByAccountNumber("42")).thenReturn(Stream.of(record, record));
+        List<TransactionsRecord> actualRows = new ArrayList<>();
+
+        // Act
+        bankingServiceImpl.streamTransactionHistory("42", actualRows::add);
+
+        // Assert
+        assertEquals(2, actualRows.size());
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
     }
 
     /**
@@ -198,7 +360,7 @@ class BankingServiceImplTest {
     void testTransferFunds() {
         // Arrange, Act and Assert
         AccountEqualException exception = assertThrows(AccountEqualException.class,
-                () -> bankingServiceImpl.transferFunds(new TransfareRecord("386545", "386545", new BigDecimal("23"), "EUR")));
+                () -> bankingServiceImpl.transferFunds(new TransfareRecord("386545", "386545", new BigDecimal("23"), Currency.EUR)));
         assertAll( () -> assertNotNull(exception),
                 () -> assertEquals("Sender and receiver accounts must differ!", exception.getMessage()));
     }
@@ -220,7 +382,7 @@ class BankingServiceImplTest {
         account.setAccountNumber("42");
         account.setBalance(new BigDecimal("2.3"));
         account.setClient(client);
-        account.setCurrency("GBP");
+        account.setCurrency(Currency.GBP);
         account.setId(1L);
 
         Client client2 = new Client();
@@ -234,7 +396,7 @@ class BankingServiceImplTest {
         account2.setAccountNumber("42");
         account2.setBalance(new BigDecimal("2.3"));
         account2.setClient(client2);
-        account2.setCurrency("GBP");
+        account2.setCurrency(Currency.GBP);
         account2.setId(1L);
         when(accountRepository.save(Mockito.<Account>any())).thenReturn(account2);
         when(accountRepository.getAccountByAccountNumber(Mockito.<String>any())).thenReturn(account);
@@ -243,7 +405,7 @@ class BankingServiceImplTest {
         transactions.setAccountNumber("42");
         transactions.setAmount(new BigDecimal("2.3"));
         transactions.setBalance(new BigDecimal("2.3"));
-        transactions.setCurrency("GBP");
+        transactions.setCurrency(Currency.GBP);
         transactions.setId(1L);
         transactions.setTimestamp(OffsetDateTime.of(LocalDate.of(1970, 1, 1), LocalTime.MIDNIGHT, ZoneOffset.UTC));
         transactions.setTransactionFlow(TransactionFlow.INCOMING);
@@ -251,12 +413,13 @@ class BankingServiceImplTest {
 
         // Act
         bankingServiceImpl.transferFunds(
-                new TransfareRecord("654813545", "3", new BigDecimal("2.3"), "GBP"));
+                new TransfareRecord("654813545", "3", new BigDecimal("2.3"), Currency.GBP));
 
         // Assert
         verify(accountRepository, atLeast(1)).getAccountByAccountNumber(Mockito.<String>any());
         verify(accountRepository, atLeast(1)).save(Mockito.<Account>any());
         verify(transactionsRepository, atLeast(1)).save(Mockito.<Transactions>any());
+        verify(clientAccountsCache).invalidate(Set.of("Personal Code"));
     }
 
     /**
@@ -276,7 +439,7 @@ class BankingServiceImplTest {
         account.setAccountNumber("42");
         account.setBalance(new BigDecimal("2.3"));
         account.setClient(client);
-        account.setCurrency("GBP");
+        account.setCurrency(Currency.GBP);
         account.setId(1L);
 
         Client client2 = new Client();
@@ -290,7 +453,7 @@ class BankingServiceImplTest {
         account2.setAccountNumber("345782452");
         account2.setBalance(new BigDecimal("2.3"));
         account2.setClient(client2);
-        account2.setCurrency("GBP");
+        account2.setCurrency(Currency.GBP);
         account2.setId(1L);
 
         when(accountRepository.getAccountByAccountNumber(Mockito.<String>any())).thenReturn(account);
@@ -299,7 +462,7 @@ class BankingServiceImplTest {
 
         // Act and Assert
         CurrencyNotSupportedException exception = assertThrows(CurrencyNotSupportedException.class, () -> bankingServiceImpl.transferFunds(
-                new TransfareRecord("48461816", "345782452", new BigDecimal("2.3"), "USD")));
+                new TransfareRecord("48461816", "345782452", new BigDecimal("2.3"), Currency.USD)));
 
         assertAll( () -> assertNotNull(exception),
                 () -> assertEquals("Transfer currency does not match receiver currency!", exception.getMessage()));
@@ -307,19 +470,172 @@ class BankingServiceImplTest {
         verify(accountRepository, atLeast(0)).getAccountByAccountNumber(Mockito.<String>any());
     }
 
+    /**
+     * Method under test: {@link BankingServiceImpl#transferFunds(TransfareRecord)}
+     */
+    @Test
+    void testTransferFundsRecordsAppliedExchangeRate() {
+        // Arrange
+        Client client = new Client().setPersonalCode("Personal Code");
+        when(accountRepository.getAccountByAccountNumber("EUR1")).thenReturn(new Account()
+                .setAccountNumber("EUR1").setBalance(new BigDecimal("100.00")).setCurrency(Currency.EUR).setClient(client));
+        when(accountRepository.getAccountByAccountNumber("USD1")).thenReturn(new Account()
+                .setAccountNumber("USD1").setBalance(new BigDecimal("0.00")).setCurrency(Currency.USD).setClient(client));
+        when(currencyConverter.getRate(Currency.EUR, Currency.USD)).thenReturn(new BigDecimal("1.085184"));
+
+        // Act
+        bankingServiceImpl.transferFunds(new TransfareRecord("EUR1", "USD1", new BigDecimal("10.00"), Currency.USD));
+
+        // Assert
+        ArgumentCaptor<Transactions> captor = ArgumentCaptor.forClass(Transactions.class);
+        verify(transactionsRepository, times(2)).save(captor.capture());
+        Transactions outgoing = captor.getAllValues().get(0);
+        Transactions incoming = captor.getAllValues().get(1);
+        assertEquals(new BigDecimal("10.00"), outgoing.getAmount());
+        assertEquals(new BigDecimal("10.85"), incoming.getAmount());
+        assertEquals(new BigDecimal("1.085184"), outgoing.getExchangeRate());
+        assertEquals(new BigDecimal("1.085184"), incoming.getExchangeRate());
+    }
+
+    /**
+     * Method under test: {@link BankingServiceImpl#transferFunds(TransfareRecord)}
+     */
+    @Test
+    void testTransferFundsRecordsStageTimings() {
+        // Arrange
+        Client client = new Client().setPersonalCode("Personal Code");
+        when(accountRepository.getAccountByAccountNumber("EUR1")).thenReturn(new Account()
+                .setAccountNumber("EUR1").setBalance(new BigDecimal("100.00")).setCurrency(Currency.EUR).setClient(client));
+        when(accountRepository.getAccountByAccountNumber("USD1")).thenReturn(new Account()
+                .setAccountNumber("USD1").setBalance(new BigDecimal("0.00")).setCurrency(Currency.USD).setClient(client));
+        when(currencyConverter.getRate(Currency.EUR, Currency.USD)).thenReturn(new BigDecimal("1.085"));
+        long before = stageCount("commit", "EURUSD", "success");
+
+        // Act
+        bankingServiceImpl.transferFunds(new TransfareRecord("EUR1", "USD1", new BigDecimal("10.00"), Currency.USD));
+        assertThrows(AmountExceedsException.class, () -> bankingServiceImpl.transferFunds(
+                new TransfareRecord("EUR1", "USD1", new BigDecimal("1000.00"), Currency.USD)));
+
+        // Assert
+        assertEquals(before + 1, stageCount("commit", "EURUSD", "success"));
+        assertTrue(stageCount("convert", "EURUSD", "success") >= 2);
+        assertTrue(stageCount("save", "EURUSD", "failure") >= 1);
+        assertTrue(meterRegistry.get("banking.transfer.duration").tags("pair", "EURUSD", "outcome", "rejected")
+                .timer().count() >= 1);
+        assertTrue(meterRegistry.get("banking.transfer.failures").tag("exception", "AmountExceedsException")
+                .counter().count() >= 1);
+    }
+
+    /**
+     * Method under test: {@link BankingServiceImpl#transferFunds(TransfareRecord, Runnable)}
+     */
+    @Test
+    void testTransferFundsRunsBeforeCommitInTheTransfersTransaction() {
+        // Arrange
+        Client client = new Client().setPersonalCode("Personal Code");
+        when(accountRepository.getAccountByAccountNumber("EUR1")).thenReturn(new Account()
+                .setAccountNumber("EUR1").setBalance(new BigDecimal("100.00")).setCurrency(Currency.EUR).setClient(client));
+        when(accountRepository.getAccountByAccountNumber("EUR2")).thenReturn(new Account()
+                .setAccountNumber("EUR2").setBalance(new BigDecimal("50.00")).setCurrency(Currency.EUR).setClient(client));
+        Runnable beforeCommit = mock(Runnable.class);
+
+        // Act
+        bankingServiceImpl.transferFunds(new TransfareRecord("EUR1", "EUR2", new BigDecimal("10.00"), Currency.EUR), beforeCommit);
+
+        // Assert
+        InOrder inOrder = inOrder(transactionManager, transactionsRepository, beforeCommit);
+        inOrder.verify(transactionManager).getTransaction(Mockito.any());
+        inOrder.verify(transactionsRepository, times(2)).save(Mockito.any());
+        inOrder.verify(beforeCommit).run();
+        inOrder.verify(transactionManager).commit(Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link BankingServiceImpl#runsBeforeCommit()}
+     */
+    @Test
+    void testRunsBeforeCommitOutsideLedgerModeEvenWithJournal() {
+        // Arrange
+        when(transactionJournal.isEnabled()).thenReturn(true);
+
+        // Act and Assert: the journal only takes over ledger transfers
+        assertTrue(bankingServiceImpl.runsBeforeCommit());
+    }
+
+    /**
+     * Method under test: {@link BankingServiceImpl#transferFunds(TransfareRecord)}
+     */
+    @Test
+    void testTransferFundsCreditsHotReceiverSlot() {
+        // Arrange
+        Client client = new Client().setPersonalCode("Personal Code");
+        Account sender = new Account()
+                .setAccountNumber("EUR1").setBalance(new BigDecimal("100.00")).setCurrency(Currency.EUR).setClient(client);
+        Account hot = new Account()
+                .setAccountNumber("HOT").setBalance(new BigDecimal("500.00")).setCurrency(Currency.EUR).setClient(client);
+        when(accountRepository.getAccountByAccountNumber("EUR1")).thenReturn(sender);
+        when(accountRepository.getAccountByAccountNumber("HOT")).thenReturn(hot);
+        when(hotAccounts.isHot("HOT")).thenReturn(true);
+        when(hotAccounts.credit(hot, new BigDecimal("10.00")))
+                .thenReturn(new HotAccounts.Credit(3, new BigDecimal("530.00")));
+
+        // Act
+        bankingServiceImpl.transferFunds(new TransfareRecord("EUR1", "HOT", new BigDecimal("10.00"), Currency.EUR));
+
+        // Assert
+        verify(hotAccounts).provision("HOT");
+        assertEquals(new BigDecimal("90.00"), sender.getBalance());
+        assertEquals(new BigDecimal("500.00"), hot.getBalance());
+        verify(hotAccounts, never()).sweep(Mockito.any());
+        verify(statementRollups).record(Mockito.<Collection<Transactions>>argThat(postings ->
+                postings.size() == 1 && postings.iterator().next().getBalance().equals(new BigDecimal("530.00"))), eq(3));
+    }
+
+    /**
+     * Method under test: {@link BankingServiceImpl#transferFunds(TransfareRecord)}
+     */
+    @Test
+    void testTransferFundsSweepsHotSenderThatRowDoesNotCover() {
+        // Arrange
+        Client client = new Client().setPersonalCode("Personal Code");
+        Account hot = new Account()
+                .setAccountNumber("HOT").setBalance(new BigDecimal("5.00")).setCurrency(Currency.EUR).setClient(client);
+        when(accountRepository.getAccountByAccountNumber("HOT")).thenReturn(hot);
+        when(accountRepository.getAccountByAccountNumber("EUR1")).thenReturn(new Account()
+                .setAccountNumber("EUR1").setBalance(new BigDecimal("0.00")).setCurrency(Currency.EUR).setClient(client));
+        when(hotAccounts.isHot("HOT")).thenReturn(true);
+        doAnswer(invocation -> hot.setBalance(hot.getBalance().add(new BigDecimal("20.00"))))
+                .when(hotAccounts).sweep(hot);
+        when(hotAccounts.balanceOf(hot)).thenAnswer(invocation -> hot.getBalance());
+
+        // Act
+        bankingServiceImpl.transferFunds(new TransfareRecord("HOT", "EUR1", new BigDecimal("10.00"), Currency.EUR));
+
+        // Assert
+        verify(hotAccounts).sweep(hot);
+        verify(hotAccounts, never()).credit(Mockito.any(), Mockito.any());
+        assertEquals(new BigDecimal("15.00"), hot.getBalance());
+        verify(statementRollups).record(Mockito.<Collection<Transactions>>argThat(postings -> postings.size() == 2));
+    }
+
+    private long stageCount(String stage, String pair, String outcome) {
+        return meterRegistry.get("banking.transfer.stage").tags("stage", stage, "pair", pair, "outcome", outcome)
+                .timer().count();
+    }
+
     /**
      * Method under test: {@link BankingServiceImpl#clientExists(String)}
      */
     @Test
     void testClientExists() {
         // Arrange
-        when(clientRepository.existsByPersonalCode(Mockito.<String>any())).thenReturn(true);
+        when(clientAccountsCache.getAccounts(Mockito.<String>any())).thenReturn(Optional.of(List.of()));
 
         // Act
         boolean actualClientExistsResult = bankingServiceImpl.clientExists("345345258");
 
         // Assert
-        verify(clientRepository).existsByPersonalCode("345345258");
+        verify(clientAccountsCache).getAccounts("345345258");
         assertTrue(actualClientExistsResult);
     }
 
@@ -329,13 +645,13 @@ class BankingServiceImplTest {
     @Test
     void testClientExists2() {
         // Arrange
-        when(clientRepository.existsByPersonalCode(Mockito.<String>any())).thenReturn(false);
+        when(clientAccountsCache.getAccounts(Mockito.<String>any())).thenReturn(Optional.empty());
 
         // Act
         boolean actualClientExistsResult = bankingServiceImpl.clientExists("345248842");
 
         // Assert
-        verify(clientRepository).existsByPersonalCode("345248842");
+        verify(clientAccountsCache).getAccounts("345248842");
         assertFalse(actualClientExistsResult);
     }
 
@@ -345,18 +661,18 @@ class BankingServiceImplTest {
     @Test
     void testClientExists3() {
         // Arrange
-        when(clientRepository.existsByPersonalCode(Mockito.<String>any()))
+        when(clientAccountsCache.getAccounts(Mockito.<String>any()))
                 .thenThrow(new CurrencyNotSupportedException("Transfer currency does not match receiver currency!"));
 
         // Act and Assert
         assertThrows(CurrencyNotSupportedException.class, () -> bankingServiceImpl.clientExists("345452782"));
-        verify(clientRepository).existsByPersonalCode("345452782");
+        verify(clientAccountsCache).getAccounts("345452782");
     }
 
     @Test
     void testValidateAmount() {
         // Arrange
-        TransfareRecord transfareRecord = new TransfareRecord("3", "3", new BigDecimal("2.3"), "GBP");
+        TransfareRecord transfareRecord = new TransfareRecord("3", "3", new BigDecimal("2.3"), Currency.GBP);
 
         Client client = new Client();
         client.setAccounts(new HashSet<>());
@@ -369,7 +685,7 @@ class BankingServiceImplTest {
         senderAccount.setAccountNumber("42");
         senderAccount.setBalance(new BigDecimal("2.3"));
         senderAccount.setClient(client);
-        senderAccount.setCurrency("GBP");
+        senderAccount.setCurrency(Currency.GBP);
         senderAccount.setId(1L);
 
         // Act
@@ -377,7 +693,7 @@ class BankingServiceImplTest {
 
         // Assert that nothing has changed
         assertEquals("42", senderAccount.getAccountNumber());
-        assertEquals("GBP", senderAccount.getCurrency());
+        assertEquals(Currency.GBP, senderAccount.getCurrency());
         assertEquals(1L, senderAccount.getId().longValue());
         BigDecimal expectedBalance = new BigDecimal("2.3");
         assertEquals(expectedBalance, senderAccount.getBalance());
@@ -391,7 +707,7 @@ class BankingServiceImplTest {
     @Test
     void testValidateAmount2() {
         // Arrange
-        TransfareRecord transfareRecord = new TransfareRecord("3", "3", new BigDecimal("4.5"), "GBP");
+        TransfareRecord transfareRecord = new TransfareRecord("3", "3", new BigDecimal("4.5"), Currency.GBP);
 
         Client client = new Client();
         client.setAccounts(new HashSet<>());
@@ -404,7 +720,7 @@ class BankingServiceImplTest {
         senderAccount.setAccountNumber("42");
         senderAccount.setBalance(new BigDecimal("2.3"));
         senderAccount.setClient(client);
-        senderAccount.setCurrency("GBP");
+        senderAccount.setCurrency(Currency.GBP);
         senderAccount.setId(1L);
 
         // Act and Assert
@@ -415,7 +731,7 @@ class BankingServiceImplTest {
     void testConvert() {
         // Arrange
         BigDecimal amount = new BigDecimal("2.3");
-        TransfareRecord transfareRecord = new TransfareRecord("3", "3", amount, "GBP");
+        TransfareRecord transfareRecord = new TransfareRecord("3", "3", amount, Currency.GBP);
 
         Client client = new Client();
         client.setAccounts(new HashSet<>());
@@ -428,15 +744,16 @@ class BankingServiceImplTest {
         senderAccount.setAccountNumber("42");
         senderAccount.setBalance(new BigDecimal("2.3"));
         senderAccount.setClient(client);
-        senderAccount.setCurrency("GBP");
+        senderAccount.setCurrency(Currency.GBP);
         senderAccount.setId(1L);
 
         // Act
-        BigDecimal actualConvertResult = bankingServiceImpl.convert(transfareRecord, senderAccount);
+        BankingServiceImpl.Conversion actualConvertResult = bankingServiceImpl.convert(transfareRecord, senderAccount);
 
         // Assert
-        assertEquals(new BigDecimal("2.3"), actualConvertResult);
-        assertSame(amount, actualConvertResult);
+        assertEquals(new BigDecimal("2.3"), actualConvertResult.amount());
+        assertSame(amount, actualConvertResult.amount());
+        assertNull(actualConvertResult.exchangeRate());
     }
 
     /**
@@ -446,10 +763,9 @@ class BankingServiceImplTest {
     @Test
     void testConvert2() {
         // Arrange
-        BigDecimal bigDecimal = new BigDecimal("2.3");
-        when(currencyConverter.convert(Mockito.<String>any(), Mockito.<String>any(), Mockito.<BigDecimal>any()))
-                .thenReturn(bigDecimal);
-        TransfareRecord transfareRecord = new TransfareRecord("3", "3", new BigDecimal("2.3"), "USD");
+        BigDecimal rate = new BigDecimal("1.25");
+        when(currencyConverter.getRate(Mockito.<Currency>any(), Mockito.<Currency>any())).thenReturn(rate);
+        TransfareRecord transfareRecord = new TransfareRecord("3", "3", new BigDecimal("2.3"), Currency.USD);
 
         Client client = new Client();
         client.setAccounts(new HashSet<>());
@@ -462,16 +778,16 @@ class BankingServiceImplTest {
         senderAccount.setAccountNumber("42");
         senderAccount.setBalance(new BigDecimal("2.3"));
         senderAccount.setClient(client);
-        senderAccount.setCurrency("GBP");
+        senderAccount.setCurrency(Currency.GBP);
         senderAccount.setId(1L);
 
         // Act
-        BigDecimal actualConvertResult = bankingServiceImpl.convert(transfareRecord, senderAccount);
+        BankingServiceImpl.Conversion actualConvertResult = bankingServiceImpl.convert(transfareRecord, senderAccount);
 
         // Assert
-        verify(currencyConverter).convert(eq("GBP"), eq("USD"), Mockito.<BigDecimal>any());
-        assertEquals(new BigDecimal("2.3"), actualConvertResult);
-        assertSame(bigDecimal, actualConvertResult);
+        verify(currencyConverter).getRate(Currency.GBP, Currency.USD);
+        assertEquals(new BigDecimal("2.88"), actualConvertResult.amount());
+        assertSame(rate, actualConvertResult.exchangeRate());
     }
 
     /**
@@ -481,9 +797,9 @@ class BankingServiceImplTest {
     @Test
     void testConvert3() {
         // Arrange
-        when(currencyConverter.convert(Mockito.<String>any(), Mockito.<String>any(), Mockito.<BigDecimal>any()))
+        when(currencyConverter.getRate(Mockito.<Currency>any(), Mockito.<Currency>any()))
                 .thenThrow(new CurrencyNotSupportedException("An error occurred"));
-        TransfareRecord transfareRecord = new TransfareRecord("3", "3", new BigDecimal("2.3"), "USD");
+        TransfareRecord transfareRecord = new TransfareRecord("3", "3", new BigDecimal("2.3"), Currency.USD);
 
         Client client = new Client();
         client.setAccounts(new HashSet<>());
@@ -496,17 +812,77 @@ class BankingServiceImplTest {
         senderAccount.setAccountNumber("42");
         senderAccount.setBalance(new BigDecimal("2.3"));
         senderAccount.setClient(client);
-        senderAccount.setCurrency("GBP");
+        senderAccount.setCurrency(Currency.GBP);
         senderAccount.setId(1L);
 
         // Act and Assert
         assertThrows(CurrencyNotSupportedException.class, () -> bankingServiceImpl.convert(transfareRecord, senderAccount));
-        verify(currencyConverter).convert(eq("GBP"), eq("USD"), Mockito.<BigDecimal>any());
+        verify(currencyConverter).getRate(Currency.GBP, Currency.USD);
     }
 
     @Test
     void testValidateCurrency() {
         // Arrange, Act and Assert
-        assertThrows(CurrencyNotSupportedException.class, () -> bankingServiceImpl.validateCurrency("Currency"));
+        assertThrows(CurrencyNotSupportedException.class, () -> bankingServiceImpl.validateCurrency(Currency.fromCode("Currency")));
+    }
+
+    /**
+     * Method under test: {@link BankingServiceImpl#transferFundsBatch(List)}
+     */
+    @Test
+    void testTransferFundsBatch() {
+        // Arrange
+        Account sender = new Account().setAccountNumber("1").setBalance(new BigDecimal("10.00")).setCurrency(Currency.EUR)
+                .setClient(new Client().setPersonalCode("A"));
+        Account receiver = new Account().setAccountNumber("2").setBalance(new BigDecimal("0.00")).setCurrency(Currency.EUR)
+                .setClient(new Client().setPersonalCode("B"));
+        when(accountRepository.findAllByAccountNumberIn(Mockito.any())).thenReturn(List.of(sender, receiver));
+
+        // Act
+        List<TransferResultRecord> actualResults = bankingServiceImpl.transferFundsBatch(List.of(
+                new TransfareRecord("1", "2", new BigDecimal("6.00"), Currency.EUR),
+                new TransfareRecord("1", "2", new BigDecimal("6.00"), Currency.EUR),
+                new TransfareRecord("1", "1", new BigDecimal("1.00"), Currency.EUR),
+                new TransfareRecord("1", "3", new BigDecimal("1.00"), Currency.EUR),
+                new TransfareRecord("2", "1", new BigDecimal("1.00"), null)));
+
+        // Assert
+        assertEquals(5, actualResults.size());
+        assertEquals(TransferStatus.COMPLETED, actualResults.get(0).status());
+        assertEquals("Given amount exceeds available funds!", actualResults.get(1).message());
+        assertEquals("Sender and receiver accounts must differ!", actualResults.get(2).message());
+        assertEquals("Account 3 does not exist!", actualResults.get(3).message());
+        assertEquals(TransferStatus.REJECTED, actualResults.get(4).status());
+        assertEquals(new BigDecimal("4.00"), sender.getBalance());
+        assertEquals(new BigDecimal("6.00"), receiver.getBalance());
+        verify(accountRepository).findAllByAccountNumberIn(Mockito.any());
+        verify(accountRepository).saveAll(Mockito.<Iterable<Account>>any());
+        verify(transactionsRepository).saveAll(Mockito.<Iterable<Transactions>>argThat(ledger -> {
+            int size = 0;
+            for (Transactions ignored : ledger) size++;
+            return size == 2;
+        }));
+        verify(clientAccountsCache).invalidate(Set.of("A", "B"));
+    }
+
+    /**
+     * Method under test: {@link BankingServiceImpl#transferFundsBatch(List)}
+     */
+    @Test
+    void testTransferFundsBatchTooLarge() {
+        // Arrange
+        List<TransfareRecord> transfareRecords = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            transfareRecords.add(new TransfareRecord("1", "2", BigDecimal.ONE, Currency.EUR));
+        }
+
+        // Act and Assert
+        assertThrows(BatchTooLargeException.class, () -> bankingServiceImpl.transferFundsBatch(transfareRecords));
+        verifyNoInteractions(accountRepository);
+    }
+
+    private static TransactionsRowRecord rowAt(Long id, OffsetDateTime timestamp) {
+        return new TransactionsRowRecord(id, "42", new BigDecimal("2.3"), new BigDecimal("2.3"), Currency.GBP, timestamp,
+                TransactionFlow.INCOMING);
     }
 }
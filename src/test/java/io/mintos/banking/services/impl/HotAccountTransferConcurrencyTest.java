@@ -0,0 +1,97 @@
+package io.mintos.banking.services.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.mintos.banking.domain.Account;
+import io.mintos.banking.domain.BalanceSlot;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.StatementPeriod;
+import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.StatementPeriodRecord;
+import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.repos.BalanceSlotRepository;
+import io.mintos.banking.utils.HotAccounts;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the {@link TransferConcurrencyTest} scenario with two of the accounts striped, including transfers between
+ * them.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"exchange.cache.initial-delay=PT1H", "banking.transfer.concurrency-mode=LOCKING",
+                "banking.hot-accounts.account-numbers=STRESS0,STRESS1", "banking.hot-accounts.slots=4",
+                "banking.hot-accounts.rebalance-interval=PT1H", "spring.datasource.url=jdbc:h2:mem:hot"})
+class HotAccountTransferConcurrencyTest extends TransferConcurrencyTest {
+
+    @Autowired
+    private HotAccounts hotAccounts;
+
+    @Autowired
+    private BalanceSlotRepository balanceSlotRepository;
+
+    /**
+     * The slots outlive the accounts, which the next test creates again under the same numbers.
+     */
+    @AfterEach
+    void emptySlots() {
+        List<BalanceSlot> slots = balanceSlotRepository.findAll();
+        slots.forEach(slot -> slot.setBalance(BigDecimal.ZERO));
+        balanceSlotRepository.saveAll(slots);
+    }
+
+    @Override
+    BigDecimal balanceOf(String accountNumber) {
+        return hotAccounts.balanceOf(accountRepository.getAccountByAccountNumber(accountNumber));
+    }
+
+    /**
+     * Concurrent credits to a hot account are not ordered, so its postings carry the balance each transfer saw.
+     */
+    @Override
+    boolean closesOnFinalBalance(String accountNumber) {
+        return !hotAccounts.isHot(accountNumber);
+    }
+
+    @Test
+    void testCreditsGoToSlotsAndDebitsSweepThem() {
+        // Arrange
+        String hot = accountNumbers.get(0);
+        Account before = accountRepository.getAccountByAccountNumber(hot);
+
+        // Act
+        bankingService.transferFunds(new TransfareRecord(accountNumbers.get(2), hot, new BigDecimal("100.00"), Currency.EUR));
+        Account credited = accountRepository.getAccountByAccountNumber(hot);
+        BigDecimal reported = bankingService.getAccountsByClient("STRESS").stream()
+                .filter(account -> account.accountNumber().equals(hot))
+                .map(AccountRecord::balance)
+                .findFirst()
+                .orElseThrow();
+        bankingService.transferFunds(new TransfareRecord(hot, accountNumbers.get(3), new BigDecimal("1050.00"), Currency.EUR));
+        BigDecimal swept = accountRepository.getAccountByAccountNumber(hot).getBalance();
+        bankingService.transferFunds(new TransfareRecord(accountNumbers.get(2), hot, new BigDecimal("30.00"), Currency.EUR));
+        hotAccounts.rebalance();
+
+        // Assert: the credit left the account row alone, the debit needed the slots
+        assertEquals(before.getVersion(), credited.getVersion());
+        assertEquals(0, INITIAL_BALANCE.compareTo(credited.getBalance()));
+        assertEquals(0, new BigDecimal("1100.00").compareTo(reported));
+        assertEquals(0, new BigDecimal("50.00").compareTo(swept));
+        assertEquals(0, new BigDecimal("80.00").compareTo(accountRepository.getAccountByAccountNumber(hot).getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceSlotRepository.sumByAccountNumber(hot)));
+        List<StatementPeriodRecord> days = bankingService.getStatementSummary(hot, StatementPeriod.DAY, null,
+                LocalDate.now(ZoneOffset.UTC).plusDays(1));
+        StatementPeriodRecord today = days.get(days.size() - 1);
+        assertEquals(0, new BigDecimal("130.00").compareTo(today.incoming()));
+        assertEquals(0, new BigDecimal("1050.00").compareTo(today.outgoing()));
+        assertEquals(0, new BigDecimal("80.00").compareTo(today.closingBalance()));
+    }
+}
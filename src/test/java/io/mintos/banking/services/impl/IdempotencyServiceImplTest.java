@@ -0,0 +1,380 @@
+package io.mintos.banking.services.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.mintos.banking.domain.IdempotentRequest;
+import io.mintos.banking.enums.TransferStatus;
+import io.mintos.banking.exception.AmountExceedsException;
+import io.mintos.banking.exception.IdempotencyKeyConflictException;
+import io.mintos.banking.exception.IdempotencyKeyReuseException;
+import io.mintos.banking.records.IdempotentOutcomeRecord;
+import io.mintos.banking.repos.IdempotentRequestRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+class IdempotencyServiceImplTest {
+
+    private static final IdempotentOutcomeRecord OK = new IdempotentOutcomeRecord(200, null, null, null);
+
+    private final IdempotentRequestRepository idempotentRequestRepository = mock(IdempotentRequestRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final IdempotencyServiceImpl idempotencyService = new IdempotencyServiceImpl(idempotentRequestRepository,
+            transactionManager, 1000, Duration.ofMinutes(1), Duration.ofSeconds(5), Duration.ofMinutes(1));
+    private final AtomicInteger executions = new AtomicInteger();
+
+    IdempotencyServiceImplTest() {
+        when(idempotentRequestRepository.saveAndFlush(Mockito.any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteRunsOnceAndReplaysFromIndex() {
+        // Arrange, Act
+        IdempotentOutcomeRecord first = idempotencyService.execute("key-1", "request", true, this::succeed);
+        clearInvocations(idempotentRequestRepository);
+        IdempotentOutcomeRecord repeated = idempotencyService.execute("key-1", "request", true, this::succeed);
+
+        // Assert
+        assertEquals(OK, first);
+        assertEquals(OK, repeated);
+        assertEquals(1, executions.get());
+        verifyNoInteractions(idempotentRequestRepository);
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteCollapsesConcurrentDuplicates() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<IdempotentOutcomeRecord>> futures = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < 8; i++) {
+                futures.add(CompletableFuture.supplyAsync(() -> idempotencyService.execute("key-1", "request", true, recordOutcome -> {
+                    awaitQuietly(release);
+                    return succeed(recordOutcome);
+                }), executor));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            // Assert
+            for (CompletableFuture<IdempotentOutcomeRecord> future : futures) {
+                assertEquals(OK, future.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+        verify(idempotentRequestRepository, times(1)).saveAndFlush(Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteRejectsKeyReuseForDifferentRequest() {
+        // Arrange
+        idempotencyService.execute("key-1", "request", true, this::succeed);
+
+        // Act and Assert
+        assertThrows(IdempotencyKeyReuseException.class,
+                () -> idempotencyService.execute("key-1", "other request", true, this::succeed));
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteReplaysClientError() {
+        // Arrange, Act and Assert
+        assertThrows(AmountExceedsException.class, () -> idempotencyService.execute("key-1", "request", true, recordOutcome -> {
+            executions.incrementAndGet();
+            throw new AmountExceedsException("Not enough funds!");
+        }));
+        AmountExceedsException replayed = assertThrows(AmountExceedsException.class,
+                () -> idempotencyService.execute("key-1", "request", true, this::succeed));
+        assertEquals("Not enough funds!", replayed.getMessage());
+        assertEquals(1, executions.get());
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteReplaysStoredOutcomeAfterIndexMiss() {
+        // Arrange
+        IdempotentRequest stored = new IdempotentRequest()
+                .setIdempotencyKey("key-1")
+                .setRequestHash(sha256("request"))
+                .setResponseStatus(202)
+                .setTransferId("transfer-1");
+        when(idempotentRequestRepository.saveAndFlush(Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotent_request_key"));
+        when(idempotentRequestRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(stored));
+
+        // Act
+        IdempotentOutcomeRecord actual = idempotencyService.execute("key-1", "request", true, this::succeed);
+
+        // Assert
+        assertEquals(new IdempotentOutcomeRecord(202, "transfer-1", null, null), actual);
+        assertEquals(0, executions.get());
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteReleasesKeyOnServerError() {
+        // Arrange, Act and Assert
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("key-1", "request", true, recordOutcome -> {
+            executions.incrementAndGet();
+            throw new IllegalStateException("Database unavailable");
+        }));
+        verify(idempotentRequestRepository).delete(Mockito.any(IdempotentRequest.class));
+
+        assertEquals(OK, idempotencyService.execute("key-1", "request", true, this::succeed));
+        assertEquals(2, executions.get());
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteStoresOutcomeRecordedByTheAction() {
+        // Arrange, Act
+        IdempotentOutcomeRecord actual = idempotencyService.execute("key-1", "request", true, recordOutcome -> {
+            recordOutcome.accept(OK);
+            return succeed(recordOutcome);
+        });
+
+        // Assert: written once, in the action's transaction rather than one of its own
+        assertEquals(OK, actual);
+        ArgumentCaptor<IdempotentRequest> captor = ArgumentCaptor.forClass(IdempotentRequest.class);
+        verify(idempotentRequestRepository).save(captor.capture());
+        assertEquals(200, captor.getValue().getResponseStatus());
+        verifyNoInteractions(transactionManager);
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteReplaysStoredClientErrorAfterIndexMiss() {
+        // Arrange
+        IdempotentRequest stored = new IdempotentRequest()
+                .setIdempotencyKey("key-1")
+                .setRequestHash(sha256("request"))
+                .setResponseStatus(409)
+                .setMessage("Not enough funds!")
+                .setErrorCode("AMOUNT_EXCEEDS");
+        when(idempotentRequestRepository.saveAndFlush(Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotent_request_key"));
+        when(idempotentRequestRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(stored));
+
+        // Act and Assert
+        AmountExceedsException replayed = assertThrows(AmountExceedsException.class,
+                () -> idempotencyService.execute("key-1", "request", true, this::succeed));
+        assertEquals("Not enough funds!", replayed.getMessage());
+        assertEquals(0, executions.get());
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteTakesOverStaleClaim() {
+        // Arrange: the outcome of an earlier attempt was never stored
+        IdempotentRequest abandoned = new IdempotentRequest()
+                .setIdempotencyKey("key-1")
+                .setRequestHash(sha256("request"))
+                .setCreatedAt(OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(5))
+                .setRecoverable(true);
+        when(idempotentRequestRepository.saveAndFlush(Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotent_request_key"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(idempotentRequestRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(abandoned));
+
+        // Act
+        IdempotentOutcomeRecord actual = idempotencyService.execute("key-1", "request", true, this::succeed);
+
+        // Assert
+        assertEquals(OK, actual);
+        assertEquals(1, executions.get());
+        verify(idempotentRequestRepository).delete(abandoned);
+        verify(idempotentRequestRepository, times(2)).saveAndFlush(Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteKeepsRecentClaimInProgress() {
+        // Arrange
+        IdempotentRequest inProgress = new IdempotentRequest()
+                .setIdempotencyKey("key-1")
+                .setRequestHash(sha256("request"))
+                .setCreatedAt(OffsetDateTime.now(ZoneOffset.UTC).minusSeconds(5));
+        when(idempotentRequestRepository.saveAndFlush(Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotent_request_key"));
+        when(idempotentRequestRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(inProgress));
+
+        // Act and Assert
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> idempotencyService.execute("key-1", "request", true, this::succeed));
+        assertEquals(0, executions.get());
+        verify(idempotentRequestRepository, never()).delete(Mockito.any(IdempotentRequest.class));
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteKeepsStaleClaimThatMayHaveTakenEffect() {
+        // Arrange: the earlier attempt could have moved money without storing its outcome
+        IdempotentRequest abandoned = new IdempotentRequest()
+                .setIdempotencyKey("key-1")
+                .setRequestHash(sha256("request"))
+                .setCreatedAt(OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(5))
+                .setRecoverable(false);
+        when(idempotentRequestRepository.saveAndFlush(Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotent_request_key"));
+        when(idempotentRequestRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(abandoned));
+
+        // Act and Assert
+        assertThrows(IdempotencyKeyConflictException.class,
+                () -> idempotencyService.execute("key-1", "request", false, this::succeed));
+        assertEquals(0, executions.get());
+        verify(idempotentRequestRepository, never()).delete(Mockito.any(IdempotentRequest.class));
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteReplaysOutcomeRecordedAfterReturning() {
+        // Arrange
+        IdempotentOutcomeRecord pending = new IdempotentOutcomeRecord(202, "transfer-1", TransferStatus.PENDING, null);
+        IdempotentOutcomeRecord completed = new IdempotentOutcomeRecord(202, "transfer-1", TransferStatus.COMPLETED, null);
+        List<Consumer<IdempotentOutcomeRecord>> recorders = new ArrayList<>();
+        idempotencyService.execute("key-1", "request", true, recordOutcome -> {
+            recordOutcome.accept(pending);
+            recorders.add(recordOutcome);
+            return pending;
+        });
+
+        // Act
+        recorders.get(0).accept(completed);
+        IdempotentOutcomeRecord repeated = idempotencyService.execute("key-1", "request", true, this::succeed);
+
+        // Assert
+        assertEquals(completed, repeated);
+        ArgumentCaptor<IdempotentRequest> captor = ArgumentCaptor.forClass(IdempotentRequest.class);
+        verify(idempotentRequestRepository, times(2)).save(captor.capture());
+        assertEquals(TransferStatus.COMPLETED, captor.getValue().getTransferStatus());
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteFailsWaitingDuplicatesWithConflict() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException leaderFailure = new IllegalStateException("Database unavailable");
+        CompletableFuture<IdempotentOutcomeRecord> leader = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("key-1", "request", true, recordOutcome -> {
+                    awaitQuietly(release);
+                    throw leaderFailure;
+                }));
+        Thread.sleep(100);
+
+        // Act
+        CompletableFuture<IdempotentOutcomeRecord> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("key-1", "request", true, this::succeed));
+        Thread.sleep(100);
+        release.countDown();
+
+        // Assert
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> duplicate.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IdempotencyKeyConflictException.class, thrown.getCause());
+        assertSame(leaderFailure, assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS)).getCause());
+        assertEquals(0, executions.get());
+    }
+
+    /**
+     * Method under test: {@link IdempotencyServiceImpl#execute(String, String, boolean, java.util.function.Function)}
+     */
+    @Test
+    void testExecuteReplaysUnknownErrorCodeWithItsStatus() {
+        // Arrange
+        IdempotentRequest stored = new IdempotentRequest()
+                .setIdempotencyKey("key-1")
+                .setRequestHash(sha256("request"))
+                .setResponseStatus(409)
+                .setMessage("Retired error")
+                .setErrorCode("RETIRED");
+        when(idempotentRequestRepository.saveAndFlush(Mockito.any()))
+                .thenThrow(new DataIntegrityViolationException("uk_idempotent_request_key"));
+        when(idempotentRequestRepository.findByIdempotencyKey("key-1")).thenReturn(Optional.of(stored));
+
+        // Act and Assert
+        ResponseStatusException replayed = assertThrows(ResponseStatusException.class,
+                () -> idempotencyService.execute("key-1", "request", true, this::succeed));
+        assertEquals(409, replayed.getStatusCode().value());
+    }
+
+    private IdempotentOutcomeRecord succeed(Consumer<IdempotentOutcomeRecord> recordOutcome) {
+        executions.incrementAndGet();
+        return OK;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
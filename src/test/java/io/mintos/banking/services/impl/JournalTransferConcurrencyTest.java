@@ -0,0 +1,62 @@
+package io.mintos.banking.services.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.mintos.banking.domain.Transactions;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.StatementPeriod;
+import io.mintos.banking.records.StatementPeriodRecord;
+import io.mintos.banking.records.TransfareRecord;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Runs the {@link LedgerTransferConcurrencyTest} scenarios with the transaction journal enabled, where postings
+ * reach the database only when the journal is flushed.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"exchange.cache.initial-delay=PT1H", "banking.transfer.concurrency-mode=LEDGER",
+                "banking.ledger.checkpoint-interval=PT1H", "banking.journal.enabled=true",
+                "banking.journal.flush-interval=PT1H", "spring.datasource.url=jdbc:h2:mem:journal"})
+class JournalTransferConcurrencyTest extends LedgerTransferConcurrencyTest {
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("journal").toString();
+        registry.add("banking.journal.directory", () -> directory);
+    }
+
+    @Test
+    void testPostingsAreWrittenWhenTheJournalIsFlushed() {
+        // Arrange
+        bankingService.transferFunds(new TransfareRecord(accountNumbers.get(0), accountNumbers.get(1),
+                new BigDecimal("100.00"), Currency.EUR));
+        boolean writtenBeforeFlush = !transactionsRepository.findHistory(accountNumbers.get(0), Pageable.unpaged()).isEmpty();
+
+        // Act
+        transactionJournal.flush();
+
+        // Assert
+        assertFalse(writtenBeforeFlush);
+        assertEquals(0, new BigDecimal("900.00").compareTo(ledgerBalances.balanceOf(accountNumbers.get(0))));
+        List<Transactions> postings = transactionsRepository.findAllByAccountNumber(accountNumbers.get(1), Pageable.unpaged())
+                .getContent();
+        assertEquals(1, postings.size());
+        assertNotNull(postings.get(0).getJournalSequence());
+        List<StatementPeriodRecord> days = bankingService.getStatementSummary(accountNumbers.get(1), StatementPeriod.DAY,
+                null, LocalDate.now(ZoneOffset.UTC).plusDays(1));
+        assertEquals(1, days.size());
+        assertEquals(0, new BigDecimal("1100.00").compareTo(days.get(0).closingBalance()));
+    }
+}
@@ -0,0 +1,95 @@
+package io.mintos.banking.services.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.mintos.banking.domain.Account;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.utils.AccountLocks;
+import io.mintos.banking.utils.LedgerBalances;
+import io.mintos.banking.utils.TransactionJournal;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Runs the {@link TransferConcurrencyTest} scenario in ledger mode, where transfers only append postings.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"exchange.cache.initial-delay=PT1H", "banking.transfer.concurrency-mode=LEDGER",
+                "banking.ledger.checkpoint-interval=PT1H", "spring.datasource.url=jdbc:h2:mem:ledger"})
+class LedgerTransferConcurrencyTest extends TransferConcurrencyTest {
+
+    @Autowired
+    LedgerBalances ledgerBalances;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TransactionJournal transactionJournal;
+
+    @AfterEach
+    void evictBalances() {
+        accountNumbers.forEach(ledgerBalances::evict);
+    }
+
+    /**
+     * Checks that the checkpoint written for the account matches the balance derived in memory.
+     */
+    @Override
+    BigDecimal balanceOf(String accountNumber) {
+        BigDecimal ledgerBalance = ledgerBalances.balanceOf(accountNumber);
+        ledgerBalances.checkpoint();
+        assertEquals(ledgerBalance, super.balanceOf(accountNumber));
+        return ledgerBalance;
+    }
+
+    @Test
+    void testTransferAppendsPostingsWithoutUpdatingAccounts() {
+        // Arrange
+        Account before = accountRepository.getAccountByAccountNumber(accountNumbers.get(0));
+
+        // Act
+        bankingService.transferFunds(new TransfareRecord(accountNumbers.get(0), accountNumbers.get(1),
+                new BigDecimal("100.00"), Currency.EUR));
+
+        // Assert
+        Account after = accountRepository.getAccountByAccountNumber(accountNumbers.get(0));
+        assertEquals(before.getVersion(), after.getVersion());
+        assertEquals(0, INITIAL_BALANCE.compareTo(after.getBalance()));
+        assertEquals(0, new BigDecimal("900.00").compareTo(ledgerBalances.balanceOf(accountNumbers.get(0))));
+        AccountRecord cached = bankingService.getAccountsByClient("STRESS").stream()
+                .filter(account -> account.accountNumber().equals(accountNumbers.get(1)))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(0, new BigDecimal("1100.00").compareTo(cached.balance()));
+    }
+
+    @Test
+    void testBalanceRebuiltFromCheckpointAndTail() {
+        // Arrange
+        TransfareRecord transfer = new TransfareRecord(accountNumbers.get(0), accountNumbers.get(1),
+                new BigDecimal("10.00"), Currency.EUR);
+        bankingService.transferFunds(transfer);
+        ledgerBalances.checkpoint();
+        bankingService.transferFunds(transfer);
+        bankingService.transferFunds(transfer);
+
+        // Act
+        LedgerBalances restarted = new LedgerBalances(accountRepository, transactionsRepository, new AccountLocks(16),
+                transactionManager, transactionJournal);
+
+        // Assert
+        assertEquals(0, new BigDecimal("970.00").compareTo(restarted.balanceOf(accountNumbers.get(0))));
+        assertEquals(0, new BigDecimal("1030.00").compareTo(restarted.balanceOf(accountNumbers.get(1))));
+        assertEquals(0, new BigDecimal("990.00")
+                .compareTo(accountRepository.getAccountByAccountNumber(accountNumbers.get(0)).getBalance()));
+    }
+}
@@ -0,0 +1,21 @@
+package io.mintos.banking.services.impl;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the {@link TransferConcurrencyTest} scenario with version checks and retries instead of locks.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"exchange.cache.initial-delay=PT1H", "banking.transfer.concurrency-mode=OPTIMISTIC",
+                "banking.transfer.retry.max-attempts=20",
+                "banking.transfer.retry.max-backoff=PT0.02S", "spring.datasource.url=jdbc:h2:mem:optimistic"})
+class OptimisticTransferConcurrencyTest extends TransferConcurrencyTest {
+
+    /**
+     * Nearly every attempt conflicts at this contention level, so fewer transfers keep the run time comparable.
+     */
+    @Override
+    int transfersPerThread() {
+        return 15;
+    }
+}
@@ -0,0 +1,173 @@
+package io.mintos.banking.services.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.mintos.banking.domain.Account;
+import io.mintos.banking.domain.Client;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.StatementPeriod;
+import io.mintos.banking.exception.AmountExceedsException;
+import io.mintos.banking.records.StatementPeriodRecord;
+import io.mintos.banking.records.TransfareRecord;
+import io.mintos.banking.repos.AccountRepository;
+import io.mintos.banking.repos.ClientRepository;
+import io.mintos.banking.repos.StatementRollupRepository;
+import io.mintos.banking.repos.TransactionsRepository;
+import io.mintos.banking.services.BankingService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Hammers a handful of accounts from many threads and checks that no update is lost.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"exchange.cache.initial-delay=PT1H", "banking.transfer.concurrency-mode=LOCKING"})
+class TransferConcurrencyTest {
+
+    private static final int ACCOUNTS = 4;
+    private static final int THREADS = 16;
+    static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000.00");
+
+    @Autowired
+    BankingService bankingService;
+
+    @Autowired
+    AccountRepository accountRepository;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    TransactionsRepository transactionsRepository;
+
+    @Autowired
+    private StatementRollupRepository statementRollupRepository;
+
+    private Client client;
+    final List<String> accountNumbers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        client = clientRepository.save(new Client().setName("Stress").setSurname("Test").setPersonalCode("STRESS"));
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Account account = accountRepository.save(new Account()
+                    .setAccountNumber("STRESS" + i)
+                    .setBalance(INITIAL_BALANCE)
+                    .setCurrency(Currency.EUR)
+                    .setClient(client));
+            accountNumbers.add(account.getAccountNumber());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        statementRollupRepository.deleteAll(statementRollupRepository.findAll().stream()
+                .filter(rollup -> accountNumbers.contains(rollup.getAccountNumber()))
+                .toList());
+        accountNumbers.forEach(accountNumber -> transactionsRepository.deleteAll(
+                transactionsRepository.findAllByAccountNumber(accountNumber, Pageable.unpaged())));
+        accountNumbers.forEach(accountNumber -> accountRepository.delete(accountRepository.getAccountByAccountNumber(accountNumber)));
+        clientRepository.delete(client);
+    }
+
+    int transfersPerThread() {
+        return 100;
+    }
+
+    BigDecimal balanceOf(String accountNumber) {
+        return accountRepository.getAccountByAccountNumber(accountNumber).getBalance();
+    }
+
+    /**
+     * Whether the last posting on the account carries its final balance, which it does when transfers on the
+     * account are serialized.
+     */
+    boolean closesOnFinalBalance(String accountNumber) {
+        return true;
+    }
+
+    @Test
+    void testConcurrentTransfersConserveBalance() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < transfersPerThread(); i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    BigDecimal amount = BigDecimal.valueOf(random.nextInt(1, 5000), 2);
+                    try {
+                        bankingService.transferFunds(new TransfareRecord(accountNumbers.get(from),
+                                accountNumbers.get(to), amount, Currency.EUR));
+                        completed.incrementAndGet();
+                    } catch (AmountExceedsException | ConcurrencyFailureException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        // Assert
+        BigDecimal total = BigDecimal.ZERO;
+        long ledgerRows = 0;
+        for (String accountNumber : accountNumbers) {
+            BigDecimal balance = balanceOf(accountNumber);
+            assertTrue(balance.signum() >= 0);
+            total = total.add(balance);
+            ledgerRows += transactionsRepository.findHistory(accountNumber, Pageable.unpaged()).size();
+            assertRollupsMatch(accountNumber, balance);
+        }
+        assertEquals(INITIAL_BALANCE.multiply(BigDecimal.valueOf(ACCOUNTS)), total);
+        assertEquals(THREADS * transfersPerThread(), completed.get() + rejected.get());
+        assertEquals(2L * completed.get(), ledgerRows);
+    }
+
+    /**
+     * The statement totals add up to the account's net change and the last day closes on its balance.
+     */
+    private void assertRollupsMatch(String accountNumber, BigDecimal balance) {
+        List<StatementPeriodRecord> days = bankingService.getStatementSummary(accountNumber, StatementPeriod.DAY,
+                null, LocalDate.now(ZoneOffset.UTC).plusDays(1));
+        BigDecimal net = BigDecimal.ZERO;
+        for (StatementPeriodRecord day : days) {
+            net = net.add(day.incoming()).subtract(day.outgoing());
+        }
+        assertEquals(0, balance.subtract(INITIAL_BALANCE).compareTo(net), accountNumber);
+        if (!days.isEmpty() && closesOnFinalBalance(accountNumber))
+            assertEquals(0, balance.compareTo(days.get(days.size() - 1).closingBalance()), accountNumber);
+    }
+}
@@ -0,0 +1,124 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.records.ClientAccountRecord;
+import io.mintos.banking.repos.ClientRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ClientAccountsCacheTest {
+
+    private static final AccountRecord ACCOUNT = new AccountRecord("LV01", new BigDecimal("10.00"), Currency.EUR);
+
+    private final ClientRepository clientRepository = mock(ClientRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ClientAccountsCache clientAccountsCache;
+
+    @BeforeEach
+    void setUp() {
+        clientAccountsCache = new ClientAccountsCache(clientRepository, 100, Duration.ofMinutes(1), 2, meterRegistry);
+    }
+
+    /**
+     * Method under test: {@link ClientAccountsCache#getAccounts(String)}
+     */
+    @Test
+    void testGetAccountsLoadsOnce() {
+        // Arrange
+        when(clientRepository.findClientAccountsByPersonalCode("326542136589")).thenReturn(List.of(ACCOUNT));
+
+        // Act
+        Optional<List<AccountRecord>> first = clientAccountsCache.getAccounts("326542136589");
+        Optional<List<AccountRecord>> second = clientAccountsCache.getAccounts("326542136589");
+
+        // Assert
+        assertEquals(List.of(ACCOUNT), first.orElseThrow());
+        assertEquals(first, second);
+        verify(clientRepository, times(1)).findClientAccountsByPersonalCode("326542136589");
+        assertEquals(0.5, clientAccountsCache.getHitRatio());
+        assertEquals(0.5, meterRegistry.get("banking.client.accounts.cache.hit.ratio").gauge().value());
+    }
+
+    /**
+     * Method under test: {@link ClientAccountsCache#getAccounts(String)}
+     */
+    @Test
+    void testGetAccountsTellsMissingClientFromClientWithoutAccounts() {
+        // Arrange
+        when(clientRepository.findClientAccountsByPersonalCode("missing")).thenReturn(List.of());
+        when(clientRepository.findClientAccountsByPersonalCode("empty"))
+                .thenReturn(Arrays.asList(new AccountRecord(null, null, null)));
+
+        // Act and Assert
+        assertTrue(clientAccountsCache.getAccounts("missing").isEmpty());
+        assertEquals(List.of(), clientAccountsCache.getAccounts("empty").orElseThrow());
+    }
+
+    /**
+     * Method under test: {@link ClientAccountsCache#invalidate(java.util.Collection)}
+     */
+    @Test
+    void testInvalidateReloadsOnNextRead() {
+        // Arrange
+        AccountRecord updated = new AccountRecord("LV01", new BigDecimal("5.00"), Currency.EUR);
+        when(clientRepository.findClientAccountsByPersonalCode("326542136589"))
+                .thenReturn(List.of(ACCOUNT))
+                .thenReturn(List.of(updated));
+        clientAccountsCache.getAccounts("326542136589");
+
+        // Act
+        clientAccountsCache.invalidate(Set.of("326542136589"));
+
+        // Assert
+        assertEquals(List.of(updated), clientAccountsCache.getAccounts("326542136589").orElseThrow());
+        verify(clientRepository, times(2)).findClientAccountsByPersonalCode("326542136589");
+    }
+
+    /**
+     * Method under test: {@link ClientAccountsCache#getAccounts(java.util.Collection)}
+     */
+    @Test
+    void testGetAccountsInBulkLoadsMissingClientsInChunks() {
+        // Arrange
+        AccountRecord other = new AccountRecord("LV02", new BigDecimal("20.00"), Currency.USD);
+        when(clientRepository.findClientAccountsByPersonalCode("cached")).thenReturn(List.of(ACCOUNT));
+        when(clientRepository.findClientAccountsByPersonalCodeIn(any())).thenAnswer(invocation -> {
+            Collection<String> codes = invocation.getArgument(0);
+            List<ClientAccountRecord> rows = new ArrayList<>();
+            if (codes.contains("a"))
+                rows.add(new ClientAccountRecord("a", "LV02", new BigDecimal("20.00"), Currency.USD));
+            if (codes.contains("empty"))
+                rows.add(new ClientAccountRecord("empty", null, null, null));
+            return rows;
+        });
+        clientAccountsCache.getAccounts("cached");
+
+        // Act
+        Map<String, Optional<List<AccountRecord>>> accounts =
+                clientAccountsCache.getAccounts(List.of("cached", "a", "empty", "missing"));
+        Map<String, Optional<List<AccountRecord>>> again = clientAccountsCache.getAccounts(List.of("a", "missing"));
+
+        // Assert
+        assertEquals(Map.of("cached", Optional.of(List.of(ACCOUNT)), "a", Optional.of(List.of(other)),
+                "empty", Optional.of(List.of()), "missing", Optional.empty()), accounts);
+        assertEquals(Map.of("a", Optional.of(List.of(other)), "missing", Optional.empty()), again);
+        // three clients were missing, loaded with a chunk size of two
+        verify(clientRepository, times(2)).findClientAccountsByPersonalCodeIn(any());
+    }
+}
@@ -0,0 +1,153 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.mintos.banking.domain.ExchangeRate;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.exception.CurrencyNotSupportedException;
+import io.mintos.banking.repos.ExchangeRateRepository;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ContextConfiguration(classes = {CrossRateMatrix.class, CrossRateMatrixTest.Conversions.class})
+@ExtendWith(SpringExtension.class)
+class CrossRateMatrixTest {
+    static class Conversions {
+        // binds the Duration settings the way a Boot application context does
+        @Bean
+        static ConversionService conversionService() {
+            return ApplicationConversionService.getSharedInstance();
+        }
+    }
+
+    @Autowired
+    private CrossRateMatrix crossRateMatrix;
+
+    @MockBean
+    private ExchangeRateRepository exchangeRateRepository;
+
+    /**
+     * Method under test: {@link CrossRateMatrix#getRate(Currency, Currency)}
+     */
+    @Test
+    void testGetRateUsesStoredPair() {
+        // Arrange
+        when(exchangeRateRepository.findRatesEffectiveAt(Mockito.any())).thenReturn(List.of(rate("EURUSD", "1.085184"), rate("USDEUR", "0.92153")));
+        crossRateMatrix.rebuild();
+
+        // Act and Assert
+        assertEquals(new BigDecimal("1.085184"), crossRateMatrix.getRate(Currency.EUR, Currency.USD));
+        assertEquals(new BigDecimal("0.92153"), crossRateMatrix.getRate(Currency.USD, Currency.EUR));
+        assertEquals(BigDecimal.ONE, crossRateMatrix.getRate(Currency.GBP, Currency.GBP));
+    }
+
+    /**
+     * Method under test: {@link CrossRateMatrix#getRate(Currency, Currency)}
+     */
+    @Test
+    void testGetRateTriangulatesThroughBase() {
+        // Arrange
+        when(exchangeRateRepository.findRatesEffectiveAt(Mockito.any())).thenReturn(List.of(rate("EURUSD", "1.25"), rate("GBPEUR", "1.25")));
+        crossRateMatrix.rebuild();
+
+        // Act and Assert
+        assertEquals(0, new BigDecimal("0.8").compareTo(crossRateMatrix.getRate(Currency.USD, Currency.EUR)));
+        assertEquals(0, new BigDecimal("0.8").compareTo(crossRateMatrix.getRate(Currency.EUR, Currency.GBP)));
+        assertEquals(0, new BigDecimal("1.5625").compareTo(crossRateMatrix.getRate(Currency.GBP, Currency.USD)));
+        assertEquals(0, new BigDecimal("0.64").compareTo(crossRateMatrix.getRate(Currency.USD, Currency.GBP)));
+    }
+
+    /**
+     * Method under test: {@link CrossRateMatrix#getRate(Currency, Currency)}
+     */
+    @Test
+    void testGetRateTriangulatesOverSeveralLegs() {
+        // Arrange
+        when(exchangeRateRepository.findRatesEffectiveAt(Mockito.any())).thenReturn(List.of(rate("EURUSD", "2"), rate("USDGBP", "0.5"),
+                rate("EURJPY", "160")));
+        crossRateMatrix.rebuild();
+
+        // Act and Assert
+        assertEquals(0, BigDecimal.ONE.compareTo(crossRateMatrix.getRate(Currency.EUR, Currency.GBP)));
+        assertEquals(0, new BigDecimal("2").compareTo(crossRateMatrix.getRate(Currency.GBP, Currency.USD)));
+    }
+
+    /**
+     * Method under test: {@link CrossRateMatrix#getRate(Currency, Currency)}
+     */
+    @Test
+    void testGetRateForUnreachablePair() {
+        // Arrange
+        when(exchangeRateRepository.findRatesEffectiveAt(Mockito.any())).thenReturn(List.of(rate("EURUSD", "1.085184")));
+        crossRateMatrix.rebuild();
+
+        // Act and Assert
+        assertThrows(CurrencyNotSupportedException.class, () -> crossRateMatrix.getRate(Currency.EUR, Currency.GBP));
+    }
+
+    /**
+     * Method under test: {@link CrossRateMatrix#rebuild()}
+     */
+    @Test
+    void testRebuildPublishesNewRates() {
+        // Arrange
+        when(exchangeRateRepository.findRatesEffectiveAt(Mockito.any())).thenReturn(List.of(rate("EURUSD", "1.1")));
+        crossRateMatrix.rebuild();
+        BigDecimal before = crossRateMatrix.getRate(Currency.EUR, Currency.USD);
+        when(exchangeRateRepository.findRatesEffectiveAt(Mockito.any())).thenReturn(List.of(rate("EURUSD", "1.2")));
+
+        // Act
+        crossRateMatrix.rebuild();
+
+        // Assert
+        assertEquals(new BigDecimal("1.1"), before);
+        assertEquals(new BigDecimal("1.2"), crossRateMatrix.getRate(Currency.EUR, Currency.USD));
+    }
+
+    /**
+     * Method under test: {@link CrossRateMatrix#rebuildIfDue()}
+     */
+    @Test
+    void testRebuildIfDueAppliesFutureDatedRate() throws InterruptedException {
+        // Arrange: EURUSD 1.2 takes effect shortly after the first build
+        clearInvocations(exchangeRateRepository);
+        OffsetDateTime effectiveFrom = OffsetDateTime.now(ZoneOffset.UTC).plus(Duration.ofMillis(200));
+        when(exchangeRateRepository.findRatesEffectiveAt(Mockito.any())).thenAnswer(invocation ->
+                List.of(invocation.<OffsetDateTime>getArgument(0).isBefore(effectiveFrom)
+                        ? rate("EURUSD", "1.1") : rate("EURUSD", "1.2")));
+        when(exchangeRateRepository.findNextEffectiveFromAfter(Mockito.any())).thenAnswer(invocation ->
+                invocation.<OffsetDateTime>getArgument(0).isBefore(effectiveFrom) ? effectiveFrom : null);
+        crossRateMatrix.rebuild();
+        crossRateMatrix.rebuildIfDue();
+        BigDecimal before = crossRateMatrix.getRate(Currency.EUR, Currency.USD);
+
+        // Act
+        Thread.sleep(Duration.between(OffsetDateTime.now(ZoneOffset.UTC), effectiveFrom).toMillis() + 50);
+        crossRateMatrix.rebuildIfDue();
+
+        // Assert
+        assertEquals(new BigDecimal("1.1"), before);
+        assertEquals(new BigDecimal("1.2"), crossRateMatrix.getRate(Currency.EUR, Currency.USD));
+        verify(exchangeRateRepository, times(2)).findRatesEffectiveAt(Mockito.any());
+    }
+
+    private static ExchangeRate rate(String source, String rate) {
+        return new ExchangeRate().setSource(source).setRate(new BigDecimal(rate));
+    }
+}
@@ -0,0 +1,99 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.mintos.banking.enums.Currency;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+@ContextConfiguration(classes = {CurrencyConverter.class})
+@ExtendWith(SpringExtension.class)
+class CurrencyConverterTest {
+    @Autowired
+    private CurrencyConverter currencyConverter;
+
+    @MockBean
+    private ExchangeRateCache exchangeRateCache;
+
+    @MockBean
+    private CrossRateMatrix crossRateMatrix;
+
+    /**
+     * Method under test: {@link CurrencyConverter#convert(Currency, Currency, BigDecimal)}
+     */
+    @Test
+    void testConvertWithCachedRate() {
+        // Arrange
+        when(exchangeRateCache.getRate(Currency.EUR, Currency.USD)).thenReturn(Optional.of(new BigDecimal("1.1")));
+
+        // Act
+        BigDecimal actualConvertResult = currencyConverter.convert(Currency.EUR, Currency.USD, new BigDecimal("10"));
+
+        // Assert
+        assertEquals(new BigDecimal("11.00"), actualConvertResult);
+        verify(crossRateMatrix, never()).getRate(Mockito.any(), Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link CurrencyConverter#convert(Currency, Currency, BigDecimal)}
+     */
+    @Test
+    void testConvertFallsBackToCrossRateMatrix() {
+        // Arrange
+        when(exchangeRateCache.getRate(Currency.EUR, Currency.USD)).thenReturn(Optional.empty());
+        when(crossRateMatrix.getRate(Currency.EUR, Currency.USD)).thenReturn(new BigDecimal("1.085184"));
+
+        // Act
+        BigDecimal actualConvertResult = currencyConverter.convert(Currency.EUR, Currency.USD, new BigDecimal("10"));
+
+        // Assert
+        assertEquals(new BigDecimal("10.85"), actualConvertResult);
+        verify(crossRateMatrix).getRate(Currency.EUR, Currency.USD);
+    }
+
+    /**
+     * Method under test: {@link CurrencyConverter#convertAsync(Currency, Currency, BigDecimal)}
+     */
+    @Test
+    void testConvertAsync() {
+        // Arrange
+        when(exchangeRateCache.getRateAsync(Currency.GBP, Currency.EUR))
+                .thenReturn(CompletableFuture.completedFuture(new BigDecimal("1.1703")));
+
+        // Act
+        BigDecimal actualConvertResult = currencyConverter.convertAsync(Currency.GBP, Currency.EUR, new BigDecimal("10")).join();
+
+        // Assert
+        assertEquals(new BigDecimal("11.70"), actualConvertResult);
+    }
+
+    /**
+     * Method under test: {@link CurrencyConverter#convertAsync(Currency, Currency, BigDecimal)}
+     */
+    @Test
+    void testConvertAsyncFallsBackToCrossRateMatrix() {
+        // Arrange
+        when(exchangeRateCache.getRateAsync(Currency.GBP, Currency.EUR))
+                .thenReturn(CompletableFuture.failedFuture(new IOException("Unavailable")));
+        when(crossRateMatrix.getRate(Currency.GBP, Currency.EUR)).thenReturn(new BigDecimal("1.1703"));
+
+        // Act
+        BigDecimal actualConvertResult = currencyConverter.convertAsync(Currency.GBP, Currency.EUR, new BigDecimal("10")).join();
+
+        // Assert
+        assertEquals(new BigDecimal("11.70"), actualConvertResult);
+        verify(crossRateMatrix).getRate(Currency.GBP, Currency.EUR);
+    }
+}
@@ -0,0 +1,239 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mintos.banking.enums.Currency;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExchangeRateCacheTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicReference<String> rate = new AtomicReference<>("1.085184");
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final MutableClock clock = new MutableClock();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean blockResponses;
+
+    private ExchangeRateClient client;
+    private ExchangeRateCache exchangeRateCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/convert", exchange -> {
+            requests.incrementAndGet();
+            if (blockResponses)
+                awaitQuietly(release);
+            byte[] body = ("{\"success\":true,\"result\":" + rate.get() + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status.get(), body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+        client = new ExchangeRateClient(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/convert", "test-key", new OkHttpClient(),
+                new ExchangeRateCircuitBreaker(Integer.MAX_VALUE, Duration.ofSeconds(30), new SimpleMeterRegistry(), clock),
+                Duration.ofSeconds(5));
+        exchangeRateCache = new ExchangeRateCache(client, Duration.ofMinutes(5), Duration.ofHours(1), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        client.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void testGetRateMissThenHit() {
+        // Arrange, Act and Assert
+        assertTrue(exchangeRateCache.getRate(Currency.EUR, Currency.USD).isEmpty());
+        assertEquals(1, exchangeRateCache.getMissCount());
+
+        exchangeRateCache.refresh(Currency.EUR, Currency.USD);
+        Optional<BigDecimal> actualRate = exchangeRateCache.getRate(Currency.EUR, Currency.USD);
+
+        assertEquals(new BigDecimal("1.085184"), actualRate.orElseThrow());
+        assertEquals(1, exchangeRateCache.getHitCount());
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateCache#bindTo(io.micrometer.core.instrument.MeterRegistry)}
+     */
+    @Test
+    void testBindToPublishesCounters() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        exchangeRateCache.bindTo(meterRegistry);
+        status.set(500);
+
+        // Act
+        exchangeRateCache.getRate(Currency.EUR, Currency.USD);
+        exchangeRateCache.refresh(Currency.EUR, Currency.USD);
+
+        // Assert
+        assertEquals(1, meterRegistry.get("exchange.rate.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(0, meterRegistry.get("exchange.rate.cache.requests").tag("result", "hit").functionCounter().count());
+        assertTrue(meterRegistry.get("exchange.rate.cache.refresh.failures").functionCounter().count() >= 1);
+    }
+
+    @Test
+    void testGetRateServesStaleAndRevalidates() throws InterruptedException {
+        // Arrange
+        exchangeRateCache.refresh(Currency.EUR, Currency.USD);
+        int requestsBefore = requests.get();
+        rate.set("1.1");
+        clock.advance(Duration.ofMinutes(10));
+
+        // Act
+        Optional<BigDecimal> actualRate = exchangeRateCache.getRate(Currency.EUR, Currency.USD);
+
+        // Assert
+        assertEquals(new BigDecimal("1.085184"), actualRate.orElseThrow());
+        assertEquals(1, exchangeRateCache.getStaleHitCount());
+        awaitRequests(requestsBefore + 1);
+        awaitRate(Currency.EUR, Currency.USD, new BigDecimal("1.1"));
+    }
+
+    @Test
+    void testGetRateBeyondHardTtl() {
+        // Arrange
+        exchangeRateCache.refresh(Currency.EUR, Currency.USD);
+        status.set(500);
+        clock.advance(Duration.ofHours(2));
+
+        // Act and Assert
+        assertTrue(exchangeRateCache.getRate(Currency.EUR, Currency.USD).isEmpty());
+        assertEquals(1, exchangeRateCache.getMissCount());
+    }
+
+    @Test
+    void testRefreshFailureKeepsPreviousRate() {
+        // Arrange
+        exchangeRateCache.refresh(Currency.EUR, Currency.USD);
+        status.set(500);
+
+        // Act
+        exchangeRateCache.refresh(Currency.EUR, Currency.USD);
+
+        // Assert
+        assertEquals(1, exchangeRateCache.getRefreshFailureCount());
+        assertEquals(new BigDecimal("1.085184"), exchangeRateCache.getRate(Currency.EUR, Currency.USD).orElseThrow());
+    }
+
+    @Test
+    void testRefreshAllLoadsEveryPair() {
+        // Arrange, Act
+        exchangeRateCache.refreshAll();
+
+        // Assert
+        assertEquals(6, requests.get());
+        assertTrue(exchangeRateCache.getRate(Currency.GBP, Currency.EUR).isPresent());
+    }
+
+    @Test
+    void testGetRateAsyncCoalescesConcurrentCallers() {
+        // Arrange
+        blockResponses = true;
+        List<CompletableFuture<BigDecimal>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            futures.add(exchangeRateCache.getRateAsync(Currency.EUR, Currency.GBP));
+        }
+        release.countDown();
+
+        // Assert
+        futures.forEach(f -> assertEquals(new BigDecimal("1.085184"), f.join()));
+        assertEquals(1, requests.get());
+        assertEquals(new BigDecimal("1.085184"), exchangeRateCache.getRate(Currency.EUR, Currency.GBP).orElseThrow());
+    }
+
+    @Test
+    void testGetRateAsyncFailsWhenApiUnavailable() {
+        // Arrange
+        status.set(503);
+
+        // Act and Assert
+        CompletableFuture<BigDecimal> future = exchangeRateCache.getRateAsync(Currency.EUR, Currency.GBP);
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(IOException.class, exception.getCause());
+        assertEquals(1, exchangeRateCache.getRefreshFailureCount());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitRequests(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (requests.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(requests.get() >= expected);
+    }
+
+    private void awaitRate(Currency from, Currency to, BigDecimal expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!expected.equals(exchangeRateCache.getRate(from, to).orElse(null)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, exchangeRateCache.getRate(from, to).orElseThrow());
+    }
+
+    static class MutableClock extends Clock {
+        private volatile Instant instant = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mintos.banking.enums.CircuitBreakerState;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class ExchangeRateCircuitBreakerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExchangeRateCacheTest.MutableClock clock = new ExchangeRateCacheTest.MutableClock();
+    private final ExchangeRateCircuitBreaker circuitBreaker =
+            new ExchangeRateCircuitBreaker(3, Duration.ofSeconds(30), meterRegistry, clock);
+
+    /**
+     * Method under test: {@link ExchangeRateCircuitBreaker#onFailure()}
+     */
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        // Arrange
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        circuitBreaker.onSuccess();
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+
+        // Act
+        circuitBreaker.onFailure();
+
+        // Assert
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+        assertFalse(circuitBreaker.tryAcquire());
+        assertEquals(2, meterRegistry.get("exchange.api.breaker.rejected").counter().count());
+        assertEquals(1, meterRegistry.get("exchange.api.breaker.state").tag("state", "open").gauge().value());
+        assertEquals(0, meterRegistry.get("exchange.api.breaker.state").tag("state", "closed").gauge().value());
+        assertEquals(1, meterRegistry.get("exchange.api.breaker.transitions").tag("state", "open").counter().count());
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateCircuitBreaker#tryAcquire()}
+     */
+    @Test
+    void testHalfOpenLetsOneProbeThroughAndClosesOnSuccess() {
+        // Arrange
+        openBreaker();
+        clock.advance(Duration.ofSeconds(29));
+        assertFalse(circuitBreaker.tryAcquire());
+        clock.advance(Duration.ofSeconds(1));
+
+        // Act
+        boolean probe = circuitBreaker.tryAcquire();
+        boolean second = circuitBreaker.tryAcquire();
+        circuitBreaker.onSuccess();
+
+        // Assert
+        assertTrue(probe);
+        assertFalse(second);
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+        assertEquals(1, meterRegistry.get("exchange.api.breaker.transitions").tag("state", "half_open").counter().count());
+        assertEquals(1, meterRegistry.get("exchange.api.breaker.transitions").tag("state", "closed").counter().count());
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateCircuitBreaker#onFailure()}
+     */
+    @Test
+    void testFailedProbeReopensForAnotherPeriod() {
+        // Arrange
+        openBreaker();
+        clock.advance(Duration.ofSeconds(30));
+        assertTrue(circuitBreaker.tryAcquire());
+
+        // Act
+        circuitBreaker.onFailure();
+
+        // Assert
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        clock.advance(Duration.ofSeconds(29));
+        assertFalse(circuitBreaker.tryAcquire());
+        clock.advance(Duration.ofSeconds(1));
+        assertTrue(circuitBreaker.tryAcquire());
+        assertEquals(2, meterRegistry.get("exchange.api.breaker.transitions").tag("state", "open").counter().count());
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure();
+        }
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+    }
+}
@@ -0,0 +1,137 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mintos.banking.enums.CircuitBreakerState;
+import io.mintos.banking.enums.Currency;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExchangeRateClientTest {
+
+    private static final Duration CALL_BUDGET = Duration.ofMillis(200);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicLong delayMillis = new AtomicLong();
+    private final ExchangeRateCacheTest.MutableClock clock = new ExchangeRateCacheTest.MutableClock();
+
+    private ExchangeRateCircuitBreaker circuitBreaker;
+    private ExchangeRateClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/convert", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"success\":true,\"result\":1.085184}".getBytes(StandardCharsets.UTF_8);
+            try (OutputStream os = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, body.length);
+                os.write(body);
+            } catch (IOException e) {
+                // the client gave up on the call
+            }
+        });
+        // slow handlers must not hold up the next request
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        circuitBreaker = new ExchangeRateCircuitBreaker(3, Duration.ofSeconds(30), new SimpleMeterRegistry(), clock);
+        client = new ExchangeRateClient("http://127.0.0.1:" + server.getAddress().getPort() + "/convert",
+                "test-key", new OkHttpClient(), circuitBreaker, CALL_BUDGET);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateClient#fetchRateAsync(Currency, Currency)}
+     */
+    @Test
+    void testFetchRateAsyncGivesUpAfterTheCallBudget() {
+        // Arrange
+        delayMillis.set(5_000);
+        long started = System.nanoTime();
+
+        // Act
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> client.fetchRateAsync(Currency.EUR, Currency.USD).join());
+
+        // Assert
+        assertInstanceOf(InterruptedIOException.class, exception.getCause());
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(2)) < 0);
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateClient#fetchRateAsync(Currency, Currency)}
+     */
+    @Test
+    void testFetchRateAsyncFailsFastWhileTheBreakerIsOpen() {
+        // Arrange
+        delayMillis.set(5_000);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(CompletionException.class, () -> client.fetchRateAsync(Currency.EUR, Currency.USD).join());
+        }
+        assertEquals(CircuitBreakerState.OPEN, circuitBreaker.getState());
+        int requestsBeforeOpen = requests.get();
+
+        // Act
+        long started = System.nanoTime();
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> client.fetchRateAsync(Currency.EUR, Currency.USD).join());
+
+        // Assert
+        assertInstanceOf(ExchangeRateCircuitBreaker.CallNotPermittedException.class, exception.getCause());
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(CALL_BUDGET) < 0);
+        assertEquals(requestsBeforeOpen, requests.get());
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateClient#fetchRateAsync(Currency, Currency)}
+     */
+    @Test
+    void testFetchRateAsyncClosesTheBreakerOnceTheApiRecovers() {
+        // Arrange
+        delayMillis.set(5_000);
+        for (int i = 0; i < 3; i++) {
+            assertThrows(CompletionException.class, () -> client.fetchRateAsync(Currency.EUR, Currency.USD).join());
+        }
+        delayMillis.set(0);
+        clock.advance(Duration.ofSeconds(30));
+
+        // Act
+        BigDecimal rate = client.fetchRateAsync(Currency.EUR, Currency.USD).join();
+
+        // Assert
+        assertEquals(new BigDecimal("1.085184"), rate);
+        assertEquals(CircuitBreakerState.CLOSED, circuitBreaker.getState());
+    }
+}
@@ -0,0 +1,145 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.mintos.banking.domain.ExchangeRate;
+import io.mintos.banking.enums.RateFileFormat;
+import io.mintos.banking.records.RateLoadResultRecord;
+import io.mintos.banking.repos.ExchangeRateRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class ExchangeRateHistoryLoaderTest {
+
+    private final ExchangeRateRepository exchangeRateRepository = mock(ExchangeRateRepository.class);
+    private final CrossRateMatrix crossRateMatrix = mock(CrossRateMatrix.class);
+    private final List<List<ExchangeRate>> batches = new ArrayList<>();
+    private ExchangeRateHistoryLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        loader = new ExchangeRateHistoryLoader(exchangeRateRepository, crossRateMatrix,
+                Jackson2ObjectMapperBuilder.json().build(), mock(PlatformTransactionManager.class), 2, "");
+        when(exchangeRateRepository.saveAll(Mockito.<List<ExchangeRate>>any())).thenAnswer(invocation -> {
+            List<ExchangeRate> batch = new ArrayList<>(invocation.getArgument(0));
+            batches.add(batch);
+            return batch;
+        });
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateHistoryLoader#load(InputStream, RateFileFormat)}
+     */
+    @Test
+    void testLoadCsvInBatches() throws IOException {
+        // Arrange
+        String csv = """
+                source,rate,effectiveFrom
+                EURUSD,1.08,2024-01-01T00:00:00Z
+                EURUSD,1.09,2024-01-02T00:00:00Z
+
+                GBPEUR,1.17,2024-01-02T00:00:00Z
+                EURUSD,not-a-rate,2024-01-03T00:00:00Z
+                EUR,1.1,2024-01-03T00:00:00Z
+                """;
+
+        // Act
+        RateLoadResultRecord actualResult = loader.load(stream(csv), RateFileFormat.CSV);
+
+        // Assert
+        assertEquals(new RateLoadResultRecord(3, 2), actualResult);
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+        ExchangeRate first = batches.get(0).get(0);
+        assertEquals("EURUSD", first.getSource());
+        assertEquals(new BigDecimal("1.08"), first.getRate());
+        assertEquals(OffsetDateTime.parse("2024-01-01T00:00:00Z"), first.getEffectiveFrom());
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateHistoryLoader#load(InputStream, RateFileFormat)}
+     */
+    @Test
+    void testLoadCsvRejectsUnknownHeader() {
+        // Arrange, Act and Assert
+        assertThrows(IOException.class, () -> loader.load(stream("pair,rate\nEURUSD,1.08\n"), RateFileFormat.CSV));
+        verify(exchangeRateRepository, never()).saveAll(Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateHistoryLoader#load(InputStream, RateFileFormat)}
+     */
+    @Test
+    void testLoadJsonArray() throws IOException {
+        // Arrange
+        String json = """
+                [{"source": "EURUSD", "rate": 1.08, "effectiveFrom": "2024-01-01T00:00:00Z"},
+                 {"source": "USDEUR", "rate": 0.92, "effectiveFrom": "2024-01-01T00:00:00Z"},
+                 {"source": "USDGBP", "rate": 0.78}]
+                """;
+
+        // Act
+        RateLoadResultRecord actualResult = loader.load(stream(json), RateFileFormat.JSON);
+
+        // Assert
+        assertEquals(new RateLoadResultRecord(2, 1), actualResult);
+        assertEquals(1, batches.size());
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateHistoryLoader#load(InputStream, RateFileFormat)}
+     */
+    @Test
+    void testLoadConcatenatedJson() throws IOException {
+        // Arrange
+        String json = """
+                {"source": "EURUSD", "rate": 1.08, "effectiveFrom": "2024-01-01T00:00:00Z"}
+                {"source": "EURGBP", "rate": 0.85, "effectiveFrom": "2024-01-01T00:00:00Z"}
+                {"source": "GBPEUR", "rate": 1.17, "effectiveFrom": "2024-01-01T00:00:00Z"}
+                """;
+
+        // Act
+        RateLoadResultRecord actualResult = loader.load(stream(json), RateFileFormat.JSON);
+
+        // Assert
+        assertEquals(new RateLoadResultRecord(3, 0), actualResult);
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+    }
+
+    /**
+     * Method under test: {@link ExchangeRateHistoryLoader#load(Path)}
+     */
+    @Test
+    void testLoadFileRebuildsMatrix(@TempDir Path directory) throws IOException {
+        // Arrange
+        Path file = Files.writeString(directory.resolve("rates.csv"),
+                ExchangeRateHistoryLoader.CSV_HEADER + "\nEURUSD,1.08,2024-01-01T00:00:00Z\n");
+
+        // Act
+        RateLoadResultRecord actualResult = loader.load(file);
+
+        // Assert
+        assertEquals(new RateLoadResultRecord(1, 0), actualResult);
+        verify(crossRateMatrix).rebuild();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
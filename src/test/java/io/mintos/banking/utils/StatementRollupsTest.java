@@ -0,0 +1,116 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.mintos.banking.domain.Transactions;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.StatementPeriod;
+import io.mintos.banking.enums.TransactionFlow;
+import io.mintos.banking.records.StatementPeriodRecord;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest
+@Import(StatementRollups.class)
+class StatementRollupsTest {
+
+    private static final OffsetDateTime JAN_31 = OffsetDateTime.of(2024, 1, 31, 22, 0, 0, 0, ZoneOffset.UTC);
+
+    @Autowired
+    private StatementRollups statementRollups;
+
+    /**
+     * Method under test: {@link StatementRollups#record(java.util.Collection)}
+     */
+    @Test
+    void testRecordAddsUpPostingsPerDay() {
+        // Arrange
+        statementRollups.record(List.of(
+                posting("ROLL", "100.00", "1100.00", TransactionFlow.INCOMING, JAN_31),
+                posting("ROLL", "30.00", "1070.00", TransactionFlow.OUTGOING, JAN_31.plusMinutes(5)),
+                posting("OTHER", "30.00", "30.00", TransactionFlow.INCOMING, JAN_31.plusMinutes(5))));
+
+        // Act: a later transfer on the same day, and one that falls on the next UTC day
+        statementRollups.record(List.of(
+                posting("ROLL", "20.00", "1050.00", TransactionFlow.OUTGOING, JAN_31.plusMinutes(10)),
+                posting("ROLL", "5.00", "1055.00", TransactionFlow.INCOMING,
+                        OffsetDateTime.of(2024, 2, 1, 1, 0, 0, 0, ZoneOffset.ofHours(3)))));
+
+        // Assert: 2024-02-01T01:00+03:00 is still January 31st in UTC
+        List<StatementPeriodRecord> days = statementRollups.summarize("ROLL", StatementPeriod.DAY,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        assertEquals(1, days.size());
+        assertEquals(LocalDate.of(2024, 1, 31), days.get(0).periodStart());
+        assertEquals(0, new BigDecimal("105.00").compareTo(days.get(0).incoming()));
+        assertEquals(0, new BigDecimal("50.00").compareTo(days.get(0).outgoing()));
+        assertEquals(0, new BigDecimal("1055.00").compareTo(days.get(0).closingBalance()));
+    }
+
+    /**
+     * Method under test: {@link StatementRollups#summarize(String, StatementPeriod, LocalDate, LocalDate)}
+     */
+    @Test
+    void testSummarizeByMonthClosesOnLastDay() {
+        // Arrange
+        statementRollups.record(List.of(
+                posting("MONTH", "100.00", "100.00", TransactionFlow.INCOMING, JAN_31.minusDays(10)),
+                posting("MONTH", "40.00", "60.00", TransactionFlow.OUTGOING, JAN_31),
+                posting("MONTH", "15.00", "75.00", TransactionFlow.INCOMING, JAN_31.plusDays(1)),
+                posting("MONTH", "5.00", "70.00", TransactionFlow.OUTGOING, JAN_31.plusDays(40))));
+
+        // Act
+        List<StatementPeriodRecord> months = statementRollups.summarize("MONTH", StatementPeriod.MONTH,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 29));
+
+        // Assert: the posting in March is outside the range
+        assertEquals(List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1)),
+                months.stream().map(StatementPeriodRecord::periodStart).toList());
+        assertEquals(0, new BigDecimal("100.00").compareTo(months.get(0).incoming()));
+        assertEquals(0, new BigDecimal("40.00").compareTo(months.get(0).outgoing()));
+        assertEquals(0, new BigDecimal("60.00").compareTo(months.get(0).closingBalance()));
+        assertEquals(0, new BigDecimal("15.00").compareTo(months.get(1).incoming()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(months.get(1).outgoing()));
+        assertEquals(0, new BigDecimal("75.00").compareTo(months.get(1).closingBalance()));
+    }
+
+    /**
+     * Method under test: {@link StatementRollups#record(java.util.Collection, int)}
+     */
+    @Test
+    void testSummarizeAddsUpSlotsOfADay() {
+        // Arrange
+        statementRollups.record(List.of(posting("SLOTS", "40.00", "60.00", TransactionFlow.OUTGOING, JAN_31)));
+        statementRollups.record(List.of(posting("SLOTS", "25.00", "85.00", TransactionFlow.INCOMING, JAN_31.plusMinutes(2))), 2);
+        statementRollups.record(List.of(posting("SLOTS", "10.00", "70.00", TransactionFlow.INCOMING, JAN_31.plusMinutes(1))), 1);
+
+        // Act
+        List<StatementPeriodRecord> days = statementRollups.summarize("SLOTS", StatementPeriod.DAY,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+
+        // Assert: the day closes on the slot with the latest posting
+        assertEquals(1, days.size());
+        assertEquals(0, new BigDecimal("35.00").compareTo(days.get(0).incoming()));
+        assertEquals(0, new BigDecimal("40.00").compareTo(days.get(0).outgoing()));
+        assertEquals(0, new BigDecimal("85.00").compareTo(days.get(0).closingBalance()));
+    }
+
+    private static Transactions posting(String accountNumber, String amount, String balance,
+                                        TransactionFlow transactionFlow, OffsetDateTime timestamp) {
+        return new Transactions()
+                .setAccountNumber(accountNumber)
+                .setAmount(new BigDecimal(amount))
+                .setBalance(new BigDecimal(balance))
+                .setCurrency(Currency.EUR)
+                .setTransactionFlow(transactionFlow)
+                .setTimestamp(timestamp);
+    }
+}
@@ -0,0 +1,104 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.ExportFormat;
+import io.mintos.banking.enums.TransactionFlow;
+import io.mintos.banking.records.TransactionsRecord;
+import io.mintos.banking.services.BankingService;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+class TransactionHistoryExporterTest {
+
+    private static final OffsetDateTime TIMESTAMP = OffsetDateTime.of(2024, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private final BankingService bankingService = mock(BankingService.class);
+    private TransactionHistoryExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        exporter = new TransactionHistoryExporter(bankingService, Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+        doAnswer(invocation -> {
+            Consumer<TransactionsRecord> consumer = invocation.getArgument(1);
+            consumer.accept(new TransactionsRecord("42", new BigDecimal("10.00"), new BigDecimal("2.50"), Currency.EUR,
+                    TIMESTAMP, TransactionFlow.INCOMING));
+            consumer.accept(new TransactionsRecord("42", new BigDecimal("7.50"), new BigDecimal("2.50"), Currency.EUR,
+                    TIMESTAMP.minusHours(1), TransactionFlow.OUTGOING));
+            return null;
+        }).when(bankingService).streamTransactionHistory(eq("42"), Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link TransactionHistoryExporter#export(String, ExportFormat, OutputStream)}
+     */
+    @Test
+    void testExportNdjson() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exporter.export("42", ExportFormat.NDJSON, out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertEquals("{\"accountNumber\":\"42\",\"balance\":10.00,\"amount\":2.50,\"currency\":\"EUR\","
+                + "\"timestamp\":\"2024-01-01T12:00:00Z\",\"transactionFlow\":\"INCOMING\"}", lines[0]);
+        assertTrue(lines[1].contains("\"transactionFlow\":\"OUTGOING\""));
+        assertEquals("", lines[2]);
+    }
+
+    /**
+     * Method under test: {@link TransactionHistoryExporter#export(String, ExportFormat, OutputStream)}
+     */
+    @Test
+    void testExportCsv() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        exporter.export("42", ExportFormat.CSV, out);
+
+        // Assert
+        assertEquals(TransactionHistoryExporter.CSV_HEADER + "\n"
+                + "42,10.00,2.50,EUR,2024-01-01T12:00Z,INCOMING\n"
+                + "42,7.50,2.50,EUR,2024-01-01T11:00Z,OUTGOING\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method under test: {@link TransactionHistoryExporter#export(String, ExportFormat, OutputStream)}
+     */
+    @Test
+    void testExportPropagatesWriteFailure() {
+        // Arrange
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Connection reset");
+            }
+        };
+
+        // Act and Assert
+        IOException exception = assertThrows(IOException.class, () -> exporter.export("42", ExportFormat.CSV, broken));
+        assertEquals("Connection reset", exception.getMessage());
+    }
+}
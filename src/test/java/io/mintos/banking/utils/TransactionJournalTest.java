@@ -0,0 +1,249 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mintos.banking.domain.Transactions;
+import io.mintos.banking.enums.ConcurrencyMode;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.enums.TransactionFlow;
+import io.mintos.banking.repos.TransactionsRepository;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+class TransactionJournalTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_789, ZoneOffset.ofHours(2));
+
+    @TempDir
+    Path directory;
+
+    private final List<TransactionJournal> journals = new ArrayList<>();
+
+    @AfterEach
+    void closeJournals() throws InterruptedException {
+        for (TransactionJournal journal : journals) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Method under test: {@link TransactionJournal#awaitDurable(long)}
+     */
+    @Test
+    void testDurablePostingsAreReplayedAfterRestart() throws IOException {
+        // Arrange
+        TransactionJournal crashed = open(mock(TransactionsRepository.class), 64 * 1024);
+        long first = crashed.append(List.of(posting("LV01", "900.00", "100.00", TransactionFlow.OUTGOING),
+                posting("LV02", "1100.00", "100.00", TransactionFlow.INCOMING).setExchangeRate(new BigDecimal("1.085184"))));
+        long second = crashed.append(List.of(posting("LV01", "890.00", "10.00", TransactionFlow.OUTGOING)));
+        crashed.awaitDurable(second);
+        TransactionsRepository transactionsRepository = mock(TransactionsRepository.class);
+
+        // Act
+        TransactionJournal restarted = open(transactionsRepository, 64 * 1024);
+
+        // Assert
+        assertEquals(2, first);
+        assertEquals(3, second);
+        List<Transactions> replayed = saved(transactionsRepository);
+        assertEquals(List.of(1L, 2L, 3L), replayed.stream().map(Transactions::getJournalSequence).toList());
+        Transactions incoming = replayed.get(1);
+        assertEquals("LV02", incoming.getAccountNumber());
+        assertEquals(new BigDecimal("1100.00"), incoming.getBalance());
+        assertEquals(new BigDecimal("100.00"), incoming.getAmount());
+        assertEquals(Currency.EUR, incoming.getCurrency());
+        assertEquals(TransactionFlow.INCOMING, incoming.getTransactionFlow());
+        assertEquals(NOW, incoming.getTimestamp());
+        assertEquals(new BigDecimal("1.085184"), incoming.getExchangeRate());
+        assertNull(replayed.get(2).getExchangeRate());
+        assertEquals(4, restarted.append(List.of(posting("LV01", "880.00", "10.00", TransactionFlow.OUTGOING))));
+    }
+
+    /**
+     * Method under test: {@link TransactionJournal#flush()}
+     */
+    @Test
+    void testReplaySkipsPostingsAlreadyInTheDatabase() throws IOException {
+        // Arrange
+        TransactionJournal crashed = open(mock(TransactionsRepository.class), 64 * 1024);
+        crashed.awaitDurable(crashed.append(List.of(posting("LV01", "900.00", "100.00", TransactionFlow.OUTGOING),
+                posting("LV02", "1100.00", "100.00", TransactionFlow.INCOMING),
+                posting("LV01", "890.00", "10.00", TransactionFlow.OUTGOING))));
+        TransactionsRepository transactionsRepository = mock(TransactionsRepository.class);
+        when(transactionsRepository.findLastJournalSequence()).thenReturn(2L);
+
+        // Act
+        open(transactionsRepository, 64 * 1024);
+
+        // Assert
+        List<Transactions> replayed = saved(transactionsRepository);
+        assertEquals(1, replayed.size());
+        assertEquals(3L, replayed.get(0).getJournalSequence());
+        assertEquals(new BigDecimal("890.00"), replayed.get(0).getBalance());
+    }
+
+    /**
+     * Method under test: {@link TransactionJournal#append(java.util.Collection)}
+     */
+    @Test
+    void testReplayStopsAtTornRecord() throws IOException {
+        // Arrange
+        TransactionJournal crashed = open(mock(TransactionsRepository.class), 64 * 1024);
+        crashed.append(List.of(posting("LV01", "900.00", "100.00", TransactionFlow.OUTGOING),
+                posting("LV02", "1100.00", "100.00", TransactionFlow.INCOMING)));
+        crashed.awaitDurable(crashed.append(List.of(posting("LV01", "890.00", "10.00", TransactionFlow.OUTGOING),
+                posting("LV02", "1110.00", "10.00", TransactionFlow.INCOMING))));
+        try (RandomAccessFile segment = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            // flip the last payload byte of the second record
+            long second = 16 + segment.readInt();
+            segment.seek(second);
+            long end = second + 16 + segment.readInt() - 1;
+            segment.seek(end);
+            int last = segment.read();
+            segment.seek(end);
+            segment.write(last ^ 0xFF);
+        }
+        TransactionsRepository transactionsRepository = mock(TransactionsRepository.class);
+
+        // Act
+        open(transactionsRepository, 64 * 1024);
+
+        // Assert: the transfer is dropped whole, not just one of its postings
+        assertEquals(List.of(1L, 2L), saved(transactionsRepository).stream().map(Transactions::getJournalSequence).toList());
+    }
+
+    /**
+     * Method under test: {@link TransactionJournal#flush()}
+     */
+    @Test
+    void testFlushedSegmentsAreDeleted() throws IOException {
+        // Arrange
+        TransactionsRepository transactionsRepository = mock(TransactionsRepository.class);
+        TransactionJournal journal = open(transactionsRepository, 256);
+        for (int i = 0; i < 10; i++) {
+            journal.awaitDurable(journal.append(List.of(posting("LV01", "900.00", "1.00", TransactionFlow.OUTGOING))));
+        }
+        int rolledOver = segments().size();
+
+        // Act
+        journal.flush();
+
+        // Assert
+        assertTrue(rolledOver > 1);
+        assertEquals(1, segments().size());
+        assertEquals(10, saved(transactionsRepository).size());
+    }
+
+    /**
+     * Method under test: {@link TransactionJournal#flush()}
+     */
+    @Test
+    void testFailedFlushKeepsPostingsForTheNextOne() throws IOException {
+        // Arrange
+        TransactionsRepository transactionsRepository = mock(TransactionsRepository.class);
+        TransactionJournal journal = open(transactionsRepository, 64 * 1024);
+        Transactions posting = posting("LV01", "900.00", "100.00", TransactionFlow.OUTGOING);
+        journal.awaitDurable(journal.append(List.of(posting)));
+        when(transactionsRepository.saveAll(Mockito.<Iterable<Transactions>>any())).thenAnswer(invocation -> {
+            posting.setId(7L);
+            throw new DataAccessResourceFailureException("Database is down");
+        }).thenReturn(List.of(posting));
+
+        // Act
+        assertThrows(DataAccessResourceFailureException.class, journal::flush);
+        Long idAfterFailure = posting.getId();
+        journal.flush();
+        journal.flush();
+
+        // Assert
+        assertNull(idAfterFailure);
+        verify(transactionsRepository, times(2)).saveAll(Mockito.<Iterable<Transactions>>any());
+        assertEquals(1L, posting.getJournalSequence());
+    }
+
+    /**
+     * Method under test: {@link TransactionJournal#append(java.util.Collection)}
+     */
+    @Test
+    void testFailedRollOverStopsAppends() throws IOException {
+        // Arrange: the files the next segments would be created as already exist
+        TransactionJournal journal = open(mock(TransactionsRepository.class), 256);
+        for (int sequence = 2; sequence <= 20; sequence++) {
+            Files.createFile(directory.resolve(String.format("journal-%019d.log", sequence)));
+        }
+        List<Transactions> posting = List.of(posting("LV01", "900.00", "1.00", TransactionFlow.OUTGOING));
+        int appended = 0;
+
+        // Act
+        IllegalStateException failed = null;
+        while (Objects.isNull(failed) && appended < 20) {
+            try {
+                journal.append(posting);
+                appended++;
+            } catch (IllegalStateException e) {
+                failed = e;
+            }
+        }
+
+        // Assert
+        assertNotNull(failed);
+        assertTrue(appended > 0);
+        assertThrows(IllegalStateException.class, () -> journal.append(posting));
+        long next = appended + 1;
+        assertThrows(IllegalStateException.class, () -> journal.awaitDurable(next));
+    }
+
+    private TransactionJournal open(TransactionsRepository transactionsRepository, long segmentSize) throws IOException {
+        TransactionJournal journal = new TransactionJournal(transactionsRepository, mock(StatementRollups.class),
+                mock(PlatformTransactionManager.class), true, directory, DataSize.ofBytes(segmentSize),
+                Duration.ofHours(1), 1000, ConcurrencyMode.LEDGER, new SimpleMeterRegistry());
+        journal.open();
+        journals.add(journal);
+        return journal;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Transactions> saved(TransactionsRepository transactionsRepository) {
+        ArgumentCaptor<List<Transactions>> captor = ArgumentCaptor.forClass(List.class);
+        verify(transactionsRepository, atLeast(0)).saveAll(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static Transactions posting(String accountNumber, String balance, String amount, TransactionFlow flow) {
+        return new Transactions()
+                .setAccountNumber(accountNumber)
+                .setBalance(new BigDecimal(balance))
+                .setAmount(new BigDecimal(amount))
+                .setCurrency(Currency.EUR)
+                .setTransactionFlow(flow)
+                .setTimestamp(NOW);
+    }
+}
@@ -0,0 +1,115 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.exception.AccountNotFoundException;
+import io.mintos.banking.exception.AmountExceedsException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+class TransferMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransferMetrics transferMetrics = new TransferMetrics(meterRegistry);
+
+    /**
+     * Method under test: {@link TransferMetrics.Clock#completed()}
+     */
+    @Test
+    void testCompletedRecordsEveryStageUnderThePair() {
+        // Arrange
+        TransferMetrics.Clock clock = transferMetrics.start(Currency.USD);
+
+        // Act
+        clock.attempt(() -> {
+            clock.begin(TransferMetrics.Stage.LOOKUP);
+            clock.senderCurrency(Currency.EUR);
+            clock.begin(TransferMetrics.Stage.CONVERT);
+            clock.begin(TransferMetrics.Stage.SAVE);
+            clock.begin(TransferMetrics.Stage.LEDGER);
+            clock.begin(TransferMetrics.Stage.ROLLUP);
+            clock.begin(TransferMetrics.Stage.COMMIT);
+            return null;
+        });
+        clock.completed();
+
+        // Assert
+        for (TransferMetrics.Stage stage : TransferMetrics.Stage.values()) {
+            assertEquals(1, stageCount(stage, "EURUSD", "success"), stage.name());
+        }
+        assertEquals(1, meterRegistry.get("banking.transfer.duration").tags("pair", "EURUSD", "outcome", "success")
+                .timer().count());
+        assertTrue(meterRegistry.find("banking.transfer.failures").counters().isEmpty());
+    }
+
+    /**
+     * Method under test: {@link TransferMetrics.Clock#attempt(java.util.function.Supplier)}
+     */
+    @Test
+    void testAttemptRecordsFailedStageAndRetryStartsClean() {
+        // Arrange
+        TransferMetrics.Clock clock = transferMetrics.start(Currency.EUR);
+
+        // Act
+        assertThrows(OptimisticLockingFailureException.class, () -> clock.attempt(() -> {
+            clock.begin(TransferMetrics.Stage.LOOKUP);
+            clock.senderCurrency(Currency.EUR);
+            clock.begin(TransferMetrics.Stage.COMMIT);
+            throw new OptimisticLockingFailureException("Row was updated by another transaction");
+        }));
+        clock.attempt(() -> {
+            clock.begin(TransferMetrics.Stage.LOOKUP);
+            clock.begin(TransferMetrics.Stage.COMMIT);
+            return null;
+        });
+        clock.completed();
+
+        // Assert
+        assertEquals(1, stageCount(TransferMetrics.Stage.COMMIT, "EUREUR", "failure"));
+        assertEquals(1, stageCount(TransferMetrics.Stage.COMMIT, "EUREUR", "success"));
+        assertEquals(2, stageCount(TransferMetrics.Stage.LOOKUP, "EUREUR", "success"));
+    }
+
+    /**
+     * Method under test: {@link TransferMetrics.Clock#failed(RuntimeException)}
+     */
+    @Test
+    void testFailedCountsByExceptionType() {
+        // Arrange
+        TransferMetrics.Clock notFound = transferMetrics.start(Currency.EUR);
+        TransferMetrics.Clock noFunds = transferMetrics.start(Currency.GBP);
+        TransferMetrics.Clock broken = transferMetrics.start(Currency.GBP);
+
+        // Act
+        notFound.begin(TransferMetrics.Stage.LOOKUP);
+        notFound.failed(new AccountNotFoundException("Account 1 does not exist!"));
+        noFunds.begin(TransferMetrics.Stage.LOOKUP);
+        noFunds.senderCurrency(Currency.GBP);
+        noFunds.begin(TransferMetrics.Stage.SAVE);
+        noFunds.failed(new AmountExceedsException("Given amount exceeds available funds!"));
+        broken.failed(new IllegalStateException("Connection is closed"));
+
+        // Assert
+        assertEquals(1, stageCount(TransferMetrics.Stage.LOOKUP, "unknown", "failure"));
+        assertEquals(1, stageCount(TransferMetrics.Stage.SAVE, "GBPGBP", "failure"));
+        assertEquals(1, meterRegistry.get("banking.transfer.duration").tags("pair", "GBPGBP", "outcome", "rejected")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("banking.transfer.duration").tags("pair", "unknown", "outcome", "error")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("banking.transfer.failures").tag("exception", "AccountNotFoundException")
+                .counter().count());
+        assertEquals(1, meterRegistry.get("banking.transfer.failures").tag("exception", "AmountExceedsException")
+                .counter().count());
+        assertEquals(1, meterRegistry.get("banking.transfer.failures").tag("exception", "IllegalStateException")
+                .counter().count());
+    }
+
+    private long stageCount(TransferMetrics.Stage stage, String pair, String outcome) {
+        return meterRegistry.get("banking.transfer.stage")
+                .tags("stage", stage.name().toLowerCase(), "pair", pair, "outcome", outcome)
+                .timer().count();
+    }
+}
@@ -0,0 +1,132 @@
+package io.mintos.banking.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mintos.banking.domain.ExchangeRate;
+import io.mintos.banking.enums.Currency;
+import io.mintos.banking.records.AccountRecord;
+import io.mintos.banking.repos.ClientRepository;
+import io.mintos.banking.repos.ExchangeRateRepository;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Runs the blocking paths that hold a lock on virtual threads and asserts, using JFR, that none of them parks
+ * while pinned to its carrier.
+ */
+class VirtualThreadPinningTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final long QUERY_MILLIS = 20;
+
+    /**
+     * Method under test: {@link ClientAccountsCache#getAccounts(String)}
+     */
+    @Test
+    void testClientAccountsCacheLoadDoesNotPin() throws Exception {
+        // Arrange
+        ClientRepository clientRepository = mock(ClientRepository.class);
+        when(clientRepository.findClientAccountsByPersonalCode(Mockito.any())).thenAnswer(slowly(
+                List.of(new AccountRecord("LV01", new BigDecimal("10.00"), Currency.EUR))));
+        ClientAccountsCache clientAccountsCache = new ClientAccountsCache(clientRepository, 100, Duration.ofMinutes(1), 500,
+                new SimpleMeterRegistry());
+
+        // Act
+        List<String> pinned = pinnedFrames(() -> {
+            for (int i = 0; i < 16; i++) {
+                clientAccountsCache.getAccounts("client-" + (i % 4));
+            }
+        });
+
+        // Assert
+        assertEquals(List.of(), pinned);
+        verify(clientRepository, times(4)).findClientAccountsByPersonalCode(Mockito.any());
+    }
+
+    /**
+     * Method under test: {@link CrossRateMatrix#rebuild()}
+     */
+    @Test
+    void testCrossRateMatrixRebuildDoesNotPin() throws Exception {
+        // Arrange
+        ExchangeRateRepository exchangeRateRepository = mock(ExchangeRateRepository.class);
+        when(exchangeRateRepository.findRatesEffectiveAt(Mockito.any())).thenAnswer(slowly(
+                List.of(new ExchangeRate().setSource("EURUSD").setRate(new BigDecimal("1.085184")))));
+        CrossRateMatrix crossRateMatrix = new CrossRateMatrix(exchangeRateRepository, Currency.EUR, Duration.ofMinutes(5));
+
+        // Act
+        List<String> pinned = pinnedFrames(crossRateMatrix::rebuild);
+
+        // Assert
+        assertEquals(List.of(), pinned);
+        assertEquals(new BigDecimal("1.085184"), crossRateMatrix.getRate(Currency.EUR, Currency.USD));
+    }
+
+    private static <T> Answer<T> slowly(T result) {
+        return invocation -> {
+            Thread.sleep(QUERY_MILLIS);
+            return result;
+        };
+    }
+
+    /**
+     * Runs the task on several virtual threads at once and returns the application frames of every pinned park.
+     */
+    private static List<String> pinnedFrames(Runnable task) throws Exception {
+        Path dump = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(executor.submit(task));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+            recording.stop();
+            recording.dump(dump);
+            return applicationFrames(dump);
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+    }
+
+    private static List<String> applicationFrames(Path dump) throws IOException {
+        List<String> frames = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(dump)) {
+            if (!PINNED_EVENT.equals(event.getEventType().getName()) || event.getStackTrace() == null)
+                continue;
+            frames.add(event.getStackTrace().getFrames().stream()
+                    .filter(RecordedFrame::isJavaFrame)
+                    .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                    .filter(frame -> frame.startsWith("io.mintos.banking.")
+                            && !frame.startsWith(VirtualThreadPinningTest.class.getName()))
+                    .collect(Collectors.joining(" <- ")));
+        }
+        frames.removeIf(String::isEmpty);
+        return frames;
+    }
+}